@@ -0,0 +1,82 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion.UI.config;
+
+import com.intellij.util.SmartList;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Immutable prefix tree over the logical paths of {@link CfmlMappingsConfig}.
+ * <p>
+ * {@link #mapVirtualToReal(String)} gives the same paths as {@link CfmlMappingsConfig#mapVirtualToReal(String)}
+ * but only visits the mappings along the given dotted path instead of all of them.
+ *
+ * @see CfmlProjectConfiguration#getMappingsTrie()
+ */
+public class CfmlMappingsTrie {
+  private final Node myRoot = new Node();
+  private final Set<String> myLogicalPaths;
+
+  public CfmlMappingsTrie(@NotNull Map<String, String> serverMappings) {
+    for (Map.Entry<String, String> entry : serverMappings.entrySet()) {
+      Node node = myRoot;
+      StringTokenizer st = new StringTokenizer(entry.getKey(), "\\/");
+      while (st.hasMoreTokens()) {
+        node = node.getOrCreateChild(st.nextToken());
+      }
+      node.myDirectories.add(entry.getValue());
+    }
+    myLogicalPaths = Collections.unmodifiableSet(new HashSet<>(serverMappings.keySet()));
+  }
+
+  @NotNull
+  public Set<String> getLogicalPaths() {
+    return myLogicalPaths;
+  }
+
+  /**
+   * @param virtualPath dot separated path, e.g. {@code "com.acme.model"}
+   * @return real directories the given path is mapped to
+   */
+  @NotNull
+  public List<String> mapVirtualToReal(@NotNull String virtualPath) {
+    List<String> tokens = new ArrayList<>();
+    StringTokenizer st = new StringTokenizer(virtualPath, ".");
+    while (st.hasMoreTokens()) {
+      tokens.add(st.nextToken());
+    }
+
+    List<String> result = new SmartList<>();
+    Node node = myRoot;
+    for (int i = 0; node != null; i++) {
+      for (String directory : node.myDirectories) {
+        StringBuilder relativePath = new StringBuilder(directory);
+        for (String token : tokens.subList(i, tokens.size())) {
+          relativePath.append(File.separatorChar);
+          relativePath.append(token);
+        }
+        result.add(relativePath.toString());
+      }
+      node = i < tokens.size() ? node.myChildren.get(tokens.get(i)) : null;
+    }
+    return result;
+  }
+
+  private static class Node {
+    private final Map<String, Node> myChildren = new THashMap<>();
+    private final List<String> myDirectories = new SmartList<>();
+
+    @NotNull
+    private Node getOrCreateChild(@NotNull String name) {
+      Node child = myChildren.get(name);
+      if (child == null) {
+        child = new Node();
+        myChildren.put(name, child);
+      }
+      return child;
+    }
+  }
+}
@@ -21,21 +21,40 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Comparing;
 import com.intellij.openapi.util.JDOMUtil;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.xmlb.annotations.Property;
 import com.intellij.util.xmlb.annotations.Tag;
 import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author vnikolaenko
  */
 @State(name = "CfmlProjectConfiguration", storages = @Storage("cfml.xml"))
 public class CfmlProjectConfiguration implements PersistentStateComponent<CfmlProjectConfiguration.State> {
   private State myState = new State();
+  private final Project myProject;
+  private final SimpleModificationTracker myStateModificationTracker = new SimpleModificationTracker();
+  private final CachedValue<CfmlMappingsTrie> myMappingsTrie;
+
+  public CfmlProjectConfiguration(Project project) {
+    myProject = project;
+    myMappingsTrie = CachedValuesManager.getManager(project).createCachedValue(
+      () -> CachedValueProvider.Result.create(computeMappingsTrie(), myStateModificationTracker, ProjectRootManager.getInstance(myProject)),
+      false);
+  }
 
   public static CfmlProjectConfiguration getInstance(Project project) {
     return ServiceManager.getService(project, CfmlProjectConfiguration.class);
@@ -50,12 +69,37 @@ public class CfmlProjectConfiguration implements PersistentStateComponent<CfmlPr
   @Override
   public void loadState(@NotNull State state) {
     myState = state;
+    myStateModificationTracker.incModificationCount();
     if (state == null) {
       return;
     }
     state.migrateIfNeeded();
   }
 
+  /**
+   * Mappings of the current state, the project content roots are mapped to {@code ""} if there are none.
+   * Rebuilt only when the configuration or the project roots change.
+   */
+  @NotNull
+  public CfmlMappingsTrie getMappingsTrie() {
+    return myMappingsTrie.getValue();
+  }
+
+  @NotNull
+  private CfmlMappingsTrie computeMappingsTrie() {
+    State state = myState;
+    CfmlMappingsConfig mappings = state != null && state.getMapps() != null ? state.getMapps() : new CfmlMappingsConfig();
+    if (!mappings.getServerMappings().isEmpty()) {
+      return new CfmlMappingsTrie(mappings.getServerMappings());
+    }
+
+    Map<String, String> defaultMappings = new HashMap<>();
+    for (VirtualFile root : ProjectRootManager.getInstance(myProject).getContentRoots()) {
+      defaultMappings.put("", root.getPresentableUrl());
+    }
+    return new CfmlMappingsTrie(defaultMappings);
+  }
+
   /*
   public CfmlMappingsConfig getMappings() {
     if (myState.getMappings().serverMappings.size() == 0) {
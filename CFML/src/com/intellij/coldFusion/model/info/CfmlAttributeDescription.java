@@ -54,6 +54,14 @@ public class CfmlAttributeDescription implements Comparable<CfmlAttributeDescrip
     return myDescription;
   }
 
+  String getNamePattern() {
+    return myNamePattern.pattern();
+  }
+
+  String getCompletionExample() {
+    return myCompletionExample;
+  }
+
   public boolean acceptName(String name) {
     return myNamePattern.matcher(name).matches();
   }
@@ -0,0 +1,228 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion.model.info;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary copies of the language dictionaries parsed from the bundled tags XML files, kept in the system directory.
+ * Reading a copy is much cheaper than parsing the XML with SAX, which happens for the first completion in each IDE session
+ * and every time a soft-referenced dictionary is collected.
+ */
+class CfmlLangDictionaryStore {
+  private static final Logger LOG = Logger.getInstance(CfmlLangDictionaryStore.class);
+  private static final int VERSION = 1;
+
+  private CfmlLangDictionaryStore() {
+  }
+
+  @NotNull
+  static CfmlLangInfo.CfmlLangDictionary load(@NotNull String scopesFileName, @NotNull String tagsFileName) {
+    final String stamp = getStamp(scopesFileName, tagsFileName);
+    final File storeFile = new File(PathManager.getSystemPath(), "cfml/dictionaries/" + FileUtil.sanitizeFileName(tagsFileName) + ".dat");
+    if (stamp != null) {
+      final CfmlLangInfo.CfmlLangDictionary dictionary = read(storeFile, stamp);
+      if (dictionary != null) return dictionary;
+    }
+
+    final CfmlLangInfo.CfmlLangDictionary dictionary = new CfmlLangInfo.CfmlLangDictionary(scopesFileName, tagsFileName);
+    if (stamp != null && dictionary.myTagAttributes != null) {
+      write(storeFile, stamp, dictionary);
+    }
+    return dictionary;
+  }
+
+  /**
+   * Bundled files change only with the plugin, so their URLs, lengths and timestamps identify the content
+   */
+  @Nullable
+  private static String getStamp(@NotNull String... fileNames) {
+    final StringBuilder stamp = new StringBuilder();
+    for (String fileName : fileNames) {
+      final URL url = CfmlLangInfo.class.getResource(fileName);
+      if (url == null) return null;
+      try {
+        final URLConnection connection = url.openConnection();
+        stamp.append(url.toExternalForm()).append(':').append(connection.getContentLengthLong())
+          .append(':').append(connection.getLastModified()).append(';');
+      }
+      catch (IOException e) {
+        return null;
+      }
+    }
+    return stamp.toString();
+  }
+
+  @Nullable
+  private static CfmlLangInfo.CfmlLangDictionary read(@NotNull File storeFile, @NotNull String stamp) {
+    if (!storeFile.isFile()) return null;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(storeFile)))) {
+      if (in.readInt() != VERSION || !stamp.equals(IOUtil.readUTF(in))) return null;
+
+      final CfmlLangInfo.CfmlLangDictionary dictionary = new CfmlLangInfo.CfmlLangDictionary();
+      dictionary.myVariableScopes = readStrings(in);
+      dictionary.myPredefinedFunctions = readStrings(in);
+      dictionary.myPredefinedFunctionsInLowCase = readStrings(in);
+      dictionary.myOnlineDocumentationLink = readString(in);
+
+      int size = DataInputOutputUtil.readINT(in);
+      dictionary.myPredefinedVariables = new HashMap<>(size);
+      for (int i = 0; i < size; i++) {
+        dictionary.myPredefinedVariables.put(IOUtil.readUTF(in), DataInputOutputUtil.readINT(in));
+      }
+
+      size = DataInputOutputUtil.readINT(in);
+      dictionary.myTagAttributes = new HashMap<>(size);
+      for (int i = 0; i < size; i++) {
+        final String key = IOUtil.readUTF(in);
+        final CfmlTagDescription tag = new CfmlTagDescription(readString(in), in.readBoolean(), in.readBoolean());
+        tag.setDescription(readString(in));
+        final int attributesCount = DataInputOutputUtil.readINT(in);
+        for (int j = 0; j < attributesCount; j++) {
+          final String namePattern = IOUtil.readUTF(in);
+          final int type = DataInputOutputUtil.readINT(in);
+          final boolean required = in.readBoolean();
+          final String description = readString(in);
+          final String completionExample = readString(in);
+          final CfmlAttributeDescription attribute =
+            new CfmlAttributeDescription(namePattern, type, required, description, completionExample);
+          final String[] values = readStrings(in);
+          if (values != null) {
+            for (String value : values) {
+              attribute.addValue(value);
+            }
+          }
+          tag.addAttribute(attribute);
+        }
+        dictionary.myTagAttributes.put(key, tag);
+      }
+
+      size = DataInputOutputUtil.readINT(in);
+      dictionary.myFunctionParameters = new HashMap<>(size);
+      for (int i = 0; i < size; i++) {
+        final String key = IOUtil.readUTF(in);
+        final CfmlFunctionDescription function = new CfmlFunctionDescription(readString(in), readString(in));
+        function.setDescription(readString(in));
+        final int parametersCount = DataInputOutputUtil.readINT(in);
+        for (int j = 0; j < parametersCount; j++) {
+          final CfmlFunctionDescription.CfmlParameterDescription parameter =
+            new CfmlFunctionDescription.CfmlParameterDescription(readString(in), readString(in), in.readBoolean());
+          parameter.setDescription(readString(in));
+          function.addParameter(parameter);
+        }
+        dictionary.myFunctionParameters.put(key, function);
+      }
+
+      return dictionary;
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.info("Failed to read " + storeFile + ", will be rebuilt", e);
+      FileUtil.delete(storeFile);
+      return null;
+    }
+  }
+
+  private static void write(@NotNull File storeFile, @NotNull String stamp, @NotNull CfmlLangInfo.CfmlLangDictionary dictionary) {
+    FileUtil.createParentDirs(storeFile);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(storeFile)))) {
+      out.writeInt(VERSION);
+      IOUtil.writeUTF(out, stamp);
+      writeStrings(out, dictionary.myVariableScopes);
+      writeStrings(out, dictionary.myPredefinedFunctions);
+      writeStrings(out, dictionary.myPredefinedFunctionsInLowCase);
+      writeString(out, dictionary.myOnlineDocumentationLink);
+
+      DataInputOutputUtil.writeINT(out, dictionary.myPredefinedVariables.size());
+      for (Map.Entry<String, Integer> entry : dictionary.myPredefinedVariables.entrySet()) {
+        IOUtil.writeUTF(out, entry.getKey());
+        DataInputOutputUtil.writeINT(out, entry.getValue());
+      }
+
+      DataInputOutputUtil.writeINT(out, dictionary.myTagAttributes.size());
+      for (Map.Entry<String, CfmlTagDescription> entry : dictionary.myTagAttributes.entrySet()) {
+        final CfmlTagDescription tag = entry.getValue();
+        IOUtil.writeUTF(out, entry.getKey());
+        writeString(out, tag.getName());
+        out.writeBoolean(tag.isSingle());
+        out.writeBoolean(tag.isEndTagRequired());
+        writeString(out, tag.getDescription());
+        DataInputOutputUtil.writeINT(out, tag.getAttributes().size());
+        for (CfmlAttributeDescription attribute : tag.getAttributes()) {
+          IOUtil.writeUTF(out, attribute.getNamePattern());
+          DataInputOutputUtil.writeINT(out, attribute.getType());
+          out.writeBoolean(attribute.isRequired());
+          writeString(out, attribute.getDescription());
+          writeString(out, attribute.getCompletionExample());
+          writeStrings(out, attribute.getValues());
+        }
+      }
+
+      DataInputOutputUtil.writeINT(out, dictionary.myFunctionParameters.size());
+      for (Map.Entry<String, CfmlFunctionDescription> entry : dictionary.myFunctionParameters.entrySet()) {
+        final CfmlFunctionDescription function = entry.getValue();
+        IOUtil.writeUTF(out, entry.getKey());
+        writeString(out, function.getName());
+        writeString(out, function.getReturnType());
+        writeString(out, function.getDescription());
+        DataInputOutputUtil.writeINT(out, function.getParameters().size());
+        for (CfmlFunctionDescription.CfmlParameterDescription parameter : function.getParameters()) {
+          writeString(out, parameter.getName());
+          writeString(out, parameter.getType());
+          out.writeBoolean(parameter.isRequired());
+          writeString(out, parameter.getDescription());
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Failed to write " + storeFile, e);
+      FileUtil.delete(storeFile);
+    }
+  }
+
+  private static void writeString(@NotNull DataOutput out, @Nullable String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      IOUtil.writeUTF(out, value);
+    }
+  }
+
+  @Nullable
+  private static String readString(@NotNull DataInput in) throws IOException {
+    return in.readBoolean() ? IOUtil.readUTF(in) : null;
+  }
+
+  private static void writeStrings(@NotNull DataOutput out, @Nullable String[] values) throws IOException {
+    out.writeBoolean(values != null);
+    if (values != null) {
+      DataInputOutputUtil.writeINT(out, values.length);
+      for (String value : values) {
+        writeString(out, value);
+      }
+    }
+  }
+
+  @Nullable
+  private static String[] readStrings(@NotNull DataInput in) throws IOException {
+    if (!in.readBoolean()) return null;
+
+    final int size = DataInputOutputUtil.readINT(in);
+    final String[] result = size == 0 ? ArrayUtil.EMPTY_STRING_ARRAY : new String[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = readString(in);
+    }
+    return result;
+  }
+}
@@ -20,9 +20,10 @@ import com.intellij.coldFusion.model.CfmlLanguage;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Comparing;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.reference.SoftReference;
+import com.intellij.util.ConcurrencyUtil;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.text.LineReader;
 import org.jetbrains.annotations.Nullable;
 import org.xml.sax.InputSource;
@@ -33,14 +34,18 @@ import java.io.InputStream;
 import java.lang.ref.Reference;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author vnikolaenko
  */
 public class CfmlLangInfo {
+  private static final String SCOPES_FILE_NAME = "scopes.txt";
+  // dictionaries are shared by all projects, one for each language level
+  private static final ConcurrentMap<String, Reference<CfmlLangDictionary>> ourDictionaries = ContainerUtil.newConcurrentMap();
+  private static final ConcurrentMap<String, Object> ourDictionaryLocks = ContainerUtil.newConcurrentMap();
+
   private final Project myProject;
-  private Reference<CfmlLangDictionary> myCFDictionary;
-  private String myCFDictionaryLevel;
 
   private static class InstanceWithoutApplication {
     static CfmlLangInfo instanceWithoutApplication = new CfmlLangInfo(null);
@@ -60,6 +65,9 @@ public class CfmlLangInfo {
   }
 
   public static class CfmlLangDictionary {
+    CfmlLangDictionary() {
+    }
+
     public CfmlLangDictionary(String scopesFileName, String tagsFileName) {
       if (StringUtil.isEmpty(scopesFileName) || StringUtil.isEmpty(tagsFileName)) {
         return;
@@ -93,20 +101,18 @@ public class CfmlLangInfo {
   }
 
   private CfmlLangDictionary getProjectDictionary() {
-    String languageLevel = getLanguageLevel();
-    CfmlLangDictionary dictionary;
-
-    if (Comparing.equal(myCFDictionaryLevel, languageLevel)) {
-      dictionary = SoftReference.dereference(myCFDictionary);
-      if (dictionary != null) return dictionary;
-    }
-
-    synchronized (CfmlLangInfo.class) {
-      dictionary = SoftReference.dereference(myCFDictionary);
-      if (dictionary == null || !Comparing.equal(myCFDictionaryLevel, languageLevel)) {
-        dictionary = new CfmlLangDictionary("scopes.txt", languageLevel);
-        myCFDictionary = new SoftReference<>(dictionary);
-        myCFDictionaryLevel = languageLevel;
+    final String languageLevel = getLanguageLevel();
+    CfmlLangDictionary dictionary = SoftReference.dereference(ourDictionaries.get(languageLevel));
+    if (dictionary != null) return dictionary;
+
+    // loading a dictionary doesn't block the threads that need another language level
+    final Object lock = ConcurrencyUtil.cacheOrGet(ourDictionaryLocks, languageLevel, new Object());
+    //noinspection SynchronizationOnLocalVariableOrMethodParameter
+    synchronized (lock) {
+      dictionary = SoftReference.dereference(ourDictionaries.get(languageLevel));
+      if (dictionary == null) {
+        dictionary = CfmlLangDictionaryStore.load(SCOPES_FILE_NAME, languageLevel);
+        ourDictionaries.put(languageLevel, new SoftReference<>(dictionary));
       }
     }
 
@@ -6,6 +6,7 @@ import com.intellij.codeInsight.completion.InsertionContext;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.coldFusion.UI.config.CfmlMappingsConfig;
+import com.intellij.coldFusion.UI.config.CfmlMappingsTrie;
 import com.intellij.coldFusion.UI.config.CfmlProjectConfiguration;
 import com.intellij.coldFusion.model.CfmlUtil;
 import com.intellij.coldFusion.model.files.CfmlFile;
@@ -24,6 +25,7 @@ import com.intellij.psi.*;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.GlobalSearchScopes;
+import com.intellij.psi.search.GlobalSearchScopesCore;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.Function;
 import com.intellij.util.IncorrectOperationException;
@@ -158,31 +160,22 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
         directoryName = componentQualifiedName.substring(0, i);
       }
 
-      CfmlProjectConfiguration.State state = CfmlProjectConfiguration.getInstance(project).getState();
-      CfmlMappingsConfig mappings = state != null ? state.getMapps().clone() : new CfmlMappingsConfig();
-      adjustMappingsIfEmpty(mappings, originalFile.getProject());
-      // addFakeMappingsForResolution(mappings);
-      List<String> realPossiblePaths = mappings.mapVirtualToReal(directoryName);
-      // Collections.sort(realPossiblePaths);
-
-      final Collection<CfmlComponent> components = CfmlIndex.getInstance(project).getComponentsByName(
-        componentName);
-      components.addAll(CfmlIndex.getInstance(project).getInterfacesByName(
-        componentName));
-
-      for (CfmlComponent component : components) {
-        PsiDirectory parent = component.getContainingFile().getParent();
-        if (parent == null) {
-          continue;
-        }
-        VirtualFile virtualFile = parent.getVirtualFile();
-        for (String realPath : realPossiblePaths) {
-          if (FileUtil.toSystemIndependentName(realPath).equals(FileUtil.toSystemIndependentName(virtualFile.getPresentableUrl()))) {
-            result.add(component);
-            break;
-          }
+      List<String> realPossiblePaths = CfmlProjectConfiguration.getInstance(project).getMappingsTrie().mapVirtualToReal(directoryName);
+
+      // single index lookup restricted to the mapped directories
+      List<VirtualFile> realDirectories = new ArrayList<>(realPossiblePaths.size());
+      for (String realPath : realPossiblePaths) {
+        VirtualFile directory = LocalFileSystem.getInstance().findFileByPath(FileUtil.toSystemIndependentName(realPath));
+        if (directory != null && directory.isDirectory()) {
+          realDirectories.add(directory);
         }
       }
+      if (!realDirectories.isEmpty()) {
+        GlobalSearchScope mappedScope =
+          GlobalSearchScopesCore.directoriesScope(project, false, realDirectories.toArray(VirtualFile.EMPTY_ARRAY));
+        result.addAll(CfmlIndex.getInstance(project).getComponentsByNameInScope(componentName, mappedScope));
+        result.addAll(CfmlIndex.getInstance(project).getInterfacesByNameInScope(componentName, mappedScope));
+      }
 
       for (String realPath : realPossiblePaths) {
         VirtualFile fileByUrl = LocalFileSystem.getInstance().findFileByPath(realPath);
@@ -348,18 +341,28 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
       int i = text.lastIndexOf(".");
       directoryName = text.substring(0, i);
     }
-    CfmlProjectConfiguration.State state = CfmlProjectConfiguration.getInstance(project).getState();
-    CfmlMappingsConfig mappings = state != null ? state.getMapps().clone() : new CfmlMappingsConfig();
+    List<String> realPossiblePaths;
+    Collection<String> logicalPaths;
+    if (reference != null && PsiTreeUtil.getParentOfType(reference, CfmlImport.class) != null) {
+      CfmlProjectConfiguration.State state = CfmlProjectConfiguration.getInstance(project).getState();
+      CfmlMappingsConfig mappings = state != null ? state.getMapps().clone() : new CfmlMappingsConfig();
 
-    adjustMappingsIfEmpty(mappings, project);
-    if (reference != null) addFakeMappingsForImports(reference, mappings);
+      adjustMappingsIfEmpty(mappings, project);
+      addFakeMappingsForImports(reference, mappings);
 
-    List<String> realPossiblePaths = mappings.mapVirtualToReal(directoryName);
+      realPossiblePaths = mappings.mapVirtualToReal(directoryName);
+      logicalPaths = mappings.getServerMappings().keySet();
+    }
+    else {
+      CfmlMappingsTrie mappings = CfmlProjectConfiguration.getInstance(project).getMappingsTrie();
+      realPossiblePaths = mappings.mapVirtualToReal(directoryName);
+      logicalPaths = mappings.getLogicalPaths();
+    }
 
     for (String realPath : realPossiblePaths) {
       addVariantsFromPath(variants, directoryName, realPath);
     }
-    for (String value : mappings.getServerMappings().keySet()) {
+    for (String value : logicalPaths) {
       if (value.startsWith(directoryName) && !value.isEmpty() && (StringUtil.startsWithChar(value, '/') ||
                                                                   StringUtil.startsWithChar(value, '\\'))) {
         variants.add(value.replace('\\', '.').replace('/', '.').substring(1));
@@ -439,19 +442,17 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
   }
 
   private static void addFakeMappingsForImports(CfmlComponentReference ref, CfmlMappingsConfig mappings) {
-    if (PsiTreeUtil.getParentOfType(ref, CfmlImport.class) != null) {
-      // create fake mappings for imports
-      CfmlFile file = ref.getContainingFile();
-      Collection<String> importStrings = file.getImportStrings();
-      for (String importString : importStrings) {
-        final int index = importString.lastIndexOf('.');
-        if (index == -1) {
-          continue;
-        }
-        final String leftMapping = file.getComponentQualifiedName(importString).substring(0, index);
-        if (!StringUtil.isEmpty(leftMapping)) {
-          mappings.putToServerMappings("", leftMapping);
-        }
+    // create fake mappings for imports
+    CfmlFile file = ref.getContainingFile();
+    Collection<String> importStrings = file.getImportStrings();
+    for (String importString : importStrings) {
+      final int index = importString.lastIndexOf('.');
+      if (index == -1) {
+        continue;
+      }
+      final String leftMapping = file.getComponentQualifiedName(importString).substring(0, index);
+      if (!StringUtil.isEmpty(leftMapping)) {
+        mappings.putToServerMappings("", leftMapping);
       }
     }
   }
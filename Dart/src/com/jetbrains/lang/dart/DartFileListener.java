@@ -27,6 +27,7 @@ import com.intellij.util.SmartList;
 import com.jetbrains.lang.dart.sdk.DartPackagesLibraryProperties;
 import com.jetbrains.lang.dart.sdk.DartPackagesLibraryType;
 import com.jetbrains.lang.dart.sdk.DartSdkLibUtil;
+import com.jetbrains.lang.dart.util.DartUrlResolverCache;
 import com.jetbrains.lang.dart.util.DotPackagesFileUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -84,7 +85,13 @@ public class DartFileListener implements VirtualFileListener {
   }
 
   private static void fileChanged(@NotNull final Project project, @NotNull final VirtualFile file) {
-    if (!DotPackagesFileUtil.DOT_PACKAGES.equals(file.getName())) return;
+    final boolean isPubspec = PUBSPEC_YAML.equals(file.getName());
+    final boolean isDotPackages = DotPackagesFileUtil.DOT_PACKAGES.equals(file.getName());
+    if (isPubspec || isDotPackages) {
+      DartUrlResolverCache.pubspecOrDotPackagesFileChanged(project);
+    }
+
+    if (!isDotPackages) return;
     if (LocalFileSystem.getInstance() != file.getFileSystem() && !ApplicationManager.getApplication().isUnitTestMode()) return;
 
     final VirtualFile parent = file.getParent();
@@ -62,6 +62,7 @@ import com.jetbrains.lang.dart.DartYamlFileTypeFactory;
 import com.jetbrains.lang.dart.assists.DartQuickAssistIntention;
 import com.jetbrains.lang.dart.assists.QuickAssistSet;
 import com.jetbrains.lang.dart.ide.actions.DartPubActionBase;
+import com.jetbrains.lang.dart.ide.completion.DartPreviousCompletion;
 import com.jetbrains.lang.dart.ide.errorTreeView.DartFeedbackBuilder;
 import com.jetbrains.lang.dart.ide.errorTreeView.DartProblemsView;
 import com.jetbrains.lang.dart.ide.template.postfix.DartPostfixTemplateProvider;
@@ -139,6 +140,7 @@ public class DartAnalysisServerService implements Disposable {
   private final Alarm myUpdateFilesAlarm;
 
   @NotNull private final Queue<CompletionInfo> myCompletionInfos = new LinkedList<>();
+  @Nullable private volatile DartPreviousCompletion myPreviousCompletion;
   @NotNull private final Queue<SearchResultsSet> mySearchResultSets = new LinkedList<>();
 
   @NotNull private final DartServerData myServerData;
@@ -428,32 +430,48 @@ public class DartAnalysisServerService implements Disposable {
     return StringUtil.compareVersionNumbers(sdk.getVersion(), MIN_SDK_VERSION) >= 0;
   }
 
+  /**
+   * Passes suggestions to the consumer as soon as a notification for the completion is received, not waiting for the last one.
+   * A suggestion repeated in several notifications for the same completion is passed only once.
+   */
   public void addCompletions(@NotNull final VirtualFile file,
                              @NotNull final String completionId,
                              @NotNull final CompletionSuggestionConsumer consumer) {
+    final Set<CompletionSuggestion> consumedSuggestions = new THashSet<>();
+
     while (true) {
       ProgressManager.checkCanceled();
 
+      final List<CompletionInfo> completionInfos = new SmartList<>();
       synchronized (myCompletionInfos) {
         CompletionInfo completionInfo;
         while ((completionInfo = myCompletionInfos.poll()) != null) {
           if (!completionInfo.myCompletionId.equals(completionId)) continue;
-          if (!completionInfo.isLast) continue;
+          completionInfos.add(completionInfo);
+          if (completionInfo.isLast) break;
+        }
 
-          for (final CompletionSuggestion completion : completionInfo.myCompletions) {
-            final int convertedReplacementOffset = getConvertedOffset(file, completionInfo.myOriginalReplacementOffset);
-            final int convertedReplacementLength = getConvertedOffset(file, completionInfo.myOriginalReplacementLength);
-            consumer.consumeCompletionSuggestion(convertedReplacementOffset, convertedReplacementLength, completion);
+        if (completionInfos.isEmpty()) {
+          try {
+            myCompletionInfos.wait(CHECK_CANCELLED_PERIOD);
           }
-          return;
+          catch (InterruptedException e) {
+            return;
+          }
+          continue;
         }
+      }
 
-        try {
-          myCompletionInfos.wait(CHECK_CANCELLED_PERIOD);
-        }
-        catch (InterruptedException e) {
-          return;
+      // consumer is called outside of the lock so that converting suggestions doesn't block receiving next notifications
+      for (CompletionInfo completionInfo : completionInfos) {
+        final int convertedReplacementOffset = getConvertedOffset(file, completionInfo.myOriginalReplacementOffset);
+        final int convertedReplacementLength = getConvertedOffset(file, completionInfo.myOriginalReplacementLength);
+        for (final CompletionSuggestion completion : completionInfo.myCompletions) {
+          if (consumedSuggestions.add(completion)) {
+            consumer.consumeCompletionSuggestion(convertedReplacementOffset, convertedReplacementLength, completion);
+          }
         }
+        if (completionInfo.isLast) return;
       }
     }
   }
@@ -645,6 +663,15 @@ public class DartAnalysisServerService implements Disposable {
     final DocumentListener documentListener = new DocumentListener() {
       @Override
       public void beforeDocumentChange(@NotNull DocumentEvent e) {
+        final DartPreviousCompletion previousCompletion = myPreviousCompletion;
+        if (previousCompletion != null) {
+          final VirtualFile changedFile = FileDocumentManager.getInstance().getFile(e.getDocument());
+          if (changedFile == null ||
+              !previousCompletion.isKeptOnChange(changedFile, e.getOffset(), e.getOldLength(), e.getNewFragment())) {
+            myPreviousCompletion = null;
+          }
+        }
+
         if (myServer == null) return;
 
         myServerData.onDocumentChanged(e);
@@ -686,9 +713,23 @@ public class DartAnalysisServerService implements Disposable {
 
   @Override
   public void dispose() {
+    myPreviousCompletion = null;
     stopServer();
   }
 
+  /**
+   * @return suggestions of the last code completion in this project, {@code null} if the document has changed other than by typing
+   * the completed identifier further since then
+   */
+  @Nullable
+  public DartPreviousCompletion getPreviousCompletion() {
+    return myPreviousCompletion;
+  }
+
+  public void setPreviousCompletion(@Nullable final DartPreviousCompletion previousCompletion) {
+    myPreviousCompletion = previousCompletion;
+  }
+
   private void handleClosingLabelPreferenceChanged() {
     analysis_setSubscriptions();
   }
@@ -0,0 +1,71 @@
+// Copyright 2000-2018 JetBrains s.r.o.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.jetbrains.lang.dart.ide.completion;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.dartlang.analysis.server.protocol.CompletionSuggestion;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Suggestions received for the last completion in a project, reusable while the user only types identifier characters at the same place.
+ * Kept by {@link com.jetbrains.lang.dart.analyzer.DartAnalysisServerService}, which drops it on any other document change.
+ */
+public final class DartPreviousCompletion {
+  @NotNull private final VirtualFile myFile;
+  @NotNull private final CharSequence myText;
+  private final int myOffset;
+  final int myReplacementOffset;
+  final int myReplacementLength;
+  @NotNull final List<CompletionSuggestion> mySuggestions;
+
+  DartPreviousCompletion(@NotNull final VirtualFile file,
+                         @NotNull final CharSequence text,
+                         final int offset,
+                         final int replacementOffset,
+                         final int replacementLength,
+                         @NotNull final List<CompletionSuggestion> suggestions) {
+    myFile = file;
+    myText = text;
+    myOffset = offset;
+    myReplacementOffset = replacementOffset;
+    myReplacementLength = replacementLength;
+    mySuggestions = suggestions;
+  }
+
+  /**
+   * @return {@code true} if the document change may be the user typing the prefix further, so the suggestions may still be reused
+   */
+  public boolean isKeptOnChange(@NotNull final VirtualFile file, final int offset, final int oldLength, @NotNull final CharSequence newFragment) {
+    if (!myFile.equals(file) || offset < myOffset || oldLength != 0) return false;
+
+    for (int i = 0; i < newFragment.length(); i++) {
+      if (!Character.isJavaIdentifierPart(newFragment.charAt(i))) return false;
+    }
+    return true;
+  }
+
+  boolean isExtendedBy(@NotNull final VirtualFile file, @NotNull final CharSequence text, final int offset) {
+    if (!myFile.equals(file) || offset < myOffset || text.length() - offset != myText.length() - myOffset) return false;
+
+    for (int i = myOffset; i < offset; i++) {
+      if (!Character.isJavaIdentifierPart(text.charAt(i))) return false;
+    }
+
+    return StringUtil.equals(text.subSequence(0, myOffset), myText.subSequence(0, myOffset)) &&
+           StringUtil.equals(text.subSequence(offset, text.length()), myText.subSequence(myOffset, myText.length()));
+  }
+}
@@ -53,14 +53,17 @@ import com.jetbrains.lang.dart.psi.*;
 import com.jetbrains.lang.dart.sdk.DartSdk;
 import com.jetbrains.lang.dart.util.DartResolveUtil;
 import com.jetbrains.lang.dart.util.PubspecYamlUtil;
+import gnu.trove.THashSet;
 import org.apache.commons.lang3.StringUtils;
 import org.dartlang.analysis.server.protocol.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static com.intellij.patterns.PlatformPatterns.psiElement;
 import static com.intellij.patterns.PlatformPatterns.psiFile;
@@ -112,41 +115,92 @@ public class DartServerCompletionContributor extends CompletionContributor {
                das.updateFilesContent();
 
                final int offset = InjectedLanguageManager.getInstance(project).injectedToHost(originalFile, parameters.getOffset());
-               final String completionId = das.completion_getSuggestions(file, offset);
-               if (completionId == null) return;
-
-               das.addCompletions(file, completionId, (replacementOffset, replacementLength, suggestion) -> {
-                 final CompletionResultSet updatedResultSet;
-                 if (uriPrefix != null) {
-                   updatedResultSet = resultSet;
-                 }
-                 else {
-                   final String specialPrefix = getPrefixForSpecialCases(parameters, replacementOffset);
-                   if (specialPrefix != null) {
-                     updatedResultSet = resultSet.withPrefixMatcher(specialPrefix);
-                   }
-                   else {
-                     updatedResultSet = resultSet;
+               final Document document = FileDocumentManager.getInstance().getDocument(file);
+               final CharSequence text = document != null ? document.getImmutableCharSequence() : null;
+
+               final DartCompletionExtension[] extensions = DartCompletionExtension.getExtensions();
+               final Set<String> addedSuggestionKeys = new THashSet<>();
+               final DartAnalysisServerService.CompletionSuggestionConsumer consumer =
+                 new DartAnalysisServerService.CompletionSuggestionConsumer() {
+                   private int myLastReplacementOffset = -1;
+                   private CompletionResultSet myLastResultSet;
+
+                   @Override
+                   public void consumeCompletionSuggestion(final int replacementOffset,
+                                                           final int replacementLength,
+                                                           @NotNull final CompletionSuggestion suggestion) {
+                     if (!addedSuggestionKeys.add(getSuggestionKey(suggestion))) return;
+
+                     if (myLastResultSet == null || myLastReplacementOffset != replacementOffset) {
+                       myLastReplacementOffset = replacementOffset;
+                       myLastResultSet = getResultSet(replacementOffset);
+                     }
+
+                     LookupElementBuilder lookupElement = null;
+
+                     for (DartCompletionExtension extension : extensions) {
+                       lookupElement = extension.createLookupElement(project, suggestion);
+                       if (lookupElement != null) break;
+                     }
+
+                     if (lookupElement == null) {
+                       lookupElement = createLookupElement(project, suggestion);
+                     }
+
+                     myLastResultSet.addElement(lookupElement);
                    }
-                 }
 
-                 LookupElementBuilder lookupElement = null;
+                   @NotNull
+                   private CompletionResultSet getResultSet(final int replacementOffset) {
+                     if (uriPrefix != null) return resultSet;
 
-                 for (DartCompletionExtension extension: DartCompletionExtension.getExtensions()) {
-                   lookupElement = extension.createLookupElement(project, suggestion);
-                   if (lookupElement != null) break;
+                     final String specialPrefix = getPrefixForSpecialCases(parameters, replacementOffset);
+                     return specialPrefix != null ? resultSet.withPrefixMatcher(specialPrefix) : resultSet;
+                   }
+                 };
+
+               // While the prefix is being extended the previous suggestions are still valid, they are shown and filtered by the new prefix
+               // right away; the server's suggestions are added as they arrive, except for those already shown.
+               final DartPreviousCompletion previous = das.getPreviousCompletion();
+               if (previous != null && text != null && previous.isExtendedBy(file, text, offset)) {
+                 for (CompletionSuggestion suggestion : previous.mySuggestions) {
+                   consumer.consumeCompletionSuggestion(previous.myReplacementOffset, previous.myReplacementLength, suggestion);
                  }
+               }
 
-                 if (lookupElement == null) {
-                   lookupElement = createLookupElement(project, suggestion);
-                 }
+               final String completionId = das.completion_getSuggestions(file, offset);
+               if (completionId == null) return;
 
-                 updatedResultSet.addElement(lookupElement);
+               final List<CompletionSuggestion> suggestions = new ArrayList<>();
+               final int[] replacement = {-1, 0};
+               das.addCompletions(file, completionId, (replacementOffset, replacementLength, suggestion) -> {
+                 suggestions.add(suggestion);
+                 replacement[0] = replacementOffset;
+                 replacement[1] = replacementLength;
+                 consumer.consumeCompletionSuggestion(replacementOffset, replacementLength, suggestion);
                });
+
+               das.setPreviousCompletion(text != null && replacement[0] >= 0 && replacement[0] <= offset
+                                         ? new DartPreviousCompletion(file, text, offset, replacement[0], replacement[1], suggestions)
+                                         : null);
              }
            });
   }
 
+  /**
+   * Suggestions differing only in relevance are shown once. Same-named members of different types and declarations of different libraries
+   * are different suggestions.
+   */
+  @NotNull
+  static String getSuggestionKey(@NotNull final CompletionSuggestion suggestion) {
+    final Element element = suggestion.getElement();
+    final Location location = element == null ? null : element.getLocation();
+    return suggestion.getKind() + " " + suggestion.getCompletion() + " " + suggestion.getDisplayText() + " " +
+           suggestion.getDeclaringType() + " " + suggestion.getImportUri() + " " +
+           (element == null ? "" : element.getKind() + " " + element.getParameters() + " " + element.getReturnType() + " " +
+                                   (location == null ? "" : location.getFile()));
+  }
+
   private static void appendRuntimeCompletion(@NotNull final CompletionParameters parameters,
                                               @NotNull final CompletionResultSet resultSet) {
     final PsiFile originalFile = parameters.getOriginalFile();
@@ -12,7 +12,6 @@ import com.intellij.util.io.KeyDescriptor;
 import com.jetbrains.lang.dart.psi.DartClass;
 import com.jetbrains.lang.dart.psi.DartComponentName;
 import com.jetbrains.lang.dart.util.DartResolveUtil;
-import gnu.trove.THashMap;
 import gnu.trove.THashSet;
 import org.jetbrains.annotations.NotNull;
 
@@ -81,12 +80,7 @@ public class DartClassIndex extends ScalarIndexExtension<String> {
     @Override
     @NotNull
     public Map<String, Void> map(@NotNull final FileContent inputData) {
-      DartFileIndexData indexData = DartIndexUtil.indexFile(inputData);
-      final Map<String, Void> result = new THashMap<>();
-      for (String componentName : indexData.getClassNames()) {
-        result.put(componentName, null);
-      }
-      return result;
+      return DartIndexUtil.indexFile(inputData).getClassNames();
     }
   }
 }
@@ -4,6 +4,8 @@ import com.jetbrains.lang.dart.DartComponentType;
 import org.jetbrains.annotations.Nullable;
 
 public class DartComponentInfo {
+  public static final DartComponentInfo IMPORT_PREFIX = new DartComponentInfo(DartComponentType.LABEL, null);
+
   @Nullable private final DartComponentType myComponentType;
   @Nullable private final String myLibraryName;
 
@@ -28,6 +28,8 @@ public class DartComponentInfoExternalizer implements DataExternalizer<DartCompo
   public DartComponentInfo read(@NotNull DataInput in) throws IOException {
     final int componentTypeKey = DataInputOutputUtil.readINT(in);
     final boolean hasLibraryName = in.readBoolean();
+    if (!hasLibraryName && componentTypeKey == DartComponentType.LABEL.getKey()) return DartComponentInfo.IMPORT_PREFIX;
+
     final String libraryName = hasLibraryName ? IOUtil.readUTF(in) : null;
     return new DartComponentInfo(DartComponentType.valueOf(componentTypeKey), libraryName);
   }
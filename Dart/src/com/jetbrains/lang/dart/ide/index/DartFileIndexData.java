@@ -1,29 +1,39 @@
 package com.jetbrains.lang.dart.ide.index;
 
+import com.jetbrains.lang.dart.DartComponentType;
 import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Everything the Dart indexes need to know about a file, collected in one pass over its PSI.
+ * Class names and symbols are kept as maps so that scalar indexes return them as is.
+ */
 public class DartFileIndexData {
-  private final List<String> myClassNames = new ArrayList<>();
+  private final Map<String, Void> myClassNames = new THashMap<>();
   private final List<DartImportOrExportInfo> myImportAndExportInfos = new ArrayList<>();
   private final Map<String, DartComponentInfo> myComponentInfoMap = new THashMap<>();
+  private final Map<DartComponentType, DartComponentInfo> myLibraryComponentInfos = new EnumMap<>(DartComponentType.class);
   private String myLibraryName;
   private final List<String> myPartUris = new ArrayList<>();
-  private final List<String> mySymbols = new ArrayList<>();
+  private final Map<String, Void> mySymbols = new THashMap<>();
   private boolean myIsPart;
 
-  public List<String> getClassNames() {
+  /**
+   * @return map with class names as keys and {@code null} values
+   */
+  public Map<String, Void> getClassNames() {
     return myClassNames;
   }
 
   public void addClassName(@Nullable String name) {
     if (name != null) {
-      myClassNames.add(name);
+      myClassNames.put(name, null);
     }
   }
 
@@ -31,6 +41,20 @@ public class DartFileIndexData {
     return myComponentInfoMap;
   }
 
+  /**
+   * Components of the same type declared in the library share one {@link DartComponentInfo}
+   */
+  public void addLibraryComponent(@Nullable String name, @NotNull DartComponentType type) {
+    if (name != null) {
+      DartComponentInfo info = myLibraryComponentInfos.get(type);
+      if (info == null) {
+        info = new DartComponentInfo(type, myLibraryName);
+        myLibraryComponentInfos.put(type, info);
+      }
+      myComponentInfoMap.put(name, info);
+    }
+  }
+
   public void addComponentInfo(@Nullable String name, DartComponentInfo info) {
     if (name != null) {
       myComponentInfoMap.put(name, info);
@@ -62,13 +86,16 @@ public class DartFileIndexData {
     myPartUris.add(partUri);
   }
 
-  public List<String> getSymbols() {
+  /**
+   * @return map with symbols as keys and {@code null} values
+   */
+  public Map<String, Void> getSymbols() {
     return mySymbols;
   }
 
   public void addSymbol(@Nullable String name) {
     if (name != null) {
-      mySymbols.add(name);
+      mySymbols.put(name, null);
     }
   }
 
@@ -49,7 +49,7 @@ public class DartImportAndExportIndex extends FileBasedIndexExtension<String, Li
       public void save(final @NotNull DataOutput out, final @NotNull List<DartImportOrExportInfo> value) throws IOException {
         DataInputOutputUtil.writeINT(out, value.size());
         for (DartImportOrExportInfo importOrExportInfo : value) {
-          IOUtil.writeUTF(out, importOrExportInfo.getKind().name());
+          out.writeBoolean(importOrExportInfo.getKind() == DartImportOrExportInfo.Kind.Export);
           IOUtil.writeUTF(out, importOrExportInfo.getUri());
           IOUtil.writeUTF(out, StringUtil.notNullize(importOrExportInfo.getImportPrefix()));
           DataInputOutputUtil.writeINT(out, importOrExportInfo.getShowComponents().size());
@@ -69,7 +69,8 @@ public class DartImportAndExportIndex extends FileBasedIndexExtension<String, Li
         final int size = DataInputOutputUtil.readINT(in);
         final List<DartImportOrExportInfo> result = new ArrayList<>(size);
         for (int i = 0; i < size; ++i) {
-          final DartImportOrExportInfo.Kind kind = DartImportOrExportInfo.Kind.valueOf(IOUtil.readUTF(in));
+          final DartImportOrExportInfo.Kind kind =
+            in.readBoolean() ? DartImportOrExportInfo.Kind.Export : DartImportOrExportInfo.Kind.Import;
           final String uri = IOUtil.readUTF(in);
           final String prefix = IOUtil.readUTF(in);
           final int showSize = DataInputOutputUtil.readINT(in);
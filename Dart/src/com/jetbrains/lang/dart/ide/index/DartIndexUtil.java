@@ -18,7 +18,7 @@ import static com.jetbrains.lang.dart.ide.index.DartImportOrExportInfo.Kind;
 
 public class DartIndexUtil {
   // inc when change parser
-  public static final int INDEX_VERSION = 23;
+  public static final int INDEX_VERSION = 24;
 
   private static final Key<DartFileIndexData> ourDartCachesData = Key.create("dart.caches.index.data");
 
@@ -30,6 +30,8 @@ public class DartIndexUtil {
       indexData = content.getUserData(ourDartCachesData);
       if (indexData != null) return indexData;
       indexData = indexFileRoots(content.getPsiFile());
+      // all Dart indexes are built from the same data, collect it once per file
+      content.putUserData(ourDartCachesData, indexData);
     }
 
     return indexData;
@@ -55,7 +57,7 @@ public class DartIndexUtil {
         PsiElement parent = componentName.getParent();
         final DartComponentType type = DartComponentType.typeOf(parent);
         if (type != null) {
-          result.addComponentInfo(name, new DartComponentInfo(type, result.getLibraryName()));
+          result.addLibraryComponent(name, type);
         }
         if (parent instanceof DartClass) {
           result.addClassName(name);
@@ -116,6 +118,6 @@ public class DartIndexUtil {
 
     final Kind kind = importOrExportStatement instanceof DartImportStatement ? Kind.Import : Kind.Export;
     result.addImportInfo(new DartImportOrExportInfo(kind, uri, importPrefix, showComponentNames, hideComponentNames));
-    result.addComponentInfo(importPrefix, new DartComponentInfo(DartComponentType.LABEL, null));
+    result.addComponentInfo(importPrefix, DartComponentInfo.IMPORT_PREFIX);
   }
 }
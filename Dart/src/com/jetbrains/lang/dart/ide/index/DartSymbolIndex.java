@@ -15,7 +15,6 @@ import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
 import com.jetbrains.lang.dart.psi.*;
 import com.jetbrains.lang.dart.util.DartResolveUtil;
-import gnu.trove.THashMap;
 import gnu.trove.THashSet;
 import org.jetbrains.annotations.NotNull;
 
@@ -89,12 +88,7 @@ public class DartSymbolIndex extends ScalarIndexExtension<String> {
     @Override
     @NotNull
     public Map<String, Void> map(@NotNull final FileContent inputData) {
-      List<String> symbols = DartIndexUtil.indexFile(inputData).getSymbols();
-      final Map<String, Void> result = new THashMap<>();
-      for (String symbol : symbols) {
-        result.put(symbol, null);
-      }
-      return result;
+      return DartIndexUtil.indexFile(inputData).getSymbols();
     }
   }
 
@@ -10,14 +10,16 @@ import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.containers.MultiMap;
 import com.intellij.util.io.URLUtil;
 import com.jetbrains.lang.dart.ide.runner.server.OpenDartObservatoryUrlAction;
 import com.jetbrains.lang.dart.sdk.DartSdk;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
+import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
+import java.util.Map;
 
 import static com.jetbrains.lang.dart.util.DartUrlResolver.DART_PREFIX;
 import static com.jetbrains.lang.dart.util.DartUrlResolver.PACKAGE_PREFIX;
@@ -28,7 +30,10 @@ public class DartConsoleFilter implements Filter {
   private final @NotNull Project myProject;
   private final @Nullable DartSdk mySdk;
   private final @Nullable DartUrlResolver myDartUrlResolver;
-  private Collection<VirtualFile> myAllPubspecYamlFiles;
+  // package name -> package roots from all pubspec.yaml files in the project, used if there's no context file; initialized lazily
+  private MultiMap<String, VirtualFile> myAllPackageRoots;
+  // stack traces repeat the same frames many times, so files are looked up once per url; null values are cached as well
+  private final Map<String, VirtualFile> myUrlToFileMap = new THashMap<>();
 
   public static final String OBSERVATORY_LISTENING_ON = "Observatory listening on ";
 
@@ -49,9 +54,35 @@ public class DartConsoleFilter implements Filter {
       return getObservatoryUrlResult(line, entireLength - line.length());
     }
 
+    if (!DartPositionInfo.mayContainPositionInfo(line)) return null;
+
     final DartPositionInfo info = DartPositionInfo.parsePositionInfo(line);
     if (info == null) return null;
 
+    final VirtualFile file = findFile(info);
+
+    if (file != null && !file.isDirectory()) {
+      final int highlightStartOffset = entireLength - line.length() + info.highlightingStartIndex;
+      final int highlightEndOffset = entireLength - line.length() + info.highlightingEndIndex;
+      return new Result(highlightStartOffset, highlightEndOffset, new OpenFileHyperlinkInfo(myProject, file, info.line, info.column));
+    }
+
+    return null;
+  }
+
+  @Nullable
+  private VirtualFile findFile(@NotNull final DartPositionInfo info) {
+    final String key = info.type + ":" + info.path;
+    VirtualFile file = myUrlToFileMap.get(key);
+    if (file == null && !myUrlToFileMap.containsKey(key) || file != null && !file.isValid()) {
+      file = doFindFile(info);
+      myUrlToFileMap.put(key, file);
+    }
+    return file;
+  }
+
+  @Nullable
+  private VirtualFile doFindFile(@NotNull final DartPositionInfo info) {
     final VirtualFile file;
     switch (info.type) {
       case FILE:
@@ -69,30 +100,38 @@ public class DartConsoleFilter implements Filter {
           file = myDartUrlResolver.findFileByDartUrl(PACKAGE_PREFIX + info.path);
         }
         else {
-          if (myAllPubspecYamlFiles == null) {
-            myAllPubspecYamlFiles = FilenameIndex.getVirtualFilesByName(myProject, PUBSPEC_YAML, GlobalSearchScope.projectScope(myProject));
-          }
-
-          VirtualFile inPackage = null;
-          for (VirtualFile yamlFile : myAllPubspecYamlFiles) {
-            inPackage = DartUrlResolver.getInstance(myProject, yamlFile).findFileByDartUrl(PACKAGE_PREFIX + info.path);
-            if (inPackage != null) {
-              break;
-            }
-          }
-          file = inPackage;
+          file = findFileInAllPackages(info.path);
         }
         break;
       default:
         file = null;
     }
+    return file;
+  }
 
-    if (file != null && !file.isDirectory()) {
-      final int highlightStartOffset = entireLength - line.length() + info.highlightingStartIndex;
-      final int highlightEndOffset = entireLength - line.length() + info.highlightingEndIndex;
-      return new Result(highlightStartOffset, highlightEndOffset, new OpenFileHyperlinkInfo(myProject, file, info.line, info.column));
+  @Nullable
+  private VirtualFile findFileInAllPackages(@NotNull final String packageRelPath) {
+    if (myAllPackageRoots == null) {
+      myAllPackageRoots = MultiMap.createLinked();
+      for (VirtualFile yamlFile : FilenameIndex.getVirtualFilesByName(myProject, PUBSPEC_YAML, GlobalSearchScope.projectScope(myProject))) {
+        DartUrlResolver.getInstance(myProject, yamlFile).processLivePackages((packageName, packageDir) -> {
+          if (!myAllPackageRoots.get(packageName).contains(packageDir)) {
+            myAllPackageRoots.putValue(packageName, packageDir);
+          }
+        });
+      }
     }
 
+    final int slashIndex = packageRelPath.indexOf('/');
+    if (slashIndex <= 0) return null;
+
+    final String pathRelToPackageDir = packageRelPath.substring(slashIndex + 1);
+    for (VirtualFile packageDir : myAllPackageRoots.get(packageRelPath.substring(0, slashIndex))) {
+      final VirtualFile file = packageDir.isValid() ? packageDir.findFileByRelativePath(pathRelToPackageDir) : null;
+      if (file != null) {
+        return file;
+      }
+    }
     return null;
   }
 
@@ -90,6 +90,21 @@ public class DartPositionInfo {
     return new DartPositionInfo(type, FileUtil.toSystemIndependentName(path), urlStartIndex, urlEndIndex, line, column);
   }
 
+  /**
+   * Quick check to skip most of the console lines: {@link #parsePositionInfo(String)} returns {@code null}
+   * if the text doesn't contain {@code package:}, {@code dart:} or {@code file:}
+   */
+  public static boolean mayContainPositionInfo(final @NotNull String text) {
+    for (int colonIndex = text.indexOf(':'); colonIndex >= 0; colonIndex = text.indexOf(':', colonIndex + 1)) {
+      if (text.startsWith("dart", colonIndex - 4) ||
+          text.startsWith("file", colonIndex - 4) ||
+          text.startsWith("package", colonIndex - 7)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Nullable
   public static Couple<Integer> parseLineAndColumn(@NotNull final String text) {
     Couple<Integer> result = parseLineAndColumnInColonFormat(text);
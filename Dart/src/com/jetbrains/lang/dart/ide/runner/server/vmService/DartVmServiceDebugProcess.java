@@ -414,11 +414,13 @@ public class DartVmServiceDebugProcess extends XDebugProcess {
 
   public void isolateResumed(@NotNull final IsolateRef isolateRef) {
     mySuspendedIsolateIds.remove(isolateRef.getId());
+    myVmServiceWrapper.invalidateObjectCache(isolateRef.getId());
   }
 
   public void isolateExit(@NotNull final IsolateRef isolateRef) {
     myIsolatesInfo.deleteIsolate(isolateRef);
     mySuspendedIsolateIds.remove(isolateRef.getId());
+    myVmServiceWrapper.invalidateObjectCache(isolateRef.getId());
 
     if (isolateRef.getId().equals(myLatestCurrentIsolateId)) {
       resume(getSession().getSuspendContext()); // otherwise no way no resume them from UI
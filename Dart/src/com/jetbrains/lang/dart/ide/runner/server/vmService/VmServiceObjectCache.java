@@ -0,0 +1,168 @@
+package com.jetbrains.lang.dart.ide.runner.server.vmService;
+
+import com.intellij.util.SmartList;
+import gnu.trove.THashMap;
+import org.dartlang.vm.service.consumer.GetObjectConsumer;
+import org.dartlang.vm.service.element.Obj;
+import org.dartlang.vm.service.element.RPCError;
+import org.dartlang.vm.service.element.Sentinel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Responses to getObject requests received while an isolate is paused. Objects don't change until the isolate is resumed
+ * or an expression evaluated by the user has side effects, so {@link VmServiceWrapper} invalidates the isolate's entries then.
+ * Evaluations for value presentation, like {@code toString()}, keep them. Until then,
+ * expanding the same node again, navigating to a field or class and prefetched collection pages don't need another round trip.
+ * A request for an object that is already being fetched waits for the response of the first request instead of sending its own.
+ * RPC errors are not cached.
+ */
+class VmServiceObjectCache {
+  private final Map<String, Entry> myEntries = new THashMap<>();
+
+  /**
+   * @param requestSender called only if there's neither cached response nor pending request for this object
+   */
+  void getObject(@NotNull final String isolateId,
+                 @NotNull final String objectId,
+                 final int offset,
+                 final int count,
+                 @NotNull final GetObjectConsumer consumer,
+                 @NotNull final Consumer<GetObjectConsumer> requestSender) {
+    final String key = getKey(isolateId, objectId, offset, count);
+    final Entry entry;
+    final boolean newEntry;
+
+    synchronized (myEntries) {
+      Entry existing = myEntries.get(key);
+      newEntry = existing == null;
+      entry = newEntry ? new Entry(key) : existing;
+      if (newEntry) {
+        myEntries.put(key, entry);
+      }
+    }
+
+    entry.addConsumer(consumer);
+
+    if (newEntry) {
+      requestSender.accept(entry);
+    }
+  }
+
+  boolean isCachedOrPending(@NotNull final String isolateId, @NotNull final String objectId, final int offset, final int count) {
+    synchronized (myEntries) {
+      return myEntries.containsKey(getKey(isolateId, objectId, offset, count));
+    }
+  }
+
+  void invalidate(@NotNull final String isolateId) {
+    final String prefix = isolateId + "|";
+    synchronized (myEntries) {
+      for (Iterator<String> iterator = myEntries.keySet().iterator(); iterator.hasNext(); ) {
+        if (iterator.next().startsWith(prefix)) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  private void remove(@NotNull final Entry entry) {
+    synchronized (myEntries) {
+      if (myEntries.get(entry.myKey) == entry) {
+        myEntries.remove(entry.myKey);
+      }
+    }
+  }
+
+  @NotNull
+  private static String getKey(@NotNull final String isolateId, @NotNull final String objectId, final int offset, final int count) {
+    return offset < 0 ? isolateId + "|" + objectId : isolateId + "|" + objectId + "|" + offset + "|" + count;
+  }
+
+  private class Entry implements GetObjectConsumer {
+    @NotNull private final String myKey;
+    private final List<GetObjectConsumer> myConsumers = new SmartList<>();
+    private boolean myReceived;
+    private Obj myObj;
+    private Sentinel mySentinel;
+    private RPCError myError;
+
+    private Entry(@NotNull final String key) {
+      myKey = key;
+    }
+
+    private void addConsumer(@NotNull final GetObjectConsumer consumer) {
+      synchronized (this) {
+        if (!myReceived) {
+          myConsumers.add(consumer);
+          return;
+        }
+      }
+
+      if (myObj != null) {
+        consumer.received(myObj);
+      }
+      else if (mySentinel != null) {
+        consumer.received(mySentinel);
+      }
+      else {
+        consumer.onError(myError);
+      }
+    }
+
+    @NotNull
+    private List<GetObjectConsumer> takeConsumers() {
+      final List<GetObjectConsumer> consumers = new SmartList<>(myConsumers);
+      myConsumers.clear();
+      return consumers;
+    }
+
+    @Override
+    public void received(final Obj response) {
+      final List<GetObjectConsumer> consumers;
+      synchronized (this) {
+        myObj = response;
+        myReceived = true;
+        consumers = takeConsumers();
+      }
+
+      for (GetObjectConsumer consumer : consumers) {
+        consumer.received(response);
+      }
+    }
+
+    @Override
+    public void received(final Sentinel response) {
+      final List<GetObjectConsumer> consumers;
+      synchronized (this) {
+        mySentinel = response;
+        myReceived = true;
+        consumers = takeConsumers();
+      }
+
+      for (GetObjectConsumer consumer : consumers) {
+        consumer.received(response);
+      }
+    }
+
+    @Override
+    public void onError(final RPCError error) {
+      remove(this);
+
+      final List<GetObjectConsumer> consumers;
+      synchronized (this) {
+        myError = error;
+        myReceived = true;
+        consumers = takeConsumers();
+      }
+
+      for (GetObjectConsumer consumer : consumers) {
+        consumer.onError(error);
+      }
+    }
+  }
+}
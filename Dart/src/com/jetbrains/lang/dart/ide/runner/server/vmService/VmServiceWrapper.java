@@ -22,6 +22,7 @@ import org.dartlang.vm.service.element.*;
 import org.dartlang.vm.service.logging.Logging;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -41,6 +42,7 @@ public class VmServiceWrapper implements Disposable {
   private final IsolatesInfo myIsolatesInfo;
   private final DartVmServiceBreakpointHandler myBreakpointHandler;
   private final Alarm myRequestsScheduler;
+  private final VmServiceObjectCache myObjectCache = new VmServiceObjectCache();
 
   private long myVmServiceReceiverThreadId;
 
@@ -59,6 +61,16 @@ public class VmServiceWrapper implements Disposable {
     myRequestsScheduler = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
   }
 
+  @TestOnly
+  VmServiceWrapper(@NotNull final VmService vmService) {
+    myDebugProcess = null;
+    myVmService = vmService;
+    myVmServiceListener = null;
+    myIsolatesInfo = null;
+    myBreakpointHandler = null;
+    myRequestsScheduler = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+  }
+
   @Override
   public void dispose() {
   }
@@ -325,6 +337,7 @@ public class VmServiceWrapper implements Disposable {
   public void restoreBreakpointsForIsolate(@NotNull final String isolateId, @Nullable final Runnable onFinished) {
     // Cached information about the isolate may now be stale.
     myIsolatesInfo.invalidateCache(isolateId);
+    myObjectCache.invalidate(isolateId);
 
     // Remove all existing VM breakpoints for this isolate.
     myBreakpointHandler.removeAllVmBreakpoints(isolateId);
@@ -355,6 +368,7 @@ public class VmServiceWrapper implements Disposable {
   }
 
   public void resumeIsolate(@NotNull final String isolateId, @Nullable final StepOption stepOption) {
+    myObjectCache.invalidate(isolateId);
     addRequest(() -> {
       myLatestStep = stepOption;
       myVmService.resume(isolateId, stepOption, null, VmServiceConsumers.EMPTY_SUCCESS_CONSUMER);
@@ -374,6 +388,7 @@ public class VmServiceWrapper implements Disposable {
    * function, so frameIndex must be at least 1.
    */
   public void dropFrame(@NotNull final String isolateId, int frameIndex) {
+    myObjectCache.invalidate(isolateId);
     addRequest(() -> {
       myLatestStep = StepOption.Rewind;
       myVmService.resume(isolateId, StepOption.Rewind, frameIndex, new SuccessConsumer() {
@@ -473,16 +488,37 @@ public class VmServiceWrapper implements Disposable {
     return resultRef.get();
   }
 
+  /**
+   * Objects are cached until the isolate is resumed or the user evaluates an expression, see {@link VmServiceObjectCache}
+   */
   public void getObject(@NotNull final String isolateId, @NotNull final String objectId, @NotNull final GetObjectConsumer consumer) {
-    addRequest(() -> myVmService.getObject(isolateId, objectId, consumer));
+    myObjectCache.getObject(isolateId, objectId, -1, -1, consumer,
+                            cacheEntry -> addRequest(() -> myVmService.getObject(isolateId, objectId, cacheEntry)));
   }
 
+  /**
+   * Collection pages are cached until the isolate is resumed, see {@link VmServiceObjectCache}
+   */
   public void getCollectionObject(@NotNull final String isolateId,
                                   @NotNull final String objectId,
                                   final int offset,
                                   final int count,
                                   @NotNull final GetObjectConsumer consumer) {
-    addRequest(() -> myVmService.getObject(isolateId, objectId, offset, count, consumer));
+    myObjectCache.getObject(isolateId, objectId, offset, count, consumer,
+                            cacheEntry -> addRequest(() -> myVmService.getObject(isolateId, objectId, offset, count, cacheEntry)));
+  }
+
+  /**
+   * Requests the collection page in advance, so that it is already available when the user asks for more children
+   */
+  public void prefetchCollectionObject(@NotNull final String isolateId, @NotNull final String objectId, final int offset, final int count) {
+    if (!myObjectCache.isCachedOrPending(isolateId, objectId, offset, count)) {
+      getCollectionObject(isolateId, objectId, offset, count, VmServiceConsumers.EMPTY_GET_OBJECT_CONSUMER);
+    }
+  }
+
+  public void invalidateObjectCache(@NotNull final String isolateId) {
+    myObjectCache.invalidate(isolateId);
   }
 
   public void evaluateInFrame(@NotNull final String isolateId,
@@ -492,34 +528,73 @@ public class VmServiceWrapper implements Disposable {
     addRequest(() -> myVmService.evaluateInFrame(isolateId, vmFrame.getIndex(), expression, new EvaluateInFrameConsumer() {
       @Override
       public void received(InstanceRef instanceRef) {
+        myObjectCache.invalidate(isolateId);
         callback.evaluated(new DartVmServiceValue(myDebugProcess, isolateId, "result", instanceRef, null, null, false));
       }
 
       @Override
       public void received(Sentinel sentinel) {
+        myObjectCache.invalidate(isolateId);
         callback.errorOccurred(sentinel.getValueAsString());
       }
 
       @Override
       public void received(ErrorRef errorRef) {
+        myObjectCache.invalidate(isolateId);
         callback.errorOccurred(DartVmServiceEvaluator.getPresentableError(errorRef.getMessage()));
       }
 
       @Override
       public void onError(RPCError error) {
+        myObjectCache.invalidate(isolateId);
         callback.errorOccurred(error.getMessage());
       }
     }));
   }
 
+  /**
+   * Evaluation for the presentation of a value, like {@code toString()} of a variable shown in the Variables tree.
+   * Unlike evaluations requested by the user, it keeps the cached objects, otherwise rendering the tree would drop them.
+   */
   @SuppressWarnings("SameParameterValue")
-  public void evaluateInTargetContext(@NotNull final String isolateId,
+  public void evaluateForPresentation(@NotNull final String isolateId,
                                       @NotNull final String targetId,
                                       @NotNull final String expression,
                                       @NotNull final EvaluateConsumer consumer) {
     addRequest(() -> myVmService.evaluate(isolateId, targetId, expression, consumer));
   }
 
+  private void evaluateInTargetContext(@NotNull final String isolateId,
+                                       @NotNull final String targetId,
+                                       @NotNull final String expression,
+                                       @NotNull final EvaluateConsumer consumer) {
+    addRequest(() -> myVmService.evaluate(isolateId, targetId, expression, new EvaluateConsumer() {
+      @Override
+      public void received(InstanceRef instanceRef) {
+        myObjectCache.invalidate(isolateId);
+        consumer.received(instanceRef);
+      }
+
+      @Override
+      public void received(Sentinel sentinel) {
+        myObjectCache.invalidate(isolateId);
+        consumer.received(sentinel);
+      }
+
+      @Override
+      public void received(ErrorRef errorRef) {
+        myObjectCache.invalidate(isolateId);
+        consumer.received(errorRef);
+      }
+
+      @Override
+      public void onError(RPCError error) {
+        myObjectCache.invalidate(isolateId);
+        consumer.onError(error);
+      }
+    }));
+  }
+
   public void evaluateInTargetContext(@NotNull final String isolateId,
                                       @NotNull final String targetId,
                                       @NotNull final String expression,
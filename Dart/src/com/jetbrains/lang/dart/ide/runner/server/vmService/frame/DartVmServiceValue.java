@@ -286,7 +286,7 @@ public class DartVmServiceValue extends XNamedValue {
 
   private void computeDefaultPresentation(@NotNull final XValueNode node) {
     myDebugProcess.getVmServiceWrapper()
-      .evaluateInTargetContext(myIsolateId, myInstanceRef.getId(), "toString()", new VmServiceConsumers.EvaluateConsumerWrapper() {
+      .evaluateForPresentation(myIsolateId, myInstanceRef.getId(), "toString()", new VmServiceConsumers.EvaluateConsumerWrapper() {
         @Override
         public void received(final InstanceRef toStringInstanceRef) {
           if (toStringInstanceRef.getKind() == InstanceKind.String) {
@@ -348,6 +348,13 @@ public class DartVmServiceValue extends XNamedValue {
     myDebugProcess.getVmServiceWrapper().getCollectionObject(myIsolateId, myInstanceRef.getId(), offset, count, new GetObjectConsumer() {
       @Override
       public void received(Obj instance) {
+        // the next page is likely to be requested, fetch it while the current one is being rendered
+        final int nextOffset = offset + count;
+        if (nextOffset < myInstanceRef.getLength()) {
+          final int nextCount = Math.min(myInstanceRef.getLength() - nextOffset, XCompositeNode.MAX_CHILDREN_TO_SHOW);
+          myDebugProcess.getVmServiceWrapper().prefetchCollectionObject(myIsolateId, myInstanceRef.getId(), nextOffset, nextCount);
+        }
+
         if (isListKind(myInstanceRef.getKind())) {
           addListChildren(node, ((Instance)instance).getElements());
         }
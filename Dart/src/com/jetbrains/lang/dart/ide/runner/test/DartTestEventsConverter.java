@@ -1,33 +1,40 @@
 package com.jetbrains.lang.dart.ide.runner.test;
 
-import com.google.gson.*;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.intellij.execution.testframework.TestConsoleProperties;
 import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.execution.testframework.sm.runner.GeneralTestEventsProcessor;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
+import com.intellij.execution.testframework.sm.runner.events.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.ArrayUtil;
 import com.intellij.util.PathUtil;
 import com.jetbrains.lang.dart.ide.runner.util.DartTestLocationProvider;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
+import gnu.trove.TIntArrayList;
 import gnu.trove.TIntLongHashMap;
+import gnu.trove.TIntObjectHashMap;
 import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.StringReader;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Convert events from JSON format generated by package:test to the string format
- * expected by the event processor.
+ * Convert events from JSON format generated by package:test to the events expected by the event processor.
+ * Events are read with a streaming JSON reader and passed to the {@link GeneralTestEventsProcessor} directly,
+ * only failures go through the service message text format to reuse its handling of comparison failures.
  * NOTE: The test runner runs tests asynchronously. It is possible to get a 'testDone'
  * event followed some time later by an 'error' event for that same test. That should
  * convert a successful test into a failure. That case is not being handled.
@@ -70,6 +77,8 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
   private static final String JSON_LINE = "line";
   private static final String JSON_COLUMN = "column";
   private static final String JSON_URL = "url";
+  private static final String JSON_SKIP = "skip";
+  private static final String JSON_SKIP_REASON = "skipReason";
 
   private static final String RESULT_SUCCESS = "success";
   private static final String RESULT_FAILURE = "failure";
@@ -82,6 +91,7 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
   private static final String COMPILING_PREFIX = "compiling ";
   private static final String SET_UP_ALL_VIRTUAL_TEST_NAME = "(setUpAll)";
   private static final String TEAR_DOWN_ALL_VIRTUAL_TEST_NAME = "(tearDownAll)";
+  private static final String TEST_IGNORED_COMMENT = "Test ignored.";
 
   private static final Gson GSON = new Gson();
 
@@ -90,10 +100,11 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
   private String myLocation;
   private Key myCurrentOutputType;
   private ServiceMessageVisitor myCurrentVisitor;
+  private GeneralTestEventsProcessor myProcessor;
   private final TIntLongHashMap myTestIdToTimestamp;
-  private final Map<Integer, Test> myTestData;
-  private final Map<Integer, Group> myGroupData;
-  private final Map<Integer, Suite> mySuiteData;
+  private final TIntObjectHashMap<Test> myTestData;
+  private final TIntObjectHashMap<Group> myGroupData;
+  private final TIntObjectHashMap<Suite> mySuiteData;
   private int mySuitCount;
 
   public DartTestEventsConverter(@NotNull final String testFrameworkName,
@@ -102,40 +113,53 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     super(testFrameworkName, consoleProperties);
     myUrlResolver = urlResolver;
     myTestIdToTimestamp = new TIntLongHashMap();
-    myTestData = new HashMap<>();
-    myGroupData = new HashMap<>();
-    mySuiteData = new HashMap<>();
+    myTestData = new TIntObjectHashMap<>();
+    myGroupData = new TIntObjectHashMap<>();
+    mySuiteData = new TIntObjectHashMap<>();
+  }
+
+  @Override
+  public void setProcessor(final GeneralTestEventsProcessor processor) {
+    super.setProcessor(processor);
+    myProcessor = processor;
+  }
+
+  @Override
+  public void dispose() {
+    myProcessor = null;
+    super.dispose();
   }
 
   @Override
   protected boolean processServiceMessages(final String text, final Key outputType, final ServiceMessageVisitor visitor)
     throws ParseException {
-    LOG.debug("<<< " + text.trim());
+    if (LOG.isDebugEnabled()) LOG.debug("<<< " + text.trim());
     myCurrentOutputType = outputType;
     myCurrentVisitor = visitor;
     // service message parser expects line like "##teamcity[ .... ]" without whitespaces in the end.
     return processEventText(text);
   }
 
-  private boolean processEventText(final String text) throws JsonSyntaxException, ParseException {
-    JsonParser jp = new JsonParser();
-    JsonElement elem;
+  private boolean processEventText(final String text) throws ParseException {
+    if (StringUtil.isEmptyOrSpaces(text)) return false;
+
+    final Event event;
     try {
-      elem = jp.parse(text);
+      event = Event.read(text);
     }
-    catch (JsonSyntaxException ex) {
+    catch (IOException | IllegalStateException | NumberFormatException ex) {
       if (text.contains("\"json\" is not an allowed value for option \"reporter\"")) {
-        final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted("Failed to start");
-        final ServiceMessageBuilder testFailed = ServiceMessageBuilder.testFailed("Failed to start");
+        final String name = "Failed to start";
+        final boolean result = fireTestStarted(name, 1, 0, null);
+        final ServiceMessageBuilder testFailed = ServiceMessageBuilder.testFailed(name);
         testFailed.addAttribute("message", "Please update your pubspec.yaml dependency on package:test to version 0.12.9 or later.");
-        final ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished("Failed to start");
-        return finishMessage(testStarted, 1, 0) & finishMessage(testFailed, 1, 0) & finishMessage(testFinished, 1, 0);
+        return result & finishMessage(testFailed, 1, 0) & fireTestFinished(name, 1, 0);
       }
 
       return doProcessServiceMessages(text);
     }
-    if (elem == null || !elem.isJsonObject()) return false;
-    return process(elem.getAsJsonObject());
+
+    return process(event);
   }
 
   private boolean doProcessServiceMessages(@NotNull final String text) throws ParseException {
@@ -143,46 +167,43 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     return super.processServiceMessages(text, myCurrentOutputType, myCurrentVisitor);
   }
 
-  private boolean process(JsonObject obj) throws JsonSyntaxException, ParseException {
-    String type = obj.get(JSON_TYPE).getAsString();
+  private boolean process(@NotNull final Event event) throws ParseException {
+    final String type = event.myType;
     if (TYPE_TEST_START.equals(type)) {
-      return handleTestStart(obj);
+      return handleTestStart(event);
     }
     else if (TYPE_TEST_DONE.equals(type)) {
-      return handleTestDone(obj);
+      return handleTestDone(event);
     }
     else if (TYPE_ERROR.equals(type)) {
-      return handleError(obj);
+      return handleError(event);
     }
     else if (TYPE_PRINT.equals(type)) {
-      return handlePrint(obj);
+      return handlePrint(event);
     }
     else if (TYPE_GROUP.equals(type)) {
-      return handleGroup(obj);
+      return handleGroup(event);
     }
     else if (TYPE_SUITE.equals(type)) {
-      return handleSuite(obj);
+      return handleSuite(event);
     }
     else if (TYPE_ALL_SUITES.equals(type)) {
-      return handleAllSuites(obj);
+      return handleAllSuites(event);
     }
     else if (TYPE_START.equals(type)) {
-      return handleStart(obj);
+      return handleStart(event);
     }
     else if (TYPE_DONE.equals(type)) {
-      return handleDone(obj);
+      return handleDone(event);
     }
     else {
       return true;
     }
   }
 
-  private boolean handleTestStart(JsonObject obj) throws ParseException {
-    final JsonObject testObj = obj.getAsJsonObject(DEF_TEST);
-
-    // Not reached if testObj == null.
-    final Test test = getTest(obj);
-    myTestIdToTimestamp.put(test.getId(), getTimestamp(obj));
+  private boolean handleTestStart(@NotNull final Event event) throws ParseException {
+    final Test test = getTest(event);
+    myTestIdToTimestamp.put(test.getId(), getTimestamp(event));
 
     if (shouldTestBeHiddenIfPassed(test)) {
       // Virtual test that represents loading or compiling a test suite. See lib/src/runner/loader.dart -> Loader.loadFile() in pkg/test source code
@@ -197,22 +218,20 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
       }
 
       if (path.length() > 0) myLocation = FILE_URL_PREFIX + path;
-
       test.myTestStartReported = false;
       return true;
     }
 
-    final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
     test.myTestStartReported = true;
-
-    addLocationHint(testStarted, test);
-    boolean result = finishMessage(testStarted, test.getId(), test.getValidParentId());
-
-    final Metadata metadata = Metadata.from(testObj.getAsJsonObject(DEF_METADATA));
-    if (metadata.skip) {
-      final ServiceMessageBuilder message = ServiceMessageBuilder.testIgnored(test.getBaseName());
-      if (metadata.skipReason != null) message.addAttribute("message", metadata.skipReason);
-      result &= finishMessage(message, test.getId(), test.getValidParentId());
+    boolean result = fireTestStarted(test.getBaseName(), test.getId(), test.getValidParentId(), getLocationHint(test));
+
+    final ItemData testData = event.myTest;
+    if (testData != null && testData.mySkip) {
+      final String comment = testData.mySkipReason != null ? testData.mySkipReason : TEST_IGNORED_COMMENT;
+      final GeneralTestEventsProcessor processor = myProcessor;
+      if (processor != null) {
+        processor.onTestIgnored(new TestIgnoredEvent(test.getBaseName(), String.valueOf(test.getId()), comment, null));
+      }
     }
 
     return result;
@@ -230,76 +249,73 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
            group != null && group.getDoneTestsCount() > 0 && test.getBaseName().equals(TEAR_DOWN_ALL_VIRTUAL_TEST_NAME);
   }
 
-  private boolean handleTestDone(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
+  private boolean handleTestDone(@NotNull final Event event) throws ParseException {
+    final Test test = getTest(event);
 
     if (!test.myTestStartReported) return true;
 
-    String result = getResult(obj);
+    String result = getResult(event);
     if (!result.equals(RESULT_SUCCESS) && !result.equals(RESULT_FAILURE) && !result.equals(RESULT_ERROR)) {
-      throw new ParseException("Unknown result: " + obj, 0);
+      throw new ParseException("Unknown result: " + result, 0);
     }
 
     test.testDone();
 
-    //if (test.getMetadata().skip) return true; // skipped tests are reported as ignored in handleTestStart(). testFinished signal must follow
-
-    ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished(test.getBaseName());
-    long duration = getTimestamp(obj) - myTestIdToTimestamp.get(test.getId());
-    testFinished.addAttribute("duration", Long.toString(duration));
+    // skipped tests are reported as ignored in handleTestStart(). testFinished signal must follow
 
-    return finishMessage(testFinished, test.getId(), test.getValidParentId()) && checkGroupDone(test.getParent());
+    // the start time isn't needed anymore, so don't keep it for every test of a large suite
+    final long duration = getTimestamp(event) - myTestIdToTimestamp.remove(test.getId());
+    return fireTestFinished(test.getBaseName(), test.getId(), duration) && checkGroupDone(test.getParent());
   }
 
-  private boolean checkGroupDone(@Nullable final Group group) throws ParseException {
+  private boolean checkGroupDone(@Nullable final Group group) {
     if (group != null && group.getTestCount() > 0 && group.getDoneTestsCount() == group.getTestCount()) {
       return processGroupDone(group) && checkGroupDone(group.getParent());
     }
     return true;
   }
 
-  private boolean handleGroup(JsonObject obj) throws ParseException {
-    Group group = getGroup(obj.getAsJsonObject(DEF_GROUP));
+  private boolean handleGroup(@NotNull final Event event) throws ParseException {
+    final Group group = getGroup(event.myGroup);
 
     // From spec: The implicit group at the root of each test suite has null name and parentID attributes.
     if (group.getParent() == null && group.getTestCount() > 0) {
-      // com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter.MyServiceMessageVisitor.KEY_TESTS_COUNT
-      // and  com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter.MyServiceMessageVisitor.ATTR_KEY_TEST_COUNT
-      final ServiceMessageBuilder testCount =
-        new ServiceMessageBuilder("testCount").addAttribute("count", String.valueOf(group.getTestCount()));
-      doProcessServiceMessages(testCount.toString());
+      final GeneralTestEventsProcessor processor = myProcessor;
+      if (processor != null) {
+        processor.onTestsCountInSuite(group.getTestCount());
+      }
     }
 
     if (group.isArtificial()) return true; // Ignore artificial groups.
-    ServiceMessageBuilder groupMsg = ServiceMessageBuilder.testSuiteStarted(group.getBaseName());
-    // Possible attributes: "nodeType" "nodeArgs" "running"
-    addLocationHint(groupMsg, group);
-    return finishMessage(groupMsg, group.getId(), group.getValidParentId());
+
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor == null) return false;
+    processor.onSuiteStarted(new TestSuiteStartedEvent(group.getBaseName(), String.valueOf(group.getId()),
+                                                       String.valueOf(group.getValidParentId()), getLocationHint(group),
+                                                       null, null, null, true));
+    return true;
   }
 
-  private boolean handleSuite(JsonObject obj) throws ParseException {
-    Suite suite = getSuite(obj.getAsJsonObject(DEF_SUITE));
+  private boolean handleSuite(@NotNull final Event event) throws ParseException {
+    final Suite suite = getSuite(event.mySuite);
     if (!suite.hasPath()) {
       mySuiteData.remove(suite.getId());
     }
     return true;
   }
 
-  private boolean handleError(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
-    final String message = getErrorMessage(obj);
+  private boolean handleError(@NotNull final Event event) throws ParseException {
+    final Test test = getTest(event);
+    final String message = getErrorMessage(event);
     boolean result = true;
 
     if (!test.myTestStartReported) {
-      final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
       test.myTestStartReported = true;
-      result = finishMessage(testStarted, test.getId(), test.getValidParentId());
+      result = fireTestStarted(test.getBaseName(), test.getId(), test.getValidParentId(), null);
     }
 
     if (test.myTestErrorReported) {
-      final ServiceMessageBuilder testErrorMessage = ServiceMessageBuilder.testStdErr(test.getBaseName());
-      testErrorMessage.addAttribute("out", appendLineBreakIfNeeded(message));
-      result &= finishMessage(testErrorMessage, test.getId(), test.getValidParentId());
+      result &= fireTestOutput(test, appendLineBreakIfNeeded(message), false);
     }
     else {
       final ServiceMessageBuilder testError = ServiceMessageBuilder.testFailed(test.getBaseName());
@@ -323,17 +339,15 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
         }
       }
 
-      if (!getBoolean(obj, JSON_IS_FAILURE)) testError.addAttribute("error", "true");
+      if (!getIsFailure(event)) testError.addAttribute("error", "true");
       testError.addAttribute("message", appendLineBreakIfNeeded(failureMessage));
 
       result &= finishMessage(testError, test.getId(), test.getValidParentId());
     }
 
-    final String stackTrace = getStackTrace(obj);
+    final String stackTrace = getStackTrace(event);
     if (!StringUtil.isEmptyOrSpaces(stackTrace)) {
-      final ServiceMessageBuilder stackTraceMessage = ServiceMessageBuilder.testStdErr(test.getBaseName());
-      stackTraceMessage.addAttribute("out", appendLineBreakIfNeeded(stackTrace));
-      result &= finishMessage(stackTraceMessage, test.getId(), test.getValidParentId());
+      result &= fireTestOutput(test, appendLineBreakIfNeeded(stackTrace), false);
     }
 
     return result;
@@ -344,15 +358,14 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     return message.endsWith("\n") ? message : message + "\n";
   }
 
-  private boolean handleAllSuites(JsonObject obj) {
-    JsonElement elem = obj.get(JSON_COUNT);
-    if (elem == null || !elem.isJsonPrimitive()) return true;
-    mySuitCount = elem.getAsInt();
+  private boolean handleAllSuites(@NotNull final Event event) {
+    if (event.myCount < 0) return true;
+    mySuitCount = event.myCount;
     return true;
   }
 
-  private boolean handlePrint(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
+  private boolean handlePrint(@NotNull final Event event) throws ParseException {
+    final Test test = getTest(event);
     boolean result = true;
 
     if (!test.myTestStartReported) {
@@ -360,28 +373,27 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
         return true; // output in successfully passing setUpAll/tearDownAll is not important enough to make these nodes visible
       }
 
-      final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
       test.myTestStartReported = true;
-      result = finishMessage(testStarted, test.getId(), test.getValidParentId());
+      result = fireTestStarted(test.getBaseName(), test.getId(), test.getValidParentId(), null);
     }
 
-    ServiceMessageBuilder message = ServiceMessageBuilder.testStdOut(test.getBaseName());
-    message.addAttribute("out", appendLineBreakIfNeeded(getMessage(obj)));
-
-    return result & finishMessage(message, test.getId(), test.getValidParentId());
+    return result & fireTestOutput(test, appendLineBreakIfNeeded(getMessage(event)), true);
   }
 
-  private boolean handleStart(JsonObject obj) throws ParseException {
+  private boolean handleStart(@NotNull final Event event) {
     myTestIdToTimestamp.clear();
     myTestData.clear();
     myGroupData.clear();
     mySuiteData.clear();
     mySuitCount = 0;
 
-    return doProcessServiceMessages(new ServiceMessageBuilder("enteredTheMatrix").toString());
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor == null) return false;
+    processor.onTestsReporterAttached();
+    return true;
   }
 
-  private boolean handleDone(JsonObject obj) throws ParseException {
+  private boolean handleDone(@NotNull final Event event) {
     // The test runner has reached the end of the tests.
     processAllTestsDone();
     return true;
@@ -389,18 +401,14 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
 
   private void processAllTestsDone() {
     // All tests are done.
-    for (Group group : myGroupData.values()) {
+    for (Object value : myGroupData.getValues()) {
+      final Group group = (Group)value;
       // For package: test prior to v. 0.12.9 there were no Group.testCount field, so need to finish them all at the end.
       // AFAIK the order does not matter. A depth-first post-order traversal of the tree would work
       // if order does matter. Note: Currently, there is no tree representation, just parent links.
 
       if (group.getTestCount() == 0 || group.getDoneTestsCount() != group.getTestCount()) {
-        try {
-          processGroupDone(group);
-        }
-        catch (ParseException ex) {
-          // ignore it
-        }
+        processGroupDone(group);
       }
     }
     myTestIdToTimestamp.clear();
@@ -410,11 +418,35 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     mySuitCount = 0;
   }
 
-  private boolean processGroupDone(@NotNull final Group group) throws ParseException {
+  private boolean processGroupDone(@NotNull final Group group) {
     if (group.isArtificial()) return true;
 
-    ServiceMessageBuilder groupMsg = ServiceMessageBuilder.testSuiteFinished(group.getBaseName());
-    return finishMessage(groupMsg, group.getId(), group.getValidParentId());
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor == null) return false;
+    processor.onSuiteFinished(new TestSuiteFinishedEvent(group.getBaseName(), String.valueOf(group.getId())));
+    return true;
+  }
+
+  private boolean fireTestStarted(@NotNull final String name, final int testId, final int parentId, @Nullable final String locationHint) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor == null) return false;
+    processor.onTestStarted(new TestStartedEvent(name, String.valueOf(testId), String.valueOf(parentId), locationHint,
+                                                 null, null, null, true));
+    return true;
+  }
+
+  private boolean fireTestFinished(@NotNull final String name, final int testId, final long duration) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor == null) return false;
+    processor.onTestFinished(new TestFinishedEvent(name, String.valueOf(testId), duration));
+    return true;
+  }
+
+  private boolean fireTestOutput(@NotNull final Test test, @NotNull final String text, final boolean stdOut) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor == null) return false;
+    processor.onTestOutput(new TestOutputEvent(test.getBaseName(), String.valueOf(test.getId()), text, stdOut));
+    return true;
   }
 
   private boolean finishMessage(@NotNull ServiceMessageBuilder msg, int testId, int parentId) throws ParseException {
@@ -423,8 +455,8 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     return doProcessServiceMessages(msg.toString());
   }
 
-  private void addLocationHint(ServiceMessageBuilder messageBuilder, Item item) {
-    String location = "unknown";
+  @NotNull
+  private String getLocationHint(@NotNull final Item item) {
     String loc;
 
     final VirtualFile file = item.getUrl() == null ? null : myUrlResolver.findFileByDartUrl(item.getUrl());
@@ -438,109 +470,252 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
       loc = myLocation;
     }
 
-    if (loc != null) {
-      String nameList = GSON.toJson(item.nameList(), DartTestLocationProvider.STRING_LIST_TYPE);
-      location = loc + "," + item.getLine() + "," + item.getColumn() + "," + nameList;
-    }
+    if (loc == null) return "unknown";
 
-    messageBuilder.addAttribute("locationHint", location);
+    String nameList = GSON.toJson(item.nameList(), DartTestLocationProvider.STRING_LIST_TYPE);
+    return loc + "," + item.getLine() + "," + item.getColumn() + "," + nameList;
   }
 
-  private static long getTimestamp(JsonObject obj) throws ParseException {
-    return getLong(obj, JSON_MILLIS);
+  private static long getTimestamp(@NotNull final Event event) throws ParseException {
+    if (event.myTime < 0) throw new ParseException("Value is not type long: " + JSON_MILLIS, 0);
+    return event.myTime;
   }
 
-  private static long getLong(JsonObject obj, String name) throws ParseException {
-    JsonElement val = obj == null ? null : obj.get(name);
-    if (val == null || !val.isJsonPrimitive()) throw new ParseException("Value is not type long: " + val, 0);
-    return val.getAsLong();
-  }
-
-  private static boolean getBoolean(JsonObject obj, String name) throws ParseException {
-    JsonElement val = obj == null ? null : obj.get(name);
-    if (val == null || !val.isJsonPrimitive()) throw new ParseException("Value is not type boolean: " + val, 0);
-    return val.getAsBoolean();
+  private static boolean getIsFailure(@NotNull final Event event) throws ParseException {
+    if (event.myIsFailure == null) throw new ParseException("Value is not type boolean: " + JSON_IS_FAILURE, 0);
+    return event.myIsFailure;
   }
 
   @NotNull
-  private Test getTest(JsonObject obj) throws ParseException {
-    return getItem(obj, myTestData);
-  }
+  private Test getTest(@NotNull final Event event) throws ParseException {
+    final ItemData data = event.myTest;
+    if (data != null && data.myId >= 0) {
+      final Test test = Test.from(data, myGroupData, mySuiteData);
+      myTestData.put(data.myId, test);
+      return test;
+    }
 
-  @NotNull
-  private Group getGroup(JsonObject obj) throws ParseException {
-    return getItem(obj, myGroupData);
+    if (event.myTestId < 0) throw new ParseException("No testId in json object", 0);
+    final Test test = myTestData.get(event.myTestId);
+    if (test == null) throw new ParseException("Unknown testId: " + event.myTestId, 0);
+    return test;
   }
 
   @NotNull
-  private Suite getSuite(JsonObject obj) throws ParseException {
-    return getItem(obj, mySuiteData);
+  private Group getGroup(@Nullable final ItemData data) throws ParseException {
+    if (data == null || data.myId < 0) throw new ParseException("No group id in json object", 0);
+    final Group group = Group.from(data, myGroupData, mySuiteData);
+    myGroupData.put(data.myId, group);
+    return group;
   }
 
   @NotNull
-  private <T extends Item> T getItem(JsonObject obj, Map<Integer, T> items) throws ParseException {
-    if (obj == null) throw new ParseException("Unexpected null json object", 0);
-    T item;
-    JsonElement id = obj.get(JSON_ID);
-    if (id != null) {
-      if (items == myTestData) {
-        @SuppressWarnings("unchecked") T type = (T)Test.from(obj, myGroupData, mySuiteData);
-        item = type;
-      }
-      else if (items == myGroupData) {
-        @SuppressWarnings("unchecked") T group = (T)Group.from(obj, myGroupData, mySuiteData);
-        item = group;
-      }
-      else {
-        @SuppressWarnings("unchecked") T suite = (T)Suite.from(obj);
-        item = suite;
-      }
-      items.put(id.getAsInt(), item);
-    }
-    else {
-      JsonElement testId = obj.get(JSON_TEST_ID);
-      if (testId != null) {
-        int baseId = testId.getAsInt();
-        item = items.get(baseId);
-      }
-      else {
-        JsonElement testObj = obj.get(DEF_TEST);
-        if (testObj != null) {
-          return getItem(testObj.getAsJsonObject(), items);
-        }
-        else {
-          throw new ParseException("No testId in json object", 0);
-        }
-      }
-    }
-    return item;
+  private Suite getSuite(@Nullable final ItemData data) throws ParseException {
+    if (data == null || data.myId < 0) throw new ParseException("No suite id in json object", 0);
+    final Suite suite = Suite.from(data);
+    mySuiteData.put(data.myId, suite);
+    return suite;
   }
 
   @NotNull
-  private static String getErrorMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_ERROR_MESSAGE, "<no error message>");
+  private static String getErrorMessage(@NotNull final Event event) {
+    return StringUtil.notNullize(event.myError, "<no error message>");
   }
 
   @NotNull
-  private static String getMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_MESSAGE, "<no message>");
+  private static String getMessage(@NotNull final Event event) {
+    return StringUtil.notNullize(event.myMessage, "<no message>");
   }
 
   @NotNull
-  private static String getStackTrace(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_STACK_TRACE, "<no stack trace>");
+  private static String getStackTrace(@NotNull final Event event) {
+    return StringUtil.notNullize(event.myStackTrace, "<no stack trace>");
   }
 
   @NotNull
-  private static String getResult(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_RESULT, "<no result>");
-  }
+  private static String getResult(@NotNull final Event event) {
+    return StringUtil.notNullize(event.myResult, "<no result>");
+  }
+
+  /**
+   * Top-level fields of a package:test JSON event, read in one pass without building a JSON tree.
+   */
+  private static class Event {
+    private String myType;
+    private long myTime = -1;
+    private int myTestId = -1;
+    private int myCount = -1;
+    private String myResult;
+    private String myMessage;
+    private String myError;
+    private String myStackTrace;
+    private Boolean myIsFailure;
+    private ItemData myTest;
+    private ItemData myGroup;
+    private ItemData mySuite;
+
+    @NotNull
+    static Event read(@NotNull final String text) throws IOException {
+      final JsonReader reader = new JsonReader(new StringReader(text));
+      reader.setLenient(true);
+
+      final Event event = new Event();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        final String name = reader.nextName();
+        if (reader.peek() == JsonToken.NULL) {
+          reader.nextNull();
+          continue;
+        }
 
-  @NotNull
-  private static String nonNullJsonValue(JsonObject obj, @NotNull String id, @NotNull String def) {
-    JsonElement val = obj == null ? null : obj.get(id);
-    if (val == null || !val.isJsonPrimitive()) return def;
-    return val.getAsString();
+        switch (name) {
+          case JSON_TYPE:
+            event.myType = reader.nextString();
+            break;
+          case JSON_MILLIS:
+            event.myTime = reader.nextLong();
+            break;
+          case JSON_TEST_ID:
+            event.myTestId = reader.nextInt();
+            break;
+          case JSON_COUNT:
+            event.myCount = reader.nextInt();
+            break;
+          case JSON_RESULT:
+            event.myResult = reader.nextString();
+            break;
+          case JSON_MESSAGE:
+            event.myMessage = reader.nextString();
+            break;
+          case JSON_ERROR_MESSAGE:
+            event.myError = reader.nextString();
+            break;
+          case JSON_STACK_TRACE:
+            event.myStackTrace = reader.nextString();
+            break;
+          case JSON_IS_FAILURE:
+            event.myIsFailure = reader.nextBoolean();
+            break;
+          case DEF_TEST:
+            event.myTest = ItemData.read(reader);
+            break;
+          case DEF_GROUP:
+            event.myGroup = ItemData.read(reader);
+            break;
+          case DEF_SUITE:
+            event.mySuite = ItemData.read(reader);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+
+      // same as a JSON tree parser, the line must contain nothing but the object
+      if (reader.peek() != JsonToken.END_DOCUMENT) throw new IllegalStateException("Did not consume the entire document");
+      return event;
+    }
+  }
+
+  /**
+   * Fields of the test, group or suite object in a package:test JSON event
+   */
+  private static class ItemData {
+    private int myId = -1;
+    private String myName;
+    private int mySuiteId = -1;
+    private int myParentId = -1;
+    private int[] myGroupIds = ArrayUtil.EMPTY_INT_ARRAY;
+    private int myTestCount = -1;
+    private int myLine = -1;
+    private int myColumn = -1;
+    private String myUrl;
+    private String myPath;
+    private String myPlatform;
+    private boolean mySkip;
+    private String mySkipReason;
+
+    @NotNull
+    static ItemData read(@NotNull final JsonReader reader) throws IOException {
+      final ItemData data = new ItemData();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        final String name = reader.nextName();
+        if (reader.peek() == JsonToken.NULL) {
+          reader.nextNull();
+          continue;
+        }
+
+        switch (name) {
+          case JSON_ID:
+            data.myId = reader.nextInt();
+            break;
+          case JSON_NAME:
+            data.myName = reader.nextString();
+            break;
+          case JSON_SUITE_ID:
+            data.mySuiteId = reader.nextInt();
+            break;
+          case JSON_PARENT_ID:
+            data.myParentId = reader.nextInt();
+            break;
+          case JSON_GROUP_IDS:
+            final TIntArrayList groupIds = new TIntArrayList();
+            reader.beginArray();
+            while (reader.hasNext()) {
+              groupIds.add(reader.nextInt());
+            }
+            reader.endArray();
+            data.myGroupIds = groupIds.toNativeArray();
+            break;
+          case JSON_TEST_COUNT:
+            data.myTestCount = reader.nextInt();
+            break;
+          case JSON_LINE:
+            data.myLine = reader.nextInt();
+            break;
+          case JSON_COLUMN:
+            data.myColumn = reader.nextInt();
+            break;
+          case JSON_URL:
+            data.myUrl = reader.nextString();
+            break;
+          case JSON_PATH:
+            data.myPath = reader.nextString();
+            break;
+          case JSON_PLATFORM:
+            data.myPlatform = reader.nextString();
+            break;
+          case DEF_METADATA:
+            readMetadata(reader, data);
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+      return data;
+    }
+
+    private static void readMetadata(@NotNull final JsonReader reader, @NotNull final ItemData data) throws IOException {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        final String name = reader.nextName();
+        if (reader.peek() == JsonToken.NULL) {
+          reader.nextNull();
+        }
+        else if (JSON_SKIP.equals(name)) {
+          data.mySkip = reader.nextBoolean();
+        }
+        else if (JSON_SKIP_REASON.equals(name)) {
+          data.mySkipReason = reader.nextString();
+        }
+        else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
   }
 
   private static class Item {
@@ -549,43 +724,23 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     private final String myName;
     private final Group myParent;
     private final Suite mySuite;
-    private final Metadata myMetadata;
     private final int myLine;
     private final int myColumn;
     private final String myUrl;
 
-    static int extractInt(JsonObject obj, String memberName) {
-      JsonElement elem = obj.get(memberName);
-      if (elem == null || !elem.isJsonPrimitive()) return -1;
-      return elem.getAsInt();
-    }
-
-    static String extractString(JsonObject obj, String memberName, String defaultResult) {
-      JsonElement elem = obj.get(memberName);
-      if (elem == null || elem.isJsonNull()) return defaultResult;
-      return elem.getAsString();
-    }
-
-    static Metadata extractMetadata(JsonObject obj) {
-      return Metadata.from(obj.get(DEF_METADATA));
+    static Suite lookupSuite(@NotNull final ItemData data, @NotNull final TIntObjectHashMap<Suite> suites) {
+      return data.mySuiteId < 0 ? null : suites.get(data.mySuiteId);
     }
 
-    static Suite lookupSuite(JsonObject obj, Map<Integer, Suite> suites) {
-      JsonElement suiteObj = obj.get(JSON_SUITE_ID);
-      Suite suite = null;
-      if (suiteObj != null && suiteObj.isJsonPrimitive()) {
-        int parentId = suiteObj.getAsInt();
-        suite = suites.get(parentId);
-      }
-      return suite;
+    static int toZeroBased(final int oneBased) {
+      return oneBased < 0 ? -1 : oneBased - 1;
     }
 
-    Item(int id, String name, Group parent, Suite suite, Metadata metadata, int line, int column, String url) {
+    Item(int id, String name, Group parent, Suite suite, int line, int column, String url) {
       myId = id;
       myName = name;
       myParent = parent;
       mySuite = suite;
-      myMetadata = metadata;
       myLine = line;
       myColumn = column;
       myUrl = url;
@@ -643,10 +798,6 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
       return myParent;
     }
 
-    Metadata getMetadata() {
-      return myMetadata;
-    }
-
     boolean isArtificial() {
       return NO_NAME.equals(myName) && myParent == null && !hasSuite();
     }
@@ -703,21 +854,17 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     private boolean myTestStartReported = false;
     private boolean myTestErrorReported = false;
 
-    static Test from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      int[] groupIds = GSON.fromJson(obj.get(JSON_GROUP_IDS), (Type)int[].class);
-      Group parent = null;
-      if (groupIds != null && groupIds.length > 0) {
-        parent = groups.get(groupIds[groupIds.length - 1]);
-      }
-      Suite suite = lookupSuite(obj, suites);
-      final int line = extractInt(obj, JSON_LINE);
-      final int column = extractInt(obj, JSON_COLUMN);
-      return new Test(extractInt(obj, JSON_ID), extractString(obj, JSON_NAME, NO_NAME), parent, suite, extractMetadata(obj),
-                      line < 0 ? -1 : line - 1, column < 0 ? -1 : column - 1, extractString(obj, JSON_URL, null));
+    static Test from(@NotNull final ItemData data,
+                     @NotNull final TIntObjectHashMap<Group> groups,
+                     @NotNull final TIntObjectHashMap<Suite> suites) {
+      final int[] groupIds = data.myGroupIds;
+      final Group parent = groupIds.length > 0 ? groups.get(groupIds[groupIds.length - 1]) : null;
+      return new Test(data.myId, StringUtil.notNullize(data.myName, NO_NAME), parent, lookupSuite(data, suites),
+                      toZeroBased(data.myLine), toZeroBased(data.myColumn), data.myUrl);
     }
 
-    Test(int id, String name, Group parent, Suite suite, Metadata metadata, int line, int column, String url) {
-      super(id, name, parent, suite, metadata, line, column, url);
+    Test(int id, String name, Group parent, Suite suite, int line, int column, String url) {
+      super(id, name, parent, suite, line, column, url);
     }
 
     public void testDone() {
@@ -731,23 +878,16 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     private int myTestCount = 0;
     private int myDoneTestsCount = 0;
 
-    static Group from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      JsonElement parentObj = obj.get(JSON_PARENT_ID);
-      Group parent = null;
-      if (parentObj != null && parentObj.isJsonPrimitive()) {
-        int parentId = parentObj.getAsInt();
-        parent = groups.get(parentId);
-      }
-      Suite suite = lookupSuite(obj, suites);
-      final int line = extractInt(obj, JSON_LINE);
-      final int column = extractInt(obj, JSON_COLUMN);
-      return new Group(extractInt(obj, JSON_ID), extractString(obj, JSON_NAME, NO_NAME), parent, suite, extractMetadata(obj),
-                       extractInt(obj, JSON_TEST_COUNT), line < 0 ? -1 : line - 1, column < 0 ? -1 : column - 1,
-                       extractString(obj, JSON_URL, null));
+    static Group from(@NotNull final ItemData data,
+                      @NotNull final TIntObjectHashMap<Group> groups,
+                      @NotNull final TIntObjectHashMap<Suite> suites) {
+      final Group parent = data.myParentId < 0 ? null : groups.get(data.myParentId);
+      return new Group(data.myId, StringUtil.notNullize(data.myName, NO_NAME), parent, lookupSuite(data, suites),
+                       data.myTestCount, toZeroBased(data.myLine), toZeroBased(data.myColumn), data.myUrl);
     }
 
-    Group(int id, String name, Group parent, Suite suite, Metadata metadata, int count, int line, int column, String url) {
-      super(id, name, parent, suite, metadata, line, column, url);
+    Group(int id, String name, Group parent, Suite suite, int count, int line, int column, String url) {
+      super(id, name, parent, suite, line, column, url);
       myTestCount = count;
     }
 
@@ -769,17 +909,16 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
   }
 
   private static class Suite extends Item {
-    static Metadata NoMetadata = new Metadata();
     static String NONE = "<none>";
 
-    static Suite from(JsonObject obj) {
-      return new Suite(extractInt(obj, JSON_ID), extractString(obj, JSON_PATH, NONE), extractString(obj, JSON_PLATFORM, NONE));
+    static Suite from(@NotNull final ItemData data) {
+      return new Suite(data.myId, data.myPath != null ? data.myPath : NONE, data.myPlatform != null ? data.myPlatform : NONE);
     }
 
     private final String myPlatform;
 
     Suite(int id, String path, String platform) {
-      super(id, path, null, null, NoMetadata, -1, -1, "file://" + path);
+      super(id, path, null, null, -1, -1, "file://" + path);
       myPlatform = platform;
     }
 
@@ -795,14 +934,4 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
       return getPath() != NONE;
     }
   }
-
-  private static class Metadata {
-    @SuppressWarnings("unused") private boolean skip; // assigned by GSON via reflection
-    @SuppressWarnings("unused") private String skipReason; // assigned by GSON via reflection
-
-    static Metadata from(JsonElement elem) {
-      if (elem == null) return new Metadata();
-      return GSON.fromJson(elem, (Type)Metadata.class);
-    }
-  }
 }
@@ -5,6 +5,7 @@ import com.intellij.openapi.progress.ProgressIndicatorProvider;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.impl.AnyPsiChangeListener;
 import com.intellij.psi.impl.PsiManagerImpl;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.messages.MessageBus;
 import com.jetbrains.lang.dart.util.DartClassResolveResult;
@@ -18,32 +19,48 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class DartClassResolveCache {
   private final ConcurrentMap<DartClass, DartClassResolveResult> myMap = createWeakMap();
+  @NotNull private final PsiModificationTracker myModificationTracker;
+  private volatile long myModificationCount = -1;
 
   public static DartClassResolveCache getInstance(Project project) {
     ProgressIndicatorProvider.checkCanceled(); // We hope this method is being called often enough to cancel daemon processes smoothly
     return ServiceManager.getService(project, DartClassResolveCache.class);
   }
 
-  public DartClassResolveCache(@NotNull MessageBus messageBus) {
+  public DartClassResolveCache(@NotNull Project project, @NotNull MessageBus messageBus) {
+    myModificationTracker = PsiModificationTracker.SERVICE.getInstance(project);
     messageBus.connect().subscribe(PsiManagerImpl.ANY_PSI_CHANGE_TOPIC, new AnyPsiChangeListener.Adapter() {
       @Override
       public void beforePsiChanged(boolean isPhysical) {
-        myMap.clear();
+        // physical changes are tracked by the out of code block modification count, so editing method bodies keeps the cache
+        if (!isPhysical) {
+          myMap.clear();
+        }
       }
     });
   }
 
+  private void dropIfOutOfCodeBlockChanged() {
+    final long modificationCount = myModificationTracker.getOutOfCodeBlockModificationCount();
+    if (modificationCount != myModificationCount) {
+      myMap.clear();
+      myModificationCount = modificationCount;
+    }
+  }
+
   private static <K, V> ConcurrentMap<K, V> createWeakMap() {
     return ContainerUtil.createConcurrentWeakMap(7, 0.75f, Runtime.getRuntime().availableProcessors(),
                                            ContainerUtil.<K>canonicalStrategy());
   }
 
   public void put(@NotNull DartClass dartClass, @NotNull DartClassResolveResult result) {
+    dropIfOutOfCodeBlockChanged();
     myMap.put(dartClass, result);
   }
 
   @Nullable
   public DartClassResolveResult get(DartClass dartClass) {
+    dropIfOutOfCodeBlockChanged();
     return myMap.get(dartClass);
   }
 }
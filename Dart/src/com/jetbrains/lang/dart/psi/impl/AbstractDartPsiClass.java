@@ -14,6 +14,7 @@ import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -187,11 +188,24 @@ abstract public class AbstractDartPsiClass extends AbstractDartComponentImpl imp
             components.add(component);
           }
 
-          return new CachedValueProvider.Result<>(nameToMembers, PsiModificationTracker.MODIFICATION_COUNT);
+          return new CachedValueProvider.Result<>(nameToMembers, PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
         }, false);
     }
   }
 
+  /**
+   * This class and all its super classes, mixins and interfaces in the order {@link DartResolveUtil#processSuperClasses} visits them.
+   * Supers don't depend on code inside method bodies, so the list survives typing there.
+   */
+  @NotNull
+  public List<DartClass> getSuperClassesClosure() {
+    return CachedValuesManager.getCachedValue(this, () -> {
+      final List<DartClass> result = new ArrayList<>();
+      DartResolveUtil.processSuperClassesNoCache(dartClass -> result.add(dartClass), this);
+      return new CachedValueProvider.Result<>(result, PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT);
+    });
+  }
+
   @Override
   public DartComponent findNamedConstructor(final String name) {
     return ContainerUtil.find(getConstructors(), component -> name.equals(component.getName()));
@@ -480,6 +480,20 @@ public class DartResolveUtil {
   }
 
   public static boolean processSuperClasses(PsiElementProcessor<DartClass> processor, @NotNull DartClass... rootDartClasses) {
+    if (rootDartClasses.length == 1 && rootDartClasses[0] instanceof AbstractDartPsiClass) {
+      final List<DartClass> supers = ((AbstractDartPsiClass)rootDartClasses[0]).getSuperClassesClosure();
+      if (ContainerUtil.and(supers, PsiElement::isValid)) {
+        for (DartClass dartClass : supers) {
+          if (!processor.execute(dartClass)) return false;
+        }
+        return true;
+      }
+    }
+
+    return processSuperClassesNoCache(processor, rootDartClasses);
+  }
+
+  public static boolean processSuperClassesNoCache(PsiElementProcessor<DartClass> processor, @NotNull DartClass... rootDartClasses) {
     final Set<DartClass> processedClasses = new THashSet<>();
     final LinkedList<DartClass> classes = new LinkedList<>();
     classes.addAll(Arrays.asList(rootDartClasses));
@@ -26,7 +26,8 @@ public abstract class DartUrlResolver {
 
   /**
    * Returned instance becomes obsolete if/when pubspec.yaml file is added or deleted or if module-specific custom package roots are changed,
-   * so do not keep returned instance too long.
+   * so do not keep returned instance too long. Instances are cached per pubspec.yaml file by {@link DartUrlResolverCache},
+   * so calling this method repeatedly is cheap.
    *
    * @param project
    * @param contextFile may be pubspec.yaml file, its parent folder or any file/folder within this parent folder; in case of import statements resolve this must be an analyzed file
@@ -34,7 +35,7 @@ public abstract class DartUrlResolver {
    */
   @NotNull
   public static DartUrlResolver getInstance(final @NotNull Project project, final @NotNull VirtualFile contextFile) {
-    return new DartUrlResolverImpl(project, contextFile);
+    return DartUrlResolverCache.getInstance(project, contextFile);
   }
 
   @Nullable
@@ -0,0 +1,99 @@
+package com.jetbrains.lang.dart.util;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Project-level cache of {@link DartUrlResolver} instances keyed by pubspec.yaml file.
+ * <p/>
+ * All resolvers are dropped when project roots change (this includes Dart SDK, Dart Packages library and custom package roots),
+ * when files are created, deleted or moved, or when any pubspec.yaml or .packages file changes on disk.
+ * A single resolver is also rebuilt as soon as its own pubspec.yaml document or .packages file is modified.
+ */
+public final class DartUrlResolverCache {
+  private static final Key<SimpleModificationTracker> PUBSPEC_MODIFICATION_TRACKER = Key.create("DART_PUBSPEC_MODIFICATION_TRACKER");
+
+  private DartUrlResolverCache() {
+  }
+
+  @NotNull
+  static DartUrlResolver getInstance(@NotNull final Project project, @NotNull final VirtualFile contextFile) {
+    final VirtualFile pubspecYamlFile = PubspecYamlUtil.findPubspecYamlFile(project, contextFile);
+    if (pubspecYamlFile == null) {
+      // package map depends on the module of the context file, not worth caching
+      return new DartUrlResolverImpl(project, contextFile, null);
+    }
+
+    final Map<VirtualFile, CachedResolver> cache = getCache(project);
+    final long pubspecStamp = getPubspecStamp(pubspecYamlFile);
+    final long dotPackagesStamp = getDotPackagesStamp(pubspecYamlFile);
+
+    CachedResolver cached = cache.get(pubspecYamlFile);
+    if (cached == null || cached.myPubspecStamp != pubspecStamp || cached.myDotPackagesStamp != dotPackagesStamp) {
+      cached = new CachedResolver(new DartUrlResolverImpl(project, contextFile, pubspecYamlFile), pubspecStamp, dotPackagesStamp);
+      cache.put(pubspecYamlFile, cached);
+    }
+    return cached.myResolver;
+  }
+
+  /**
+   * Called when some pubspec.yaml or .packages file is changed, created or deleted
+   */
+  public static void pubspecOrDotPackagesFileChanged(@NotNull final Project project) {
+    getPubspecModificationTracker(project).incModificationCount();
+  }
+
+  @NotNull
+  private static Map<VirtualFile, CachedResolver> getCache(@NotNull final Project project) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, () -> CachedValueProvider.Result
+      .create(ContainerUtil.newConcurrentMap(),
+              ProjectRootManager.getInstance(project),
+              VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+              getPubspecModificationTracker(project)));
+  }
+
+  @NotNull
+  private static SimpleModificationTracker getPubspecModificationTracker(@NotNull final Project project) {
+    SimpleModificationTracker tracker = project.getUserData(PUBSPEC_MODIFICATION_TRACKER);
+    if (tracker == null) {
+      tracker = project.putUserDataIfAbsent(PUBSPEC_MODIFICATION_TRACKER, new SimpleModificationTracker());
+    }
+    return tracker;
+  }
+
+  private static long getPubspecStamp(@NotNull final VirtualFile pubspecYamlFile) {
+    // same as in PubspecYamlUtil: unsaved changes of pubspec.yaml are taken into account
+    final Document cachedDocument = FileDocumentManager.getInstance().getCachedDocument(pubspecYamlFile);
+    return cachedDocument != null ? cachedDocument.getModificationStamp() : pubspecYamlFile.getModificationCount();
+  }
+
+  private static long getDotPackagesStamp(@NotNull final VirtualFile pubspecYamlFile) {
+    final VirtualFile baseDir = pubspecYamlFile.getParent();
+    final VirtualFile dotPackagesFile = baseDir == null ? null : baseDir.findChild(DotPackagesFileUtil.DOT_PACKAGES);
+    return dotPackagesFile == null ? -1 : dotPackagesFile.getModificationCount();
+  }
+
+  private static class CachedResolver {
+    @NotNull private final DartUrlResolver myResolver;
+    private final long myPubspecStamp;
+    private final long myDotPackagesStamp;
+
+    private CachedResolver(@NotNull final DartUrlResolver resolver, final long pubspecStamp, final long dotPackagesStamp) {
+      myResolver = resolver;
+      myPubspecStamp = pubspecStamp;
+      myDotPackagesStamp = dotPackagesStamp;
+    }
+  }
+}
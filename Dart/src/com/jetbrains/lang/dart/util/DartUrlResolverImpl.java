@@ -29,6 +29,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -42,17 +43,32 @@ public class DartUrlResolverImpl extends DartUrlResolver {
   @NotNull private final Map<String, VirtualFile> myLivePackageNameToDirMap = new THashMap<>();
   // myPackagesMapFromLib is not empty only if pubspec.yaml file is null
   @NotNull private final Map<String, List<String>> myPackagesMapFromLib = new THashMap<>();
-
-  public DartUrlResolverImpl(final @NotNull Project project, final @NotNull VirtualFile contextFile) {
+  // reverse maps for getDartUrlForFile(), looked up for each parent of the file, so it doesn't depend on the number of packages
+  @NotNull private final Map<VirtualFile, String> myLivePackageDirToNameMap = new THashMap<>();
+  @NotNull private final Map<String, String> myPackageDirPathFromLibToNameMap = new THashMap<>();
+
+  /**
+   * @param pubspecYamlFile result of {@link PubspecYamlUtil#findPubspecYamlFile(Project, VirtualFile)} for the {@code contextFile}
+   */
+  DartUrlResolverImpl(final @NotNull Project project, final @NotNull VirtualFile contextFile, final @Nullable VirtualFile pubspecYamlFile) {
     myProject = project;
     myDartSdk = DartSdk.getDartSdk(project);
-    myPubspecYamlFile = PubspecYamlUtil.findPubspecYamlFile(myProject, contextFile);
+    myPubspecYamlFile = pubspecYamlFile;
 
     initLivePackageNameToDirMap();
 
     if (myPubspecYamlFile == null) {
       initPackagesMapFromLib(contextFile);
     }
+
+    for (Map.Entry<String, VirtualFile> entry : myLivePackageNameToDirMap.entrySet()) {
+      myLivePackageDirToNameMap.putIfAbsent(entry.getValue(), entry.getKey());
+    }
+    for (Map.Entry<String, List<String>> entry : myPackagesMapFromLib.entrySet()) {
+      for (String dirPath : entry.getValue()) {
+        myPackageDirPathFromLibToNameMap.putIfAbsent(StringUtil.trimEnd(dirPath, "/"), entry.getKey());
+      }
+    }
   }
 
   @Override
@@ -70,7 +86,7 @@ public class DartUrlResolverImpl extends DartUrlResolver {
 
   @Override
   public Collection<String> getLivePackageNames() {
-    return myLivePackageNameToDirMap.keySet();
+    return Collections.unmodifiableSet(myLivePackageNameToDirMap.keySet());
   }
 
   @Override
@@ -154,10 +170,10 @@ public class DartUrlResolverImpl extends DartUrlResolver {
     if (myDartSdk != null) result = getUrlIfFileFromSdkLib(myProject, file, myDartSdk);
     if (result != null) return result;
 
-    result = getUrlIfFileFromLivePackage(file, myLivePackageNameToDirMap);
+    result = getUrlIfFileFromLivePackage(file);
     if (result != null) return result;
 
-    result = getUrlIfFileFromDartPackagesLib(file, myPackagesMapFromLib);
+    result = getUrlIfFileFromDartPackagesLib(file);
     if (result != null) return result;
 
     // see com.google.dart.tools.debug.core.server.ServerBreakpointManager#getAbsoluteUrlForResource()
@@ -181,28 +197,27 @@ public class DartUrlResolverImpl extends DartUrlResolver {
   }
 
   @Nullable
-  private static String getUrlIfFileFromLivePackage(final @NotNull VirtualFile file,
-                                                    final @NotNull Map<String, VirtualFile> livePackageNameToDirMap) {
-    for (Map.Entry<String, VirtualFile> entry : livePackageNameToDirMap.entrySet()) {
-      final String packageName = entry.getKey();
-      final VirtualFile packageDir = entry.getValue();
-      final String relPath = VfsUtilCore.getRelativePath(file, packageDir, '/');
-      if (relPath != null) {
-        return PACKAGE_PREFIX + packageName + "/" + relPath;
+  private String getUrlIfFileFromLivePackage(final @NotNull VirtualFile file) {
+    if (myLivePackageDirToNameMap.isEmpty()) return null;
+
+    for (VirtualFile dir = file; dir != null; dir = dir.getParent()) {
+      final String packageName = myLivePackageDirToNameMap.get(dir);
+      if (packageName != null) {
+        return PACKAGE_PREFIX + packageName + "/" + VfsUtilCore.getRelativePath(file, dir, '/');
       }
     }
     return null;
   }
 
   @Nullable
-  private static String getUrlIfFileFromDartPackagesLib(final @NotNull VirtualFile file,
-                                                        final @NotNull Map<String, List<String>> pubListPackageDirsMap) {
-    for (Map.Entry<String, List<String>> mapEntry : pubListPackageDirsMap.entrySet()) {
-      for (String dirPath : mapEntry.getValue()) {
-        if (file.getPath().startsWith(dirPath + "/")) {
-          final String packageName = mapEntry.getKey();
-          return PACKAGE_PREFIX + packageName + file.getPath().substring(dirPath.length());
-        }
+  private String getUrlIfFileFromDartPackagesLib(final @NotNull VirtualFile file) {
+    if (myPackageDirPathFromLibToNameMap.isEmpty()) return null;
+
+    final String path = file.getPath();
+    for (int slashIndex = path.lastIndexOf('/'); slashIndex > 0; slashIndex = path.lastIndexOf('/', slashIndex - 1)) {
+      final String packageName = myPackageDirPathFromLibToNameMap.get(path.substring(0, slashIndex));
+      if (packageName != null) {
+        return PACKAGE_PREFIX + packageName + path.substring(slashIndex);
       }
     }
     return null;
@@ -0,0 +1,78 @@
+// Copyright 2000-2018 JetBrains s.r.o.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.jetbrains.lang.dart.ide.completion;
+
+import com.intellij.testFramework.LightPlatformTestCase;
+import com.intellij.testFramework.LightVirtualFile;
+import org.dartlang.analysis.server.protocol.CompletionSuggestion;
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+
+public class DartPreviousCompletionTest extends LightPlatformTestCase {
+  private static final String TEXT = "main() { print(fo); }";
+  private static final int OFFSET = TEXT.indexOf("fo)") + 2;
+
+  private LightVirtualFile myFile;
+  private DartPreviousCompletion myPrevious;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFile = new LightVirtualFile("foo.dart", TEXT);
+    myPrevious = new DartPreviousCompletion(myFile, TEXT, OFFSET, OFFSET - 2, 2, Collections.emptyList());
+  }
+
+  @NotNull
+  private static String insert(@NotNull final String typed) {
+    return TEXT.substring(0, OFFSET) + typed + TEXT.substring(OFFSET);
+  }
+
+  public void testReusedWhilePrefixGrows() {
+    assertTrue(myPrevious.isKeptOnChange(myFile, OFFSET, 0, "o"));
+    assertTrue(myPrevious.isExtendedBy(myFile, insert("o"), OFFSET + 1));
+    assertTrue(myPrevious.isExtendedBy(myFile, insert("o_1"), OFFSET + 3));
+    assertTrue(myPrevious.isExtendedBy(myFile, TEXT, OFFSET));
+  }
+
+  public void testNotReusedAfterOtherChanges() {
+    assertFalse(myPrevious.isKeptOnChange(new LightVirtualFile("bar.dart", TEXT), OFFSET, 0, "o"));
+    assertFalse(myPrevious.isKeptOnChange(myFile, OFFSET, 0, "."));
+    assertFalse(myPrevious.isKeptOnChange(myFile, OFFSET - 1, 1, "x"));
+    assertFalse(myPrevious.isKeptOnChange(myFile, 0, 0, "x"));
+
+    assertFalse(myPrevious.isExtendedBy(myFile, insert("."), OFFSET + 1));
+    assertFalse(myPrevious.isExtendedBy(myFile, "x" + insert("o"), OFFSET + 2));
+    assertFalse(myPrevious.isExtendedBy(myFile, insert("o"), OFFSET));
+    assertFalse(myPrevious.isExtendedBy(new LightVirtualFile("bar.dart", insert("o")), insert("o"), OFFSET + 1));
+  }
+
+  @NotNull
+  private static CompletionSuggestion createSuggestion(@Nullable final String declaringType, @Nullable final String file) {
+    final Location location = file == null ? null : new Location(file, 0, 3, 1, 1);
+    final Element element = new Element("METHOD", "foo", location, 0, "()", "void", null);
+    return new CompletionSuggestion("INVOCATION", 1000, "foo", null, 3, 0, false, false, null, null, declaringType, null, null,
+                                    element, "void", null, null, null, null, null, null, null);
+  }
+
+  public void testSuggestionKey() {
+    final String key = DartServerCompletionContributor.getSuggestionKey(createSuggestion("A", "/a.dart"));
+    assertEquals(key, DartServerCompletionContributor.getSuggestionKey(createSuggestion("A", "/a.dart")));
+    assertFalse(key.equals(DartServerCompletionContributor.getSuggestionKey(createSuggestion("B", "/a.dart"))));
+    assertFalse(key.equals(DartServerCompletionContributor.getSuggestionKey(createSuggestion("A", "/b.dart"))));
+  }
+}
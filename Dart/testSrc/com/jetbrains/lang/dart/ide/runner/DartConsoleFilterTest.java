@@ -20,6 +20,7 @@ public class DartConsoleFilterTest extends TestCase {
                                      final int line,
                                      final int column) {
 
+    assertTrue(DartPositionInfo.mayContainPositionInfo(text));
     final DartPositionInfo info = DartPositionInfo.parsePositionInfo(text);
     assertNotNull(info);
     assertEquals(type, info.type);
@@ -86,6 +87,15 @@ public class DartConsoleFilterTest extends TestCase {
                    "foo.dart/bar.dart_baz.dart.more.dart", -1, -1);
   }
 
+  public void testMayContainPositionInfo() {
+    assertFalse(DartPositionInfo.mayContainPositionInfo(""));
+    assertFalse(DartPositionInfo.mayContainPositionInfo("00:01 +1: test passed"));
+    assertFalse(DartPositionInfo.mayContainPositionInfo("Observatory listening on http://127.0.0.1:8181"));
+    assertFalse(DartPositionInfo.mayContainPositionInfo("foo.dart 4:15"));
+    assertTrue(DartPositionInfo.mayContainPositionInfo(":file:"));
+    assertTrue(DartPositionInfo.mayContainPositionInfo("#0      main (package:foo/bar.dart:4:28)"));
+  }
+
   public void testRelativePathsConsoleFilter() {
     doNegativeRelativePathsFilterTest("");
     doNegativeRelativePathsFilterTest("foo.dart");
@@ -0,0 +1,145 @@
+package com.jetbrains.lang.dart.ide.runner.server.vmService;
+
+import com.google.gson.JsonObject;
+import junit.framework.TestCase;
+import org.dartlang.vm.service.consumer.GetObjectConsumer;
+import org.dartlang.vm.service.element.Obj;
+import org.dartlang.vm.service.element.RPCError;
+import org.dartlang.vm.service.element.Sentinel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class VmServiceObjectCacheTest extends TestCase {
+  private VmServiceObjectCache myCache;
+  private List<GetObjectConsumer> mySentRequests;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myCache = new VmServiceObjectCache();
+    mySentRequests = new ArrayList<>();
+  }
+
+  private ReceivedObjects getObject(@NotNull final String isolateId, @NotNull final String objectId) {
+    return getObject(isolateId, objectId, -1, -1);
+  }
+
+  private ReceivedObjects getObject(@NotNull final String isolateId, @NotNull final String objectId, final int offset, final int count) {
+    final ReceivedObjects consumer = new ReceivedObjects();
+    myCache.getObject(isolateId, objectId, offset, count, consumer, mySentRequests::add);
+    return consumer;
+  }
+
+  @NotNull
+  private static Obj createObj(@NotNull final String objectId) {
+    final JsonObject json = new JsonObject();
+    json.addProperty("id", objectId);
+    return new Obj(json);
+  }
+
+  public void testHitWithinPause() {
+    getObject("isolates/1", "objects/1");
+    assertEquals(1, mySentRequests.size());
+    final Obj obj = createObj("objects/1");
+    mySentRequests.get(0).received(obj);
+
+    final ReceivedObjects second = getObject("isolates/1", "objects/1");
+    assertEquals(1, mySentRequests.size());
+    assertSame(obj, second.myObj);
+    assertTrue(myCache.isCachedOrPending("isolates/1", "objects/1", -1, -1));
+  }
+
+  public void testPendingRequestShared() {
+    final ReceivedObjects first = getObject("isolates/1", "objects/1");
+    final ReceivedObjects second = getObject("isolates/1", "objects/1");
+    assertEquals(1, mySentRequests.size());
+    assertTrue(myCache.isCachedOrPending("isolates/1", "objects/1", -1, -1));
+
+    final Obj obj = createObj("objects/1");
+    mySentRequests.get(0).received(obj);
+    assertSame(obj, first.myObj);
+    assertSame(obj, second.myObj);
+  }
+
+  public void testCollectionPagesCachedSeparately() {
+    getObject("isolates/1", "objects/1", 0, 100);
+    getObject("isolates/1", "objects/1", 100, 100);
+    getObject("isolates/1", "objects/1");
+    assertEquals(3, mySentRequests.size());
+    assertTrue(myCache.isCachedOrPending("isolates/1", "objects/1", 100, 100));
+    assertFalse(myCache.isCachedOrPending("isolates/1", "objects/1", 200, 100));
+  }
+
+  public void testSentinelCached() {
+    getObject("isolates/1", "objects/1");
+    final Sentinel sentinel = new Sentinel(new JsonObject());
+    mySentRequests.get(0).received(sentinel);
+
+    final ReceivedObjects second = getObject("isolates/1", "objects/1");
+    assertEquals(1, mySentRequests.size());
+    assertSame(sentinel, second.mySentinel);
+  }
+
+  public void testErrorNotCached() {
+    final ReceivedObjects first = getObject("isolates/1", "objects/1");
+    final RPCError error = new RPCError(new JsonObject());
+    mySentRequests.get(0).onError(error);
+    assertSame(error, first.myError);
+    assertFalse(myCache.isCachedOrPending("isolates/1", "objects/1", -1, -1));
+
+    getObject("isolates/1", "objects/1");
+    assertEquals(2, mySentRequests.size());
+  }
+
+  // VmServiceWrapper invalidates the isolate's entries on resume and after an evaluation
+  public void testEvictionOnInvalidate() {
+    getObject("isolates/1", "objects/1");
+    getObject("isolates/1", "objects/2", 0, 100);
+    getObject("isolates/2", "objects/1");
+    for (GetObjectConsumer request : new ArrayList<>(mySentRequests)) {
+      request.received(createObj("objects/1"));
+    }
+    assertEquals(3, mySentRequests.size());
+
+    myCache.invalidate("isolates/1");
+    assertFalse(myCache.isCachedOrPending("isolates/1", "objects/1", -1, -1));
+    assertFalse(myCache.isCachedOrPending("isolates/1", "objects/2", 0, 100));
+    assertTrue(myCache.isCachedOrPending("isolates/2", "objects/1", -1, -1));
+
+    getObject("isolates/1", "objects/1");
+    assertEquals(4, mySentRequests.size());
+    getObject("isolates/2", "objects/1");
+    assertEquals(4, mySentRequests.size());
+  }
+
+  public void testInvalidateDoesNotMatchIsolatePrefix() {
+    getObject("isolates/1", "objects/1");
+    getObject("isolates/10", "objects/1");
+
+    myCache.invalidate("isolates/1");
+    assertTrue(myCache.isCachedOrPending("isolates/10", "objects/1", -1, -1));
+  }
+
+  private static class ReceivedObjects implements GetObjectConsumer {
+    private Obj myObj;
+    private Sentinel mySentinel;
+    private RPCError myError;
+
+    @Override
+    public void received(Obj response) {
+      myObj = response;
+    }
+
+    @Override
+    public void received(Sentinel response) {
+      mySentinel = response;
+    }
+
+    @Override
+    public void onError(RPCError error) {
+      myError = error;
+    }
+  }
+}
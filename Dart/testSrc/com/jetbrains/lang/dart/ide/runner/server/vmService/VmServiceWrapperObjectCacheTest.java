@@ -0,0 +1,144 @@
+package com.jetbrains.lang.dart.ide.runner.server.vmService;
+
+import com.google.gson.JsonObject;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.testFramework.LightPlatformTestCase;
+import com.intellij.xdebugger.evaluation.XDebuggerEvaluator;
+import com.intellij.xdebugger.frame.XValue;
+import org.dartlang.vm.service.VmService;
+import org.dartlang.vm.service.consumer.EvaluateConsumer;
+import org.dartlang.vm.service.consumer.GetObjectConsumer;
+import org.dartlang.vm.service.element.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VmServiceWrapperObjectCacheTest extends LightPlatformTestCase {
+  private static final String ISOLATE_ID = "isolates/1";
+  private static final String LIST_ID = "objects/1";
+
+  private final AtomicInteger myGetObjectRequests = new AtomicInteger();
+  private VmServiceWrapper myWrapper;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myWrapper = new VmServiceWrapper(new VmService() {
+      @Override
+      public void getObject(String isolateId, String objectId, Integer offset, Integer count, GetObjectConsumer consumer) {
+        myGetObjectRequests.incrementAndGet();
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", objectId);
+        consumer.received(new Obj(json));
+      }
+
+      @Override
+      public void evaluate(String isolateId, String targetId, String expression, EvaluateConsumer consumer) {
+        final JsonObject json = new JsonObject();
+        if ("toString()".equals(expression)) {
+          json.addProperty("kind", "String");
+          json.addProperty("valueAsString", "[1, 2, 3]");
+          consumer.received(new InstanceRef(json));
+        }
+        else {
+          json.addProperty("message", "evaluation failed");
+          consumer.received(new ErrorRef(json));
+        }
+      }
+    });
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      Disposer.dispose(myWrapper);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  private void getPage() throws Exception {
+    final CompletableFuture<Obj> result = new CompletableFuture<>();
+    myWrapper.getCollectionObject(ISOLATE_ID, LIST_ID, 0, 100, new GetObjectConsumer() {
+      @Override
+      public void received(Obj response) {
+        result.complete(response);
+      }
+
+      @Override
+      public void received(Sentinel response) {
+        result.completeExceptionally(new AssertionError("sentinel"));
+      }
+
+      @Override
+      public void onError(RPCError error) {
+        result.completeExceptionally(new AssertionError(error.getMessage()));
+      }
+    });
+    assertEquals(LIST_ID, result.get(5, TimeUnit.SECONDS).getId());
+  }
+
+  // the way DartVmServiceValue renders a node
+  private void evaluateForPresentation() throws Exception {
+    final CompletableFuture<String> result = new CompletableFuture<>();
+    myWrapper.evaluateForPresentation(ISOLATE_ID, LIST_ID, "toString()", new VmServiceConsumers.EvaluateConsumerWrapper() {
+      @Override
+      public void received(InstanceRef response) {
+        result.complete(response.getValueAsString());
+      }
+
+      @Override
+      public void noGoodResult() {
+        result.completeExceptionally(new AssertionError("no result"));
+      }
+    });
+    assertEquals("[1, 2, 3]", result.get(5, TimeUnit.SECONDS));
+  }
+
+  private void evaluateByUser() throws Exception {
+    final CompletableFuture<String> result = new CompletableFuture<>();
+    myWrapper.evaluateInTargetContext(ISOLATE_ID, LIST_ID, "length = 0", new XDebuggerEvaluator.XEvaluationCallback() {
+      @Override
+      public void evaluated(@NotNull XValue value) {
+        result.complete(null);
+      }
+
+      @Override
+      public void errorOccurred(@NotNull String errorMessage) {
+        result.complete(errorMessage);
+      }
+    });
+    assertNotNull(result.get(5, TimeUnit.SECONDS));
+  }
+
+  public void testCachedPagesSurviveNodeRendering() throws Exception {
+    getPage();
+    assertEquals(1, myGetObjectRequests.get());
+
+    evaluateForPresentation();
+    evaluateForPresentation();
+
+    getPage();
+    assertEquals("Cached page is expected to be reused after toString() evaluation", 1, myGetObjectRequests.get());
+  }
+
+  public void testUserEvaluationInvalidatesCache() throws Exception {
+    getPage();
+    assertEquals(1, myGetObjectRequests.get());
+
+    evaluateByUser();
+
+    getPage();
+    assertEquals("Page is expected to be requested again after an evaluation with possible side effects", 2, myGetObjectRequests.get());
+  }
+
+  public void testInvalidateObjectCache() throws Exception {
+    getPage();
+    myWrapper.invalidateObjectCache(ISOLATE_ID);
+    getPage();
+    assertEquals(2, myGetObjectRequests.get());
+  }
+}
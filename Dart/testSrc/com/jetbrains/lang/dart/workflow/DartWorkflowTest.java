@@ -7,11 +7,15 @@ import com.intellij.openapi.roots.ModifiableRootModel;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PlatformTestUtil;
 import com.jetbrains.lang.dart.DartCodeInsightFixtureTestCase;
 import com.jetbrains.lang.dart.DartProjectComponent;
 import com.jetbrains.lang.dart.util.DartTestUtils;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class DartWorkflowTest extends DartCodeInsightFixtureTestCase {
 
   public void testPackagesFolderExclusion() {
@@ -150,4 +154,45 @@ public class DartWorkflowTest extends DartCodeInsightFixtureTestCase {
     assertEquals(rootPath + "/pub/global/cache/SomePackage/lib/somepack.dart", file.getPath());
     assertEquals("package:SomePackage/somepack.dart", resolver.getDartUrlForFile(file));
   }
+
+  public void testDartUrlResolverCache() {
+    final VirtualFile pubspec = myFixture.addFileToProject("pubspec.yaml", "name: RootProject").getVirtualFile();
+    final VirtualFile libFile = myFixture.addFileToProject("lib/rootlib.dart", "").getVirtualFile();
+    final VirtualFile otherLibFile = myFixture.addFileToProject("other/lib/otherlib.dart", "").getVirtualFile();
+
+    final DartUrlResolver resolver = DartUrlResolver.getInstance(getProject(), pubspec);
+    assertSame(resolver, DartUrlResolver.getInstance(getProject(), libFile));
+    assertEquals("package:RootProject/rootlib.dart", resolver.getDartUrlForFile(libFile));
+
+    myFixture.saveText(myFixture.addFileToProject(".packages", "").getVirtualFile(), "OtherPackage:other/lib/");
+
+    final DartUrlResolver updatedResolver = DartUrlResolver.getInstance(getProject(), libFile);
+    assertNotSame(resolver, updatedResolver);
+    assertEquals("package:OtherPackage/otherlib.dart", updatedResolver.getDartUrlForFile(otherLibFile));
+  }
+
+  public void testDartUrlResolverPerformance() {
+    final int packagesCount = 300;
+    final StringBuilder dotPackages = new StringBuilder();
+    final List<VirtualFile> files = new ArrayList<>();
+    for (int i = 0; i < packagesCount; i++) {
+      dotPackages.append("package").append(i).append(":packages/package").append(i).append("/lib/\n");
+      files.add(myFixture.addFileToProject("packages/package" + i + "/lib/src/a/b/file" + i + ".dart", "").getVirtualFile());
+    }
+    final VirtualFile pubspec = myFixture.addFileToProject("pubspec.yaml", "name: RootProject").getVirtualFile();
+    myFixture.saveText(myFixture.addFileToProject(".packages", "").getVirtualFile(), dotPackages.toString());
+
+    PlatformTestUtil.startPerformanceTest("DartUrlResolver with " + packagesCount + " packages", 1_000, () -> {
+      for (int repeat = 0; repeat < 10; repeat++) {
+        for (int i = 0; i < packagesCount; i++) {
+          final VirtualFile file = files.get(i);
+          final DartUrlResolver resolver = DartUrlResolver.getInstance(getProject(), file);
+          assertEquals("package:package" + i + "/src/a/b/file" + i + ".dart", resolver.getDartUrlForFile(file));
+          assertEquals(file, resolver.findFileByDartUrl("package:package" + i + "/src/a/b/file" + i + ".dart"));
+        }
+      }
+    }).attempts(1).assertTiming();
+
+    assertSame(DartUrlResolver.getInstance(getProject(), pubspec), DartUrlResolver.getInstance(getProject(), files.get(0)));
+  }
 }
@@ -16,15 +16,55 @@
 
 package jetbrains.communicator.core.transport;
 
+import com.intellij.openapi.vfs.CharsetToolkit;
 import jetbrains.communicator.core.vfs.VFile;
+import org.apache.log4j.Logger;
 import org.jdom.Element;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
+ * Requests file contents from the peer.
+ * <p>
+ * The request tells the peer that a compressed response is accepted and which contents (by hash) we got
+ * for this file last time, so unchanged contents are not sent again. Peers not knowing these attributes
+ * just ignore them and send plain contents.
+ *
  * @author Kir
  */
 public class GetVFileContentsXmlMessage implements XmlMessage {
+  private static final Logger LOG = Logger.getLogger(GetVFileContentsXmlMessage.class);
+
   public static final String TAG = "fillContents";
+  /** Request attribute: the response may contain gzipped, base64 encoded contents */
+  public static final String ACCEPTS_COMPRESSED_ATTR = "acceptsCompressed";
+  /** Request attribute: hash of the contents the requester already has */
+  public static final String KNOWN_HASH_ATTR = "knownHash";
+  /** Response attribute: contents are gzipped and base64 encoded */
+  public static final String COMPRESSED_ATTR = "compressed";
+  /** Response attribute: contents match {@link #KNOWN_HASH_ATTR} and are not sent */
+  public static final String UNCHANGED_ATTR = "unchanged";
+
+  private static final int MAX_CACHED_FILES = 50;
+  private static final Map<String, String> ourReceivedContents = new LinkedHashMap<String, String>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > MAX_CACHED_FILES;
+    }
+  };
+
   private final VFile myFile;
+  private String myKnownContents;
 
   public GetVFileContentsXmlMessage(VFile file) {
     myFile = file;
@@ -48,13 +88,86 @@ public class GetVFileContentsXmlMessage implements XmlMessage {
   @Override
   public void fillRequest(Element element) {
     myFile.saveTo(element);
+    element.setAttribute(ACCEPTS_COMPRESSED_ATTR, "true");
+
+    myKnownContents = getReceivedContents(myFile);
+    if (myKnownContents != null) {
+      element.setAttribute(KNOWN_HASH_ATTR, hash(myKnownContents));
+    }
   }
 
   @Override
   public void processResponse(Element responseElement) {
+    if ("true".equals(responseElement.getAttributeValue(UNCHANGED_ATTR))) {
+      myFile.setContents(myKnownContents);
+      return;
+    }
+
     VFile from = VFile.createFrom(responseElement);
-    if (from != null) {
-      myFile.setContents(from.getContents());
+    if (from == null) return;
+
+    String contents = from.getContents();
+    if ("true".equals(responseElement.getAttributeValue(COMPRESSED_ATTR))) {
+      contents = decompress(responseElement.getText());
+    }
+    myFile.setContents(contents);
+    if (contents != null) {
+      synchronized (ourReceivedContents) {
+        ourReceivedContents.put(getCacheKey(myFile), contents);
+      }
+    }
+  }
+
+  @Nullable
+  private static String getReceivedContents(VFile file) {
+    synchronized (ourReceivedContents) {
+      return ourReceivedContents.get(getCacheKey(file));
+    }
+  }
+
+  private static String getCacheKey(VFile file) {
+    return file.getProjectName() + ':' + file.getFullPath() + ':' + file.getContentPath();
+  }
+
+  public static String hash(String contents) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(contents.getBytes(CharsetToolkit.UTF8_CHARSET));
+      StringBuilder result = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return result.toString();
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public static String compress(String contents) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(contents.length() / 3);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(contents.getBytes(CharsetToolkit.UTF8_CHARSET));
+    }
+    catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return Base64.getEncoder().encodeToString(bytes.toByteArray());
+  }
+
+  @Nullable
+  public static String decompress(String encoded) {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded.trim())))) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = gzip.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+      return new String(bytes.toByteArray(), CharsetToolkit.UTF8_CHARSET);
+    }
+    catch (IOException | IllegalArgumentException e) {
+      LOG.info("Unable to decode file contents", e);
+      return null;
     }
   }
 }
@@ -28,12 +28,16 @@ import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.Future;
 
 /**
+ * Keeps the message history in an append-only {@link UserHistoryLog} per user.
+ * Saving writes only the new messages, reading deserializes only the requested period.
+ *
  * @author Kir
  */
 class MessageHistory {
@@ -44,7 +48,8 @@ class MessageHistory {
   @NonNls
   private static final String HISTORY = "history";
 
-  private final DayHistory myHistory = new DayHistory();
+  private final Map<User, UserHistoryLog> myHistory = new HashMap<>();
+  private final Map<User, List<LocalMessage>> myUnsavedMessages = new LinkedHashMap<>();
   @NonNls
   private final XStream myXStream;
   private final UserModel myUserModel;
@@ -64,7 +69,7 @@ class MessageHistory {
     myXStream = XMLUtil.createXStream();
     setupXStream();
 
-    loadHistorySince(new Date());
+    importXmlHistory();
   }
 
   public synchronized void dispose() {
@@ -85,12 +90,21 @@ class MessageHistory {
   }
 
   public synchronized void addMessage(User user, LocalMessage message) {
-    myHistory.addMessage(user, message);
+    getUserHistory(user).addMessage(message);
+
+    List<LocalMessage> unsaved = myUnsavedMessages.get(user);
+    if (unsaved == null) {
+      unsaved = new ArrayList<>();
+      myUnsavedMessages.put(user, unsaved);
+    }
+    unsaved.add(message);
+
     triggerSave();
   }
 
   public synchronized void clear() {
     myHistory.clear();
+    myUnsavedMessages.clear();
 
     deleteAllHistoryFiles();
   }
@@ -109,15 +123,24 @@ class MessageHistory {
     return new File(myFacade.getCacheDir(), HISTORY);
   }
 
+  private UserHistoryLog getUserHistory(User user) {
+    UserHistoryLog userHistory = myHistory.get(user);
+    if (userHistory == null) {
+      userHistory = new UserHistoryLog(getHistoryDir(), user);
+      myHistory.put(user, userHistory);
+    }
+    return userHistory;
+  }
+
   public synchronized LocalMessage[] getHistory(User user, @Nullable Date since) {
-    loadHistorySince(since);
+    UserHistoryLog userHistory = getUserHistory(user);
+    userHistory.loadSince(since == null ? Long.MIN_VALUE : TimeUtil.getDay(since).getTime(), myXStream);
 
-    List<LocalMessage> list = filterHistoryByDate(user, since);
+    List<LocalMessage> list = filterHistoryByDate(userHistory.getMessages(), since);
     return list.toArray(new LocalMessage[0]);
   }
 
-  private List<LocalMessage> filterHistoryByDate(User user, Date since) {
-    List<LocalMessage> list = myHistory.readMessages(user);
+  private static List<LocalMessage> filterHistoryByDate(List<LocalMessage> list, Date since) {
     if (since != null) {
       List<LocalMessage> result = new ArrayList<>(list.size());
       for (LocalMessage message : list) {
@@ -130,37 +153,24 @@ class MessageHistory {
     return list;
   }
 
-  private void loadHistorySince(@Nullable Date since) {
-    if (since != null) {
-      since = TimeUtil.getDay(since);
-    }
-
-    if (!myHistory.hasHistorySince(since)) {
-      if (since == null) {
-        doLoadHistorySince(new Date(0));
-        myHistory.setHasFullHistory();
-      }
-      else {
-        doLoadHistorySince(since);
-      }
-    }
-  }
-
-  private void doLoadHistorySince(Date since) {
+  /**
+   * Moves history saved as one XML file per day by previous versions into the per user logs.
+   */
+  private void importXmlHistory() {
     File historyDir = getHistoryDir();
 
     String[] historyFiles = historyDir.list((dir, name) -> name.endsWith(".xml"));
+    if (historyFiles == null || historyFiles.length == 0) return;
 
+    LOG.info("Importing " + historyFiles.length + " XML history files");
     Arrays.sort(historyFiles);
-    for (int i = historyFiles.length - 1; i >= 0; i--) {
-      String historyFile = historyFiles[i];
+    DayHistory history = new DayHistory();
+    for (String historyFile : historyFiles) {
       try {
         Date date = DATE_FORMAT.parse(historyFile);
-        if (!date.before(since) && !myHistory.hasHistorySince(date)) {
-          DayHistory dayHistory = (DayHistory)XMLUtil.fromXml(myXStream, myFacade.getCacheDir(), getFileNameForDate(date), false);
-          if (dayHistory != null) {
-            dayHistory.copyTo(myHistory);
-          }
+        DayHistory dayHistory = (DayHistory)XMLUtil.fromXml(myXStream, myFacade.getCacheDir(), getFileNameForDate(date), false);
+        if (dayHistory != null) {
+          dayHistory.copyTo(history);
         }
       }
       catch (ParseException e) {
@@ -170,8 +180,25 @@ class MessageHistory {
         // ignore file of wrong format
       }
     }
+    history.resort();
 
-    myHistory.resort();
+    // messages written by an earlier interrupted import are skipped, so users already imported are not duplicated
+    boolean imported = true;
+    for (User user : history.keySet()) {
+      try {
+        UserHistoryLog userHistory = new UserHistoryLog(historyDir, user);
+        userHistory.append(userHistory.filterNotPersisted(history.get(user), myXStream), myXStream);
+      }
+      catch (IOException e) {
+        LOG.error("Unable to import history for " + user + ", XML history is kept to import it on next start", e);
+        imported = false;
+      }
+    }
+    if (!imported) return;
+
+    for (String historyFile : historyFiles) {
+      new File(historyDir, historyFile).delete();
+    }
   }
 
   private void triggerSave() {
@@ -192,44 +219,23 @@ class MessageHistory {
 
   private synchronized void saveHistory() {
     LOG.debug("Start history save");
-    Map<Date, DayHistory> map = getHistory();
-    for (Date date : map.keySet()) {
-      DayHistory dayHistory = map.get(date);
+    // messages which failed to save are kept and written on the next save
+    for (Iterator<Map.Entry<User, List<LocalMessage>>> it = myUnsavedMessages.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<User, List<LocalMessage>> entry = it.next();
+      User user = entry.getKey();
       try {
-        XMLUtil.toXml(myXStream, myFacade.getCacheDir(), getFileNameForDate(date), dayHistory);
+        getUserHistory(user).append(entry.getValue(), myXStream);
+        it.remove();
+      } catch (IOException e) {
+        LOG.error("Unable to save history for " + user + ": " + entry.getValue(), e);
       } catch (RuntimeException e) {
-        LOG.error("Unable to save dayHistory for " + date + ": " + dayHistory, e);
+        LOG.error("Unable to save history for " + user + ": " + entry.getValue(), e);
       }
     }
 
     LOG.debug("Done history save");
   }
 
-  private synchronized Map<Date, DayHistory> getHistory() {
-    Map<Date, DayHistory> result = new HashMap<>();
-
-    for (User user : myHistory.keySet()) {
-      List<LocalMessage> messages = myHistory.get(user);
-      for (LocalMessage message : messages) {
-        DayHistory dayHistory = getDayHistoryFor(message, result);
-
-        dayHistory.addMessage(user, message);
-      }
-    }
-
-    return result;
-  }
-
-  private DayHistory getDayHistoryFor(LocalMessage message, Map<Date, DayHistory> result) {
-    Date day = TimeUtil.getDay(message.getWhen());
-    DayHistory dayHistory = result.get(day);
-    if (dayHistory == null) {
-      dayHistory = new DayHistory();
-      result.put(day, dayHistory);
-    }
-    return dayHistory;
-  }
-
   @NonNls
   private String getFileNameForDate(Date date) {
     //noinspection HardCodedStringLiteral
@@ -0,0 +1,177 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package jetbrains.communicator.core.impl.dispatcher;
+
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.thoughtworks.xstream.XStream;
+import jetbrains.communicator.core.dispatcher.LocalMessage;
+import jetbrains.communicator.core.users.User;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NonNls;
+
+import java.io.*;
+import java.net.URLEncoder;
+import java.util.*;
+
+/**
+ * History of messages with one user, stored in two append-only files:
+ * <ul>
+ * <li>{@code <user>.log} - records of {@code [int length][message XML]}</li>
+ * <li>{@code <user>.idx} - records of {@code [long when][long log offset][int hash of message XML]}, one per message</li>
+ * </ul>
+ * Only the small index is read upfront, messages are deserialized on demand for the requested period.
+ */
+class UserHistoryLog {
+  @NonNls
+  private static final Logger LOG = Logger.getLogger(UserHistoryLog.class);
+
+  @NonNls static final String LOG_EXTENSION = ".log";
+  @NonNls static final String INDEX_EXTENSION = ".idx";
+  private static final int INDEX_RECORD_SIZE = 20;
+
+  private final File myLogFile;
+  private final File myIndexFile;
+
+  // messages persisted before this log was opened, these are the only ones to be read from disk
+  private final long[] myPersistedWhens;
+  private final long[] myPersistedOffsets;
+  private final int[] myPersistedHashes;
+  private final List<LocalMessage> myMessages = new ArrayList<>();
+  private long myLoadedSince = Long.MAX_VALUE;
+
+  UserHistoryLog(File historyDir, User user) {
+    String fileName = getFileName(user);
+    myLogFile = new File(historyDir, fileName + LOG_EXTENSION);
+    myIndexFile = new File(historyDir, fileName + INDEX_EXTENSION);
+
+    // trailing partial record of an interrupted write is ignored
+    int count = (int)(myIndexFile.length() / INDEX_RECORD_SIZE);
+    long[] whens = new long[count];
+    long[] offsets = new long[count];
+    int[] hashes = new int[count];
+    if (count > 0) {
+      try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(myIndexFile)))) {
+        for (int i = 0; i < count; i++) {
+          whens[i] = input.readLong();
+          offsets[i] = input.readLong();
+          hashes[i] = input.readInt();
+        }
+      }
+      catch (IOException e) {
+        LOG.info("Unable to read history index " + myIndexFile, e);
+        whens = offsets = new long[0];
+        hashes = new int[0];
+      }
+    }
+    myPersistedWhens = whens;
+    myPersistedOffsets = offsets;
+    myPersistedHashes = hashes;
+  }
+
+  @NonNls
+  private static String getFileName(User user) {
+    try {
+      return URLEncoder.encode(user.getTransportCode() + ':' + user.getName(), CharsetToolkit.UTF8);
+    }
+    catch (UnsupportedEncodingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Oldest messages go first, contains only the messages loaded so far */
+  List<LocalMessage> getMessages() {
+    return Collections.unmodifiableList(myMessages);
+  }
+
+  void addMessage(LocalMessage message) {
+    myMessages.add(message);
+  }
+
+  /**
+   * Reads persisted messages not older than the given day.
+   *
+   * @param sinceDay start of the day, {@code Long.MIN_VALUE} for the whole history
+   */
+  void loadSince(long sinceDay, XStream xStream) {
+    if (sinceDay >= myLoadedSince) return;
+
+    List<LocalMessage> loaded = new ArrayList<>();
+    try (RandomAccessFile log = new RandomAccessFile(myLogFile, "r")) {
+      for (int i = 0; i < myPersistedWhens.length; i++) {
+        long when = myPersistedWhens[i];
+        if (when < sinceDay || when >= myLoadedSince) continue;
+
+        log.seek(myPersistedOffsets[i]);
+        byte[] data = new byte[log.readInt()];
+        log.readFully(data);
+        try {
+          loaded.add((LocalMessage)xStream.fromXML(new String(data, CharsetToolkit.UTF8_CHARSET)));
+        }
+        catch (RuntimeException e) {
+          LOG.info("Skipping broken history record in " + myLogFile, e);
+        }
+      }
+    }
+    catch (FileNotFoundException ignored) {
+      // no history yet
+    }
+    catch (IOException e) {
+      LOG.info("Unable to read history " + myLogFile, e);
+    }
+
+    myLoadedSince = sinceDay;
+    if (!loaded.isEmpty()) {
+      myMessages.addAll(loaded);
+      Collections.sort(myMessages, (o1, o2) -> o1.getWhen().compareTo(o2.getWhen()));
+    }
+  }
+
+  /**
+   * Drops the messages already written to the log, so that an interrupted import can be repeated.
+   * A message matches a written one by time and by its XML, which contains the user, the type and the text of the message.
+   */
+  List<LocalMessage> filterNotPersisted(List<LocalMessage> messages, XStream xStream) {
+    if (myPersistedWhens.length == 0) return messages;
+
+    Set<String> persisted = new HashSet<>(myPersistedWhens.length);
+    for (int i = 0; i < myPersistedWhens.length; i++) {
+      persisted.add(getMessageKey(myPersistedWhens[i], myPersistedHashes[i]));
+    }
+
+    List<LocalMessage> result = new ArrayList<>(messages.size());
+    for (LocalMessage message : messages) {
+      if (!persisted.contains(getMessageKey(message.getWhen().getTime(), xStream.toXML(message).hashCode()))) {
+        result.add(message);
+      }
+    }
+    return result;
+  }
+
+  private static String getMessageKey(long when, int xmlHash) {
+    return when + ":" + xmlHash;
+  }
+
+  /** Appends the given messages to the log, does not touch already written data */
+  void append(List<LocalMessage> messages, XStream xStream) throws IOException {
+    long offset = myLogFile.length();
+    ByteArrayOutputStream indexData = new ByteArrayOutputStream(messages.size() * INDEX_RECORD_SIZE);
+    DataOutputStream index = new DataOutputStream(indexData);
+    try (DataOutputStream log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(myLogFile, true)))) {
+      for (LocalMessage message : messages) {
+        String xml = xStream.toXML(message);
+        byte[] data = xml.getBytes(CharsetToolkit.UTF8_CHARSET);
+        log.writeInt(data.length);
+        log.write(data);
+
+        index.writeLong(message.getWhen().getTime());
+        index.writeLong(offset);
+        index.writeInt(xml.hashCode());
+        offset += 4 + data.length;
+      }
+    }
+
+    // written after the log data, so the index never points past the end of the log
+    try (OutputStream indexStream = new FileOutputStream(myIndexFile, true)) {
+      indexData.writeTo(indexStream);
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.jdom.Element;
  * @author Kir
  */
 public class GetVFileContentsProvider extends FileAccessProvider {
+  private static final int MIN_COMPRESSED_LENGTH = 1024;
 
   public GetVFileContentsProvider(IDEFacade ideFacade, UserModel userModel) {
     super(ideFacade, userModel);
@@ -39,6 +40,28 @@ public class GetVFileContentsProvider extends FileAccessProvider {
   protected void doProcess(Element request, Element response) {
     VFile from = VFile.createFrom(request);
     myIdeFacade.fillFileContents(from);
-    from.saveTo(response);
+
+    String contents = from.getContents();
+    if (contents == null) {
+      from.saveTo(response);
+      return;
+    }
+
+    String knownHash = request.getAttributeValue(GetVFileContentsXmlMessage.KNOWN_HASH_ATTR);
+    if (knownHash != null && knownHash.equals(GetVFileContentsXmlMessage.hash(contents))) {
+      from.setContents(null);
+      from.saveTo(response);
+      response.setAttribute(GetVFileContentsXmlMessage.UNCHANGED_ATTR, "true");
+    }
+    else if ("true".equals(request.getAttributeValue(GetVFileContentsXmlMessage.ACCEPTS_COMPRESSED_ATTR)) &&
+             contents.length() > MIN_COMPRESSED_LENGTH) {
+      from.setContents(null);
+      from.saveTo(response);
+      response.setAttribute(GetVFileContentsXmlMessage.COMPRESSED_ATTR, "true");
+      response.setText(GetVFileContentsXmlMessage.compress(contents));
+    }
+    else {
+      from.saveTo(response);
+    }
   }
 }
@@ -15,17 +15,25 @@
  */
 package jetbrains.communicator.p2p;
 
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.Time;
 import jetbrains.communicator.core.Pico;
 import jetbrains.communicator.util.TimeoutCachedValue;
 import jetbrains.communicator.util.XmlRpcTarget;
 import org.apache.log4j.Logger;
 import org.apache.xmlrpc.XmlRpcClient;
 import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcTransport;
+import org.apache.xmlrpc.XmlRpcTransportFactory;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Kir
@@ -59,6 +67,9 @@ public class NetworkUtil {
     }
   };
 
+  // one client per peer URL, its connections are kept alive by KeepAliveTransport
+  private static final Map<String, XmlRpcClient> ourClients = new ConcurrentHashMap<>();
+
   private NetworkUtil() {
   }
 
@@ -86,7 +97,7 @@ public class NetworkUtil {
     }
 
     try {
-      return new XmlRpcClient(url).execute(fullMethodName, new Vector<>(parameters));
+      return getClient(url).execute(fullMethodName, new Vector<>(parameters));
     }
     catch (MalformedURLException e) {
       LOG.info(buildFullLogLine(logLine, parameters) + ' ' + e.getLocalizedMessage());
@@ -100,6 +111,14 @@ public class NetworkUtil {
     return null;
   }
 
+  private static XmlRpcClient getClient(String url) throws MalformedURLException {
+    XmlRpcClient client = ourClients.get(url);
+    if (client != null) return client;
+
+    URL parsedUrl = new URL(url);
+    return ourClients.computeIfAbsent(url, key -> new XmlRpcClient(parsedUrl, new KeepAliveTransportFactory(parsedUrl)));
+  }
+
   private static String buildFullLogLine(String logLine, List<?> parameters) {
     return logLine + '(' + parameters + ')';
   }
@@ -113,4 +132,73 @@ public class NetworkUtil {
   public static boolean isOwnAddress(@Nullable InetAddress address) {
     return address != null && (address.isLoopbackAddress() || getSelfAddresses().contains(address));
   }
+
+  private static class KeepAliveTransportFactory implements XmlRpcTransportFactory {
+    private final URL myUrl;
+
+    private KeepAliveTransportFactory(URL url) {
+      myUrl = url;
+    }
+
+    @Override
+    public XmlRpcTransport createTransport() {
+      return new KeepAliveTransport(myUrl);
+    }
+
+    @Override
+    public void setProperty(String propertyName, Object value) {
+    }
+  }
+
+  /**
+   * The default transport of XmlRpcClient leaves the response stream open, so its HTTP connection cannot be reused.
+   * This one reads the whole response and closes the stream, then the JDK keeps the connection to the peer alive for the next call.
+   */
+  private static class KeepAliveTransport implements XmlRpcTransport {
+    // an unreachable or hung peer must not block the calling thread; same as sun.net.client.defaultConnectTimeout set by MulticastPingThread
+    private static final int CONNECT_TIMEOUT = 2 * Time.SECOND;
+    // enough to transfer file contents
+    private static final int READ_TIMEOUT = Time.MINUTE;
+
+    private final URL myUrl;
+
+    private KeepAliveTransport(URL url) {
+      myUrl = url;
+    }
+
+    @Override
+    public InputStream sendXmlRpc(byte[] request) throws IOException {
+      HttpURLConnection connection = (HttpURLConnection)myUrl.openConnection();
+      connection.setConnectTimeout(CONNECT_TIMEOUT);
+      connection.setReadTimeout(READ_TIMEOUT);
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setUseCaches(false);
+      connection.setRequestProperty("Content-Type", "text/xml");
+      connection.setFixedLengthStreamingMode(request.length);
+      try (OutputStream output = connection.getOutputStream()) {
+        output.write(request);
+      }
+
+      try (InputStream input = connection.getInputStream()) {
+        return new ByteArrayInputStream(FileUtil.loadBytes(input));
+      }
+      catch (IOException e) {
+        // an error response has to be read too, otherwise the connection is closed
+        InputStream errorStream = connection.getErrorStream();
+        if (errorStream != null) {
+          try (InputStream input = errorStream) {
+            FileUtil.loadBytes(input);
+          }
+          catch (IOException ignored) {
+          }
+        }
+        throw e;
+      }
+    }
+
+    @Override
+    public void endClientRequest() {
+    }
+  }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@
  */
 package jetbrains.communicator.core.impl.dispatcher;
 
+import com.thoughtworks.xstream.XStream;
 import jetbrains.communicator.core.dispatcher.LocalMessage;
 import jetbrains.communicator.core.dispatcher.Message;
 import jetbrains.communicator.core.impl.BaseTestCase;
@@ -27,10 +28,14 @@ import jetbrains.communicator.mock.MockIDEFacade;
 import jetbrains.communicator.mock.MockMessage;
 import jetbrains.communicator.mock.MockTransport;
 import jetbrains.communicator.util.WatchDog;
+import jetbrains.communicator.util.XMLUtil;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
 import java.io.File;
+import java.net.URLEncoder;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 
 /**
@@ -252,6 +257,95 @@ public class LocalMessageDispatcherTest extends BaseTestCase {
     assertEquals(2, messages.length);
   }
 
+  public void testHistoryImportFromXml() throws Exception {
+    XStream xStream = XMLUtil.createXStream();
+    xStream.alias("user", UserImpl.class);
+    xStream.alias("dayHistory", DayHistory.class);
+    xStream.aliasField("historyEntries", DayHistory.class, "myData");
+    xStream.registerConverter(new UserConverter(myUserModel));
+
+    DayHistory dayHistory = new DayHistory();
+    dayHistory.addMessage(myUser, new MockMessage(yesterday(), "old text"));
+    XMLUtil.toXml(xStream, myIdeFacade.getCacheDir(),
+                  "history/" + new SimpleDateFormat("yyyy-MM-dd").format(yesterday()) + ".xml", dayHistory);
+
+    LocalMessageDispatcherImpl localMessageDispatcher = createLocalMessageDispatcher();
+    LocalMessage[] messages = localMessageDispatcher.getHistory(myUser, null);
+    assertEquals(1, messages.length);
+    assertEquals("old text", ((MockMessage) messages[0]).getMessage());
+    assertEquals("XML file should be replaced with log and index", 2,
+                 new File(myIdeFacade.getCacheDir(), "history").listFiles().length);
+  }
+
+  public void testHistoryImportFromXml_RepeatInterruptedImport() throws Exception {
+    XStream xStream = XMLUtil.createXStream();
+    xStream.alias("user", UserImpl.class);
+    xStream.alias("dayHistory", DayHistory.class);
+    xStream.aliasField("historyEntries", DayHistory.class, "myData");
+    xStream.registerConverter(new UserConverter(myUserModel));
+
+    Date when = yesterday();
+    DayHistory dayHistory = new DayHistory();
+    dayHistory.addMessage(myUser, new MockMessage(when, "old text"));
+    dayHistory.addMessage(myUser, new MockMessage(new Date(when.getTime() + 1000), "old text 2"));
+    XMLUtil.toXml(xStream, myIdeFacade.getCacheDir(),
+                  "history/" + new SimpleDateFormat("yyyy-MM-dd").format(when) + ".xml", dayHistory);
+
+    // the first message was imported before the import was interrupted
+    File historyDir = new File(myIdeFacade.getCacheDir(), "history");
+    new UserHistoryLog(historyDir, myUser).append(Collections.singletonList(new MockMessage(when, "old text")), xStream);
+
+    LocalMessageDispatcherImpl localMessageDispatcher = createLocalMessageDispatcher();
+    LocalMessage[] messages = localMessageDispatcher.getHistory(myUser, null);
+    assertEquals(2, messages.length);
+    assertEquals("old text", ((MockMessage) messages[0]).getMessage());
+    assertEquals("old text 2", ((MockMessage) messages[1]).getMessage());
+    assertEquals("XML file should be replaced with log and index", 2, historyDir.listFiles().length);
+  }
+
+  public void testHistoryImportFromXml_RepeatInterruptedImport_SameTime() throws Exception {
+    XStream xStream = XMLUtil.createXStream();
+    xStream.alias("user", UserImpl.class);
+    xStream.alias("dayHistory", DayHistory.class);
+    xStream.aliasField("historyEntries", DayHistory.class, "myData");
+    xStream.registerConverter(new UserConverter(myUserModel));
+
+    Date when = yesterday();
+    DayHistory dayHistory = new DayHistory();
+    dayHistory.addMessage(myUser, new MockMessage(when, "old text"));
+    dayHistory.addMessage(myUser, new MockMessage(when, "old text 2"));
+    XMLUtil.toXml(xStream, myIdeFacade.getCacheDir(),
+                  "history/" + new SimpleDateFormat("yyyy-MM-dd").format(when) + ".xml", dayHistory);
+
+    // only the first of the messages sent at the same time was imported before the import was interrupted
+    File historyDir = new File(myIdeFacade.getCacheDir(), "history");
+    new UserHistoryLog(historyDir, myUser).append(Collections.singletonList(new MockMessage(when, "old text")), xStream);
+
+    LocalMessageDispatcherImpl localMessageDispatcher = createLocalMessageDispatcher();
+    LocalMessage[] messages = localMessageDispatcher.getHistory(myUser, null);
+    assertEquals("Message with the same time but another text should be imported", 2, messages.length);
+  }
+
+  public void testHistoryPersistence_RetryFailedSave() throws Exception {
+    // a directory in place of the log makes the first save fail
+    File logFile = new File(new File(myIdeFacade.getCacheDir(), "history"),
+                            URLEncoder.encode(MockTransport.NAME + ":user", "UTF-8") + UserHistoryLog.LOG_EXTENSION);
+    assertTrue(logFile.mkdirs());
+
+    myDispatcher.sendNow(myUser, new MockMessage(new Date(), "first"));
+    Thread.sleep(SAVE_WAIT_TIMEOUT);
+
+    assertTrue(logFile.delete());
+    myDispatcher.sendNow(myUser, new MockMessage(new Date(), "second"));
+    Thread.sleep(SAVE_WAIT_TIMEOUT);
+
+    LocalMessageDispatcherImpl localMessageDispatcher = createLocalMessageDispatcher();
+    LocalMessage[] messages = localMessageDispatcher.getHistory(myUser, null);
+    assertEquals("Message which failed to save should be saved with the next one", 2, messages.length);
+    assertEquals("first", ((MockMessage) messages[0]).getMessage());
+    assertEquals("second", ((MockMessage) messages[1]).getMessage());
+  }
+
   private Date yesterday() {
     return new Date(System.currentTimeMillis() - 1000 * 3600 * 24);
   }
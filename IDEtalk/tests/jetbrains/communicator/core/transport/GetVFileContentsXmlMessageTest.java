@@ -0,0 +1,57 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package jetbrains.communicator.core.transport;
+
+import jetbrains.communicator.core.vfs.VFile;
+import junit.framework.TestCase;
+import org.jdom.Element;
+
+public class GetVFileContentsXmlMessageTest extends TestCase {
+
+  public void testCompressRoundTrip() {
+    String contents = "some text \u0447\u0442\u043e-\u0442\u043e \u0442\u0430\u043a\u043e\u0435\n";
+    assertEquals(contents, GetVFileContentsXmlMessage.decompress(GetVFileContentsXmlMessage.compress(contents)));
+  }
+
+  public void testCompressedResponse() {
+    VFile requested = VFile.create("foo/compressed");
+    GetVFileContentsXmlMessage message = new GetVFileContentsXmlMessage(requested);
+
+    Element request = new Element("request");
+    message.fillRequest(request);
+    assertEquals("true", request.getAttributeValue(GetVFileContentsXmlMessage.ACCEPTS_COMPRESSED_ATTR));
+    assertNull("Nothing received yet", request.getAttributeValue(GetVFileContentsXmlMessage.KNOWN_HASH_ATTR));
+
+    Element response = new Element("response");
+    VFile.create("foo/compressed").saveTo(response);
+    response.setAttribute(GetVFileContentsXmlMessage.COMPRESSED_ATTR, "true");
+    response.setText(GetVFileContentsXmlMessage.compress("contents"));
+    message.processResponse(response);
+
+    assertEquals("contents", requested.getContents());
+  }
+
+  public void testUnchangedContentsNotResent() {
+    VFile requested = VFile.create("foo/unchanged");
+    GetVFileContentsXmlMessage message = new GetVFileContentsXmlMessage(requested);
+    message.fillRequest(new Element("request"));
+
+    Element response = new Element("response");
+    VFile sent = VFile.create("foo/unchanged");
+    sent.setContents("contents");
+    sent.saveTo(response);
+    message.processResponse(response);
+
+    VFile requestedAgain = VFile.create("foo/unchanged");
+    message = new GetVFileContentsXmlMessage(requestedAgain);
+    Element request = new Element("request");
+    message.fillRequest(request);
+    assertEquals(GetVFileContentsXmlMessage.hash("contents"), request.getAttributeValue(GetVFileContentsXmlMessage.KNOWN_HASH_ATTR));
+
+    response = new Element("response");
+    VFile.create("foo/unchanged").saveTo(response);
+    response.setAttribute(GetVFileContentsXmlMessage.UNCHANGED_ATTR, "true");
+    message.processResponse(response);
+
+    assertEquals("contents", requestedAgain.getContents());
+  }
+}
@@ -4,6 +4,7 @@ import com.google.jstestdriver.*;
 import com.google.jstestdriver.hooks.TestListener;
 import com.google.jstestdriver.idea.rt.execution.TestPath;
 import com.google.jstestdriver.idea.rt.execution.TestPathFactory;
+import com.google.jstestdriver.idea.rt.execution.tree.ConfigNode;
 import com.google.jstestdriver.idea.rt.execution.tree.TreeManager;
 import com.google.jstestdriver.idea.rt.util.TestFileScope;
 import org.jetbrains.annotations.NotNull;
@@ -21,21 +22,30 @@ public class IdeaTestListener implements TestListener {
   private static final String PREFIX = "/test/";
 
   private final TreeManager myTreeManager;
+  private final ConfigNode myConfigNode;
   private final File myBasePath;
   private final Object MONITOR = new Object();
   private final boolean myDryRun;
+  private final boolean mySinglePass;
   private final TestFileScope myTestFileScope;
   private final TestPathFactory myTestPathFactory;
   private final Set<FileLoadError> myDryRunErrors = new HashSet<>();
 
+  /**
+   * @param singlePass no dry run precedes this run, so file load errors are reported right away
+   */
   public IdeaTestListener(@NotNull TreeManager treeManager,
+                          @NotNull ConfigNode configNode,
                           @NotNull File jstdConfigFile,
                           @NotNull File singleBasePath,
                           boolean dryRun,
+                          boolean singlePass,
                           @NotNull TestFileScope testFileScope) {
     myTreeManager = treeManager;
+    myConfigNode = configNode;
     myBasePath = singleBasePath;
     myDryRun = dryRun;
+    mySinglePass = singlePass;
     myTestFileScope = testFileScope;
     myTestPathFactory = new TestPathFactory(jstdConfigFile);
   }
@@ -54,11 +64,14 @@ public class IdeaTestListener implements TestListener {
         myDryRunErrors.add(error);
         reportError = true;
       }
+      else if (mySinglePass) {
+        reportError = myDryRunErrors.add(error);
+      }
       else {
         reportError = myDryRunErrors.contains(error);
       }
       if (reportError) {
-        myTreeManager.onFileLoadError(browserInfo.toString(), jsFilePath, fileResult.getMessage());
+        myTreeManager.onFileLoadError(myConfigNode, browserInfo.toString(), jsFilePath, fileResult.getMessage());
       }
     }
   }
@@ -81,7 +94,7 @@ public class IdeaTestListener implements TestListener {
           testCase.getName(),
           testName
         );
-        myTreeManager.onTestRegistered(testPath);
+        myTreeManager.onTestRegistered(myConfigNode, testPath);
       }
     }
   }
@@ -90,7 +103,7 @@ public class IdeaTestListener implements TestListener {
   public void onTestComplete(TestResult testResult) {
     synchronized (MONITOR) {
       TestPath testPath = myTestPathFactory.createTestPath(testResult);
-      myTreeManager.onTestCompleted(testPath, testResult);
+      myTreeManager.onTestCompleted(myConfigNode, testPath, testResult);
     }
   }
 
@@ -25,6 +25,7 @@ public class JstdSettings {
   private final File myIdeCoverageFile;
   private final ImmutableList<String> myFilesExcludedFromCoverage;
   private final boolean myDebug;
+  private final boolean mySinglePass;
 
   public JstdSettings(@NotNull String serverUrl,
                       @NotNull List<File> configFiles,
@@ -32,7 +33,8 @@ public class JstdSettings {
                       @NotNull TestFileScope testFileScope,
                       @Nullable File ideCoverageFile,
                       @NotNull List<String> filesExcludedFromCoverage,
-                      boolean debug)
+                      boolean debug,
+                      boolean singlePass)
   {
     myServerUrl = serverUrl;
     myConfigFiles = configFiles;
@@ -41,6 +43,7 @@ public class JstdSettings {
     myIdeCoverageFile = ideCoverageFile;
     myFilesExcludedFromCoverage = ImmutableList.copyOf(filesExcludedFromCoverage);
     myDebug = debug;
+    mySinglePass = singlePass;
   }
 
   @NotNull
@@ -100,6 +103,13 @@ public class JstdSettings {
     return myDebug;
   }
 
+  /**
+   * @return true if tests are discovered while they run, instead of a separate dry run before the actual run
+   */
+  public boolean isSinglePass() {
+    return mySinglePass;
+  }
+
   @NotNull
   public static JstdSettings build(@NotNull Map<TestRunner.ParameterKey, String> parameters) {
     String serverUrl = parameters.get(TestRunner.ParameterKey.SERVER_URL);
@@ -145,6 +155,7 @@ public class JstdSettings {
       excludedPaths = EscapeUtils.split(joinedPaths, ',');
     }
     boolean debug = Boolean.TRUE.toString().equals(parameters.get(TestRunner.ParameterKey.DEBUG));
+    boolean singlePass = Boolean.TRUE.toString().equals(parameters.get(TestRunner.ParameterKey.SINGLE_PASS));
     return new JstdSettings(
       serverUrl,
       configFiles,
@@ -152,7 +163,8 @@ public class JstdSettings {
       testFileScope,
       ideCoverageFile,
       excludedPaths,
-      debug
+      debug,
+      singlePass
     );
   }
 
@@ -30,6 +30,7 @@ import com.google.jstestdriver.hooks.PluginInitializer;
 import com.google.jstestdriver.hooks.ResourcePreProcessor;
 import com.google.jstestdriver.hooks.TestListener;
 import com.google.jstestdriver.idea.rt.coverage.CoverageSession;
+import com.google.jstestdriver.idea.rt.execution.tree.ConfigNode;
 import com.google.jstestdriver.idea.rt.execution.tree.TreeManager;
 import com.google.jstestdriver.idea.rt.util.EscapeUtils;
 import com.google.jstestdriver.idea.rt.util.JstdConfigParsingUtils;
@@ -42,6 +43,11 @@ import org.joda.time.DateTime;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Main class of JsTestDriver test runner, that runs tests in a separate process and streams messages
@@ -60,9 +66,12 @@ public class TestRunner {
     TESTS,
     COVERAGE_OUTPUT_FILE,
     COVERAGE_EXCLUDED_PATHS,
-    DEBUG
+    DEBUG,
+    SINGLE_PASS
   }
 
+  private static final int MAX_PARALLEL_CONFIGS = 4;
+
   private final JstdSettings mySettings;
   private final TreeManager myTreeManager;
   private final CoverageSession myCoverageSession;
@@ -79,21 +88,95 @@ public class TestRunner {
   }
 
   public void executeAll() {
-    for (File config : mySettings.getConfigFiles()) {
-      executeTests(config);
+    PrintStream nullSystemOut = new PrintStream(new NullOutputStream());
+    try {
+      System.setOut(nullSystemOut);
+      List<File> configFiles = mySettings.getConfigFiles();
+      if (isParallelRunAllowed(configFiles)) {
+        executeInParallel(configFiles);
+      }
+      else {
+        for (File config : configFiles) {
+          executeTests(config);
+        }
+      }
+    }
+    finally {
+      nullSystemOut.close();
+      System.setOut(myTreeManager.getSystemOutStream());
+    }
+  }
+
+  /**
+   * Config files are independent and the server dispatches their runs to the captured browsers,
+   * unless the coverage is collected into one file or a debugger is attached.
+   */
+  private boolean isParallelRunAllowed(@NotNull List<File> configFiles) {
+    return configFiles.size() > 1 && mySettings.isSinglePass() && myCoverageSession == null && !mySettings.isDebug();
+  }
+
+  private void executeInParallel(@NotNull List<File> configFiles) {
+    List<Runnable> tasks = Lists.newArrayList();
+    for (File config : configFiles) {
+      tasks.add(() -> executeTests(config));
+    }
+    runInParallel(tasks, MAX_PARALLEL_CONFIGS);
+  }
+
+  /**
+   * Runs the tasks on at most {@code maxThreads} threads and waits for all of them.
+   * The first task failure is rethrown to the caller, the failures of the other tasks are added to it as suppressed.
+   */
+  static void runInParallel(@NotNull List<Runnable> tasks, int maxThreads) {
+    if (tasks.isEmpty()) {
+      return;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks.size(), maxThreads));
+    try {
+      List<Callable<Object>> callables = Lists.newArrayList();
+      for (Runnable task : tasks) {
+        callables.add(Executors.callable(task));
+      }
+      RuntimeException failure = null;
+      for (Future<Object> future : executor.invokeAll(callables)) {
+        try {
+          future.get();
+        }
+        catch (ExecutionException e) {
+          if (failure == null) {
+            failure = new RuntimeException("Can't run tests.", e.getCause());
+          }
+          else {
+            failure.addSuppressed(e.getCause());
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      executor.shutdownNow();
     }
   }
 
   private void executeTests(@NotNull File config) {
     Exception exception = null;
-    PrintStream nullSystemOut = new PrintStream(new NullOutputStream());
+    ConfigNode configNode = myTreeManager.onJstdConfigRunningStarted(config);
     try {
-      System.setOut(nullSystemOut);
-      myTreeManager.onJstdConfigRunningStarted(config);
       String runScope = mySettings.getTestFileScope().toJstdStr();
-      runTests(config, new String[]{"--dryRunFor", runScope}, true);
-      myTreeManager.reportTotalTestCount();
-      runTests(config, new String[]{"--tests", runScope}, false);
+      if (mySettings.isSinglePass()) {
+        // tests are added to the tree and counted as their results arrive
+        runTests(config, configNode, new String[]{"--tests", runScope}, false);
+      }
+      else {
+        runTests(config, configNode, new String[]{"--dryRunFor", runScope}, true);
+        myTreeManager.reportTotalTestCount(configNode);
+        runTests(config, configNode, new String[]{"--tests", runScope}, false);
+      }
     }
     catch (ConfigurationException ce) {
       exception = ce;
@@ -104,7 +187,7 @@ public class TestRunner {
         haltErrorMessage = getErrorMessageIfNoCapturedBrowsersFound(re, mySettings);
       }
       if (haltErrorMessage != null) {
-        myTreeManager.onJstdConfigRunningFinished(haltErrorMessage, mySettings.getTestFileScope());
+        myTreeManager.onJstdConfigRunningFinished(configNode, haltErrorMessage, mySettings.getTestFileScope());
         System.exit(1);
       }
       exception = new Exception("Can't run tests.", re);
@@ -117,14 +200,15 @@ public class TestRunner {
       if (exception != null) {
         errorMessage = TreeManager.formatMessage(exception.getMessage(), exception.getCause());
       }
-      myTreeManager.onJstdConfigRunningFinished(errorMessage, mySettings.getTestFileScope());
-      nullSystemOut.close();
-      System.setOut(myTreeManager.getSystemOutStream());
+      myTreeManager.onJstdConfigRunningFinished(configNode, errorMessage, mySettings.getTestFileScope());
     }
   }
 
   @SuppressWarnings("deprecation")
-  private void runTests(@NotNull final File configFile, @NotNull String[] extraArgs, final boolean dryRun) throws ConfigurationException {
+  private void runTests(@NotNull final File configFile,
+                        @NotNull final ConfigNode configNode,
+                        @NotNull String[] extraArgs,
+                        final boolean dryRun) throws ConfigurationException {
     JsTestDriverBuilder builder = new JsTestDriverBuilder();
 
     final ParsedConfiguration parsedConfiguration;
@@ -136,7 +220,7 @@ public class TestRunner {
                                        "Details:", e);
     }
     final File singleBasePath = JstdConfigParsingUtils.getSingleBasePath(parsedConfiguration.getBasePaths(), configFile);
-    myTreeManager.setCurrentBasePath(singleBasePath.getAbsolutePath());
+    configNode.setBasePath(singleBasePath.getAbsolutePath());
     JstdConfigParsingUtils.wipeCoveragePlugin(parsedConfiguration);
     builder.setDefaultConfiguration(parsedConfiguration);
     builder.withPluginInitializer(new PluginInitializer() {
@@ -149,9 +233,11 @@ public class TestRunner {
             testListeners.addBinding().to(TestResultHolder.class);
             testListeners.addBinding().toInstance(new IdeaTestListener(
               myTreeManager,
+              configNode,
               configFile,
               singleBasePath,
               dryRun,
+              mySettings.isSinglePass(),
               mySettings.getTestFileScope()
             ));
           }
@@ -261,7 +347,7 @@ public class TestRunner {
   public static void main(String[] args) throws Exception {
     Map<ParameterKey, String> paramMap = parseParams(args);
     JstdSettings settings = JstdSettings.build(paramMap);
-    TreeManager treeManager = new TreeManager(settings.getRunAllConfigsInDirectory());
+    TreeManager treeManager = new TreeManager(settings.getRunAllConfigsInDirectory(), settings.isSinglePass());
     if (settings.isDebug()) {
       @SuppressWarnings("IOResourceOpenedButNotSafelyClosed")
       BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
@@ -18,34 +18,38 @@ import java.util.Map;
 import java.util.Set;
 
 /**
+ * Config files may run concurrently, so all tree modifications and output are synchronized on this manager.
+ *
  * @author Sergey Simonchik
  */
 public class TreeManager {
 
   private final File myRunAllConfigsInDirectory;
+  private final boolean myReportDiscoveredTests;
   private final PrintStream myOutStream;
   private final PrintStream myErrStream;
   private final RootNode myRootNode;
-  private ConfigNode myCurrentJstdConfigNode;
   private int myNextNodeId = 1;
 
+  /**
+   * @param reportDiscoveredTests whether to increase the test count for each test found while running,
+   *                              otherwise total count is reported with {@link #reportTotalTestCount(ConfigNode)} after a dry run
+   */
   @SuppressWarnings("UseOfSystemOutOrSystemErr")
-  public TreeManager(@Nullable File runAllConfigsInDirectory) {
+  public TreeManager(@Nullable File runAllConfigsInDirectory, boolean reportDiscoveredTests) {
     myRunAllConfigsInDirectory = runAllConfigsInDirectory;
+    myReportDiscoveredTests = reportDiscoveredTests;
     myOutStream = System.out;
     myErrStream = System.err;
     myRootNode = new RootNode(this);
   }
 
-  public void onJstdConfigRunningStarted(@NotNull File jstdConfigFile) {
+  @NotNull
+  public synchronized ConfigNode onJstdConfigRunningStarted(@NotNull File jstdConfigFile) {
     String jstdConfigNodeDisplayName = buildJstdConfigDisplayName(jstdConfigFile);
-    myCurrentJstdConfigNode = new ConfigNode(jstdConfigNodeDisplayName, jstdConfigFile, myRootNode);
-    myRootNode.addChild(myCurrentJstdConfigNode);
-  }
-
-  public void setCurrentBasePath(@NotNull String absoluteBasePath) {
-    ConfigNode configNode = getCurrentConfigNode();
-    configNode.setBasePath(absoluteBasePath);
+    ConfigNode configNode = new ConfigNode(jstdConfigNodeDisplayName, jstdConfigFile, myRootNode);
+    myRootNode.addChild(configNode);
+    return configNode;
   }
 
   private String buildJstdConfigDisplayName(@NotNull File jstdConfigFile) {
@@ -66,12 +70,12 @@ public class TreeManager {
     return displayName;
   }
 
-  public void onTestRegistered(@NotNull TestPath message) {
-    getOrCreateTestNode(message);
+  public synchronized void onTestRegistered(@NotNull ConfigNode configNode, @NotNull TestPath message) {
+    getOrCreateTestNode(configNode, message);
   }
 
-  public void onTestCompleted(@NotNull TestPath testPath, @NotNull TestResult testResult) {
-    TestNode testNode = getOrCreateTestNode(testPath);
+  public synchronized void onTestCompleted(@NotNull ConfigNode configNode, @NotNull TestPath testPath, @NotNull TestResult testResult) {
+    TestNode testNode = getOrCreateTestNode(configNode, testPath);
     testNode.detachFromParent();
     String log = testResult.getLog();
     if (log != null && !log.isEmpty()) {
@@ -107,26 +111,26 @@ public class TreeManager {
     }
   }
 
-  public void reportTotalTestCount() {
-    ConfigNode configNode = myCurrentJstdConfigNode;
-    if (configNode != null) {
-      int testCount = 0;
-      for (BrowserNode browserNode : configNode.getChildren()) {
-        for (TestCaseNode testCaseNode : browserNode.getChildren()) {
-          testCount += testCaseNode.getChildren().size();
-        }
-      }
-      if (testCount > 0) {
-        TCMessage tcMessage = new TCMessage(TCCommand.TEST_COUNT);
-        tcMessage.addAttribute(TCAttribute.TEST_COUNT, String.valueOf(testCount));
-        printTCMessage(tcMessage);
+  public synchronized void reportTotalTestCount(@NotNull ConfigNode configNode) {
+    int testCount = 0;
+    for (BrowserNode browserNode : configNode.getChildren()) {
+      for (TestCaseNode testCaseNode : browserNode.getChildren()) {
+        testCount += testCaseNode.getChildren().size();
       }
     }
+    printTestCount(testCount);
+  }
+
+  private void printTestCount(int testCount) {
+    if (testCount > 0) {
+      TCMessage tcMessage = new TCMessage(TCCommand.TEST_COUNT);
+      tcMessage.addAttribute(TCAttribute.TEST_COUNT, String.valueOf(testCount));
+      printTCMessage(tcMessage);
+    }
   }
 
   @NotNull
-  private TestNode getOrCreateTestNode(@NotNull TestPath testPath) {
-    ConfigNode configNode = getCurrentConfigNode();
+  private TestNode getOrCreateTestNode(@NotNull ConfigNode configNode, @NotNull TestPath testPath) {
     BrowserNode browserNode = configNode.findChildByName(testPath.getBrowserDisplayName());
     if (browserNode == null) {
       browserNode = new BrowserNode(testPath.getBrowserDisplayName(), configNode);
@@ -143,26 +147,20 @@ public class TreeManager {
     if (testNode == null) {
       testNode = new TestNode(testPath.getTestName(), testCaseNode);
       testCaseNode.addChild(testNode);
+      if (myReportDiscoveredTests) {
+        printTestCount(1);
+      }
     }
 
     return testNode;
   }
 
-  @NotNull
-  private ConfigNode getCurrentConfigNode() {
-    ConfigNode configNode = myCurrentJstdConfigNode;
-    if (configNode == null) {
-      throw new RuntimeException("Current " + ConfigNode.class.getSimpleName() + " is null!");
-    }
-    return configNode;
-  }
-
-  public void printThrowable(@NotNull String message, @NotNull Throwable t) {
+  public synchronized void printThrowable(@NotNull String message, @NotNull Throwable t) {
     String fullMessage = formatMessage(message, t);
     myErrStream.println(fullMessage);
   }
 
-  public void printThrowable(@NotNull Throwable t) {
+  public synchronized void printThrowable(@NotNull Throwable t) {
     String message = formatStacktrace(t);
     myErrStream.println(message);
   }
@@ -172,8 +170,9 @@ public class TreeManager {
     return myOutStream;
   }
 
-  public void onJstdConfigRunningFinished(@Nullable String errorMessage, @NotNull TestFileScope testFileScope) {
-    ConfigNode configNode = getCurrentConfigNode();
+  public synchronized void onJstdConfigRunningFinished(@NotNull ConfigNode configNode,
+                                                      @Nullable String errorMessage,
+                                                      @NotNull TestFileScope testFileScope) {
     for (BrowserNode browserNode : configNode.getChildren()) {
       for (TestCaseNode testCaseNode : browserNode.getChildren()) {
         for (TestNode testNode : testCaseNode.getChildren()) {
@@ -221,18 +220,18 @@ public class TreeManager {
   public void onTestingFinished() {
   }
 
-  public int getNextNodeId() {
+  public synchronized int getNextNodeId() {
     return myNextNodeId++;
   }
 
-  public void printTCMessage(@NotNull TCMessage message) {
+  public synchronized void printTCMessage(@NotNull TCMessage message) {
     myOutStream.print(message.getText() + "\n");
   }
 
-  public void onFileLoadError(@NotNull String browserName,
-                              @Nullable String pathToJsFileWithError,
-                              @Nullable String errorMessage) {
-    ConfigNode configNode = getCurrentConfigNode();
+  public synchronized void onFileLoadError(@NotNull ConfigNode configNode,
+                                           @NotNull String browserName,
+                                           @Nullable String pathToJsFileWithError,
+                                           @Nullable String errorMessage) {
     BrowserNode browserNode = configNode.findChildByName(browserName);
     if (browserNode == null) {
       browserNode = new BrowserNode(browserName, configNode);
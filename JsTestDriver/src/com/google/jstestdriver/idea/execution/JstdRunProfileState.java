@@ -43,6 +43,7 @@ import com.intellij.javascript.testFramework.TestFileStructurePack;
 import com.intellij.lang.javascript.psi.JSFile;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
@@ -230,6 +231,9 @@ public class JstdRunProfileState implements RunProfileState {
     if (myDebug) {
       parameters.put(TestRunner.ParameterKey.DEBUG, Boolean.TRUE.toString());
     }
+    if (Registry.is("jstestdriver.single.pass.run")) {
+      parameters.put(TestRunner.ParameterKey.SINGLE_PASS, Boolean.TRUE.toString());
+    }
     return parameters;
   }
 
@@ -0,0 +1,65 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.google.jstestdriver.idea.rt;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestRunnerParallelTest extends TestCase {
+
+  public void testAllTasksAreRun() {
+    AtomicInteger counter = new AtomicInteger();
+    List<Runnable> tasks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      tasks.add(counter::incrementAndGet);
+    }
+    TestRunner.runInParallel(tasks, 4);
+    assertEquals(10, counter.get());
+  }
+
+  public void testNoTasks() {
+    TestRunner.runInParallel(Collections.emptyList(), 4);
+  }
+
+  public void testTasksRunConcurrently() {
+    CountDownLatch latch = new CountDownLatch(2);
+    Runnable task = () -> {
+      latch.countDown();
+      try {
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("Tasks are not run concurrently");
+        }
+      }
+      catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    };
+    TestRunner.runInParallel(Arrays.asList(task, task), 2);
+  }
+
+  public void testFailuresArePropagated() {
+    AtomicInteger counter = new AtomicInteger();
+    IllegalStateException first = new IllegalStateException("first");
+    AssertionError second = new AssertionError("second");
+    List<Runnable> tasks = Arrays.asList(
+      () -> { throw first; },
+      counter::incrementAndGet,
+      () -> { throw second; }
+    );
+    try {
+      TestRunner.runInParallel(tasks, 2);
+      fail("Task failure is not propagated");
+    }
+    catch (RuntimeException e) {
+      assertSame(first, e.getCause());
+      assertEquals(Collections.<Throwable>singletonList(second), Arrays.asList(e.getSuppressed()));
+    }
+    assertEquals(1, counter.get());
+  }
+}
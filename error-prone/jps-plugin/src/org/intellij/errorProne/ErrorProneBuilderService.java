@@ -0,0 +1,57 @@
+package org.intellij.errorProne;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jps.ModuleChunk;
+import org.jetbrains.jps.builders.DirtyFilesHolder;
+import org.jetbrains.jps.builders.java.JavaSourceRootDescriptor;
+import org.jetbrains.jps.incremental.*;
+import org.jetbrains.jps.incremental.messages.BuildMessage;
+import org.jetbrains.jps.incremental.messages.CompilerMessage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports to the build log how much time the reuse of the error-prone compiler instance (see {@link ErrorProneCompilerCache}) saved.
+ */
+public class ErrorProneBuilderService extends BuilderService {
+  @NotNull
+  @Override
+  public List<? extends ModuleLevelBuilder> createModuleLevelBuilders() {
+    return Collections.singletonList(new CompilerReuseReporter());
+  }
+
+  private static class CompilerReuseReporter extends ModuleLevelBuilder {
+    private CompilerReuseReporter() {
+      super(BuilderCategory.CLASS_POST_PROCESSOR);
+    }
+
+    @Override
+    public ExitCode build(CompileContext context,
+                          ModuleChunk chunk,
+                          DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> dirtyFilesHolder,
+                          OutputConsumer outputConsumer) {
+      return ExitCode.NOTHING_DONE;
+    }
+
+    @Override
+    public void buildFinished(CompileContext context) {
+      String statistics = ErrorProneCompilerCache.takeReuseStatistics();
+      if (statistics != null) {
+        context.processMessage(new CompilerMessage(ErrorProneJavaCompilingTool.COMPILER_ID, BuildMessage.Kind.INFO, statistics));
+      }
+    }
+
+    @NotNull
+    @Override
+    public List<String> getCompilableFileExtensions() {
+      return Collections.emptyList();
+    }
+
+    @NotNull
+    @Override
+    public String getPresentableName() {
+      return "error-prone compiler reuse";
+    }
+  }
+}
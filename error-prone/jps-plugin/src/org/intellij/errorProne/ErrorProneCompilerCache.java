@@ -0,0 +1,173 @@
+package org.intellij.errorProne;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.tools.JavaCompiler;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+/**
+ * Keeps an error-prone compiler instance alive in the build process, so that classes of the compiler are loaded and its bug checkers
+ * are instantiated once instead of once per compiled chunk. Only the compiler of the current error-prone version is kept, the instance
+ * of another version is dropped together with its classloader. The time saved by the reuse is reported to the build log by
+ * {@link ErrorProneBuilderService}.
+ */
+class ErrorProneCompilerCache {
+  private static final Logger LOG = Logger.getInstance(ErrorProneCompilerCache.class);
+  private static final String COMPILER_CLASS_NAME = "com.google.errorprone.ErrorProneJavaCompiler";
+  private static CachedCompiler ourCompiler;
+  private static int ourReuseCount;
+  private static long ourSavedTime;
+
+  private ErrorProneCompilerCache() {
+  }
+
+  /**
+   * @param version      error-prone version, {@code null} if unknown
+   * @param compilerPath classpath of error-prone compiler, {@code null} if it's already on the boot classpath
+   */
+  static synchronized boolean isAvailable(@Nullable String version, @Nullable String compilerPath) {
+    return getOrCreate(version, compilerPath).myCompiler != null;
+  }
+
+  /**
+   * @param version      error-prone version, {@code null} if unknown
+   * @param compilerPath classpath of error-prone compiler, {@code null} if it's already on the boot classpath
+   * @return shared compiler instance or {@code null} if it cannot be created
+   */
+  @Nullable
+  static synchronized JavaCompiler getCompiler(@Nullable String version, @Nullable String compilerPath) {
+    CachedCompiler cached = getOrCreate(version, compilerPath);
+    if (cached.myCompiler != null && cached.myRequested) {
+      ourReuseCount++;
+      ourSavedTime += cached.myCreationTime;
+    }
+    cached.myRequested = true;
+    return cached.myCompiler;
+  }
+
+  /**
+   * @return description of the compiler reuse since the previous call, {@code null} if the compiler wasn't reused
+   */
+  @Nullable
+  static synchronized String takeReuseStatistics() {
+    if (ourReuseCount == 0) return null;
+    String message = "error-prone compiler reused " + ourReuseCount + (ourReuseCount == 1 ? " time" : " times") +
+                     ", saved at least " + ourSavedTime + "ms of compiler loading";
+    ourReuseCount = 0;
+    ourSavedTime = 0;
+    return message;
+  }
+
+  private static void invalidate() {
+    if (ourCompiler != null) {
+      ourCompiler.dispose();
+      ourCompiler = null;
+    }
+  }
+
+  @NotNull
+  private static CachedCompiler getOrCreate(@Nullable String version, @Nullable String compilerPath) {
+    String key = StringUtil.notNullize(version) + File.pathSeparator + StringUtil.notNullize(compilerPath);
+    if (ourCompiler != null && !ourCompiler.myKey.equals(key)) {
+      LOG.info("error-prone compiler " + version + " replaces the cached one");
+      invalidate();
+    }
+    if (ourCompiler == null) {
+      long start = System.currentTimeMillis();
+      ClassLoader classLoader = createClassLoader(compilerPath);
+      JavaCompiler compiler = classLoader != null ? createCompiler(classLoader, compilerPath) : null;
+      ourCompiler = new CachedCompiler(key, classLoader, compiler, System.currentTimeMillis() - start);
+      if (compiler != null) {
+        LOG.info("error-prone compiler created in " + ourCompiler.myCreationTime + "ms");
+      }
+    }
+    return ourCompiler;
+  }
+
+  @Nullable
+  private static ClassLoader createClassLoader(@Nullable String compilerPath) {
+    if (compilerPath == null) {
+      return ErrorProneCompilerCache.class.getClassLoader();
+    }
+    try {
+      return new ErrorProneClassLoader(toUrls(compilerPath));
+    }
+    catch (MalformedURLException e) {
+      LOG.info("Cannot load error-prone compiler from " + compilerPath, e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static JavaCompiler createCompiler(@NotNull ClassLoader classLoader, @Nullable String compilerPath) {
+    try {
+      return (JavaCompiler)Class.forName(COMPILER_CLASS_NAME, true, classLoader).newInstance();
+    }
+    catch (Exception | LinkageError e) {
+      LOG.info("Cannot load error-prone compiler from " + (compilerPath != null ? compilerPath : "boot classpath"), e);
+      return null;
+    }
+  }
+
+  @NotNull
+  private static URL[] toUrls(@NotNull String classpath) throws MalformedURLException {
+    List<String> paths = StringUtil.split(classpath, File.pathSeparator);
+    URL[] urls = new URL[paths.size()];
+    for (int i = 0; i < paths.size(); i++) {
+      urls[i] = new File(paths.get(i)).toURI().toURL();
+    }
+    return urls;
+  }
+
+  private static class CachedCompiler {
+    @NotNull private final String myKey;
+    @Nullable private final ClassLoader myClassLoader;
+    @Nullable private final JavaCompiler myCompiler;
+    private final long myCreationTime;
+    private boolean myRequested;
+
+    private CachedCompiler(@NotNull String key, @Nullable ClassLoader classLoader, @Nullable JavaCompiler compiler, long creationTime) {
+      myKey = key;
+      myClassLoader = classLoader;
+      myCompiler = compiler;
+      myCreationTime = creationTime;
+    }
+
+    private void dispose() {
+      if (myClassLoader instanceof ErrorProneClassLoader) {
+        try {
+          ((ErrorProneClassLoader)myClassLoader).close();
+        }
+        catch (IOException e) {
+          LOG.info(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Isolates error-prone and its dependencies from the libraries of the build process; javac classes are taken from the running JDK,
+   * the same way as when error-prone is loaded as a javac plugin.
+   */
+  private static class ErrorProneClassLoader extends URLClassLoader {
+    private ErrorProneClassLoader(@NotNull URL[] urls) {
+      super(urls, ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (name.startsWith("com.sun.tools.javac.") || name.startsWith("com.sun.source.")) {
+        return ClassLoader.getSystemClassLoader().loadClass(name);
+      }
+      return super.loadClass(name, resolve);
+    }
+  }
+}
@@ -4,6 +4,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.lang.JavaVersion;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jps.builders.impl.java.JavacCompilerTool;
 import org.jetbrains.jps.builders.java.CannotCreateJavaCompilerException;
 import org.jetbrains.jps.builders.java.JavaCompilingTool;
@@ -23,6 +24,7 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
   public static final String COMPILER_ID = "error-prone";//duplicates ErrorProneJavaBackendCompiler.COMPILER_ID from IDE part
   private static final String VERSION_PROPERTY = "idea.error.prone.version";//duplicates ErrorProneClasspathProvider.VERSION_PROPERTY
   private static final String COMPILER_PATH_PROPERTY = "idea.error.prone.compiler.path";//duplicates ErrorProneClasspathProvider.COMPILER_PATH_PROPERTY
+  private static final String REUSE_COMPILER_PROPERTY = "idea.error.prone.reuse.compiler";
 
   @NotNull
   @Override
@@ -40,6 +42,12 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
   @NotNull
   @Override
   public JavaCompiler createCompiler() throws CannotCreateJavaCompilerException {
+    if (isCompilerReused()) {
+      JavaCompiler compiler = ErrorProneCompilerCache.getCompiler(System.getProperty(VERSION_PROPERTY), getCompilerPath());
+      if (compiler != null) {
+        return compiler;
+      }
+    }
     if (isUnderJava9()) {
       return new JavacCompilerTool().createCompiler();
     }
@@ -55,6 +63,27 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
     return JavaVersion.current().feature >= 9;
   }
 
+  /**
+   * The compiler instance is reused unless {@code -Didea.error.prone.reuse.compiler=false} is specified. Under Java 9+ error-prone is
+   * loaded by its own classloader in this case, instead of being registered as a javac plugin for each chunk, and accesses javac internals
+   * directly. Java 16+ denies this access by default, so there the instance is reused only with {@code -Didea.error.prone.reuse.compiler=true},
+   * which requires the javac packages to be exported to the build process (--add-exports jdk.compiler/...=ALL-UNNAMED).
+   */
+  private static boolean isCompilerReused() {
+    String reuse = System.getProperty(REUSE_COMPILER_PROPERTY);
+    boolean reusedByDefault = JavaVersion.current().feature < 16;
+    if (reusedByDefault ? Boolean.FALSE.toString().equals(reuse) : !Boolean.TRUE.toString().equals(reuse)) {
+      return false;
+    }
+    return ErrorProneCompilerCache.isAvailable(System.getProperty(VERSION_PROPERTY), getCompilerPath());
+  }
+
+  @Nullable
+  private static String getCompilerPath() {
+    //under Java 8 the compiler is added to the boot classpath
+    return isUnderJava9() ? System.getProperty(COMPILER_PATH_PROPERTY) : null;
+  }
+
   @NotNull
   @Override
   public List<File> getAdditionalClasspath() {
@@ -63,7 +92,7 @@ public class ErrorProneJavaCompilingTool extends JavaCompilingTool {
 
   @Override
   public void preprocessOptions(List<String> options) {
-    if (isUnderJava9()) {
+    if (isUnderJava9() && !isCompilerReused()) {
       //when running under Java 9 Error Prone should register itself as a plugin, see http://errorprone.info/docs/installation#command-line
       Iterator<String> iterator = options.iterator();
       List<String> errorProneOptions = new ArrayList<>();
@@ -2,7 +2,6 @@ package com.intellij.javascript.flex.css;
 
 import com.intellij.codeInsight.documentation.DocumentationManager;
 import com.intellij.codeInspection.LocalQuickFix;
-import com.intellij.javascript.flex.FlexAnnotationNames;
 import com.intellij.javascript.flex.mxml.schema.CodeContext;
 import com.intellij.lang.Language;
 import com.intellij.lang.css.CSSLanguage;
@@ -13,14 +12,10 @@ import com.intellij.lang.documentation.DocumentationProvider;
 import com.intellij.lang.injection.InjectedLanguageManager;
 import com.intellij.lang.javascript.JavaScriptSupportLoader;
 import com.intellij.lang.javascript.flex.FlexModuleType;
-import com.intellij.lang.javascript.flex.FlexUtils;
 import com.intellij.lang.javascript.flex.XmlBackedJSClassImpl;
-import com.intellij.lang.javascript.psi.ecmal4.JSAttribute;
-import com.intellij.lang.javascript.psi.ecmal4.JSAttributeNameValuePair;
 import com.intellij.lang.javascript.psi.ecmal4.JSClass;
 import com.intellij.lang.javascript.psi.ecmal4.JSQualifiedNamedElement;
 import com.intellij.lang.javascript.psi.ecmal4.impl.ActionScriptClassImpl;
-import com.intellij.lang.javascript.psi.resolve.ActionScriptResolveUtil;
 import com.intellij.lang.javascript.psi.resolve.JSResolveUtil;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.fileTypes.LanguageFileType;
@@ -29,7 +24,6 @@ import com.intellij.openapi.module.ModuleType;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Comparing;
-import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -279,7 +273,9 @@ public class FlexCssElementDescriptorProvider extends CssElementDescriptorProvid
     if (context != null) {
       Module module = findModuleForPsiElement(context);
       GlobalSearchScope scope = FlexCssUtil.getResolveScope(context);
-      List<Set<FlexStyleIndexInfo>> lists = FileBasedIndex.getInstance().getValues(FlexStyleIndex.INDEX_ID, propertyName, scope);
+      List<Set<FlexStyleIndexInfo>> lists = module != null
+                                            ? FlexStyleTable.getInstance(module).getStyles(propertyName)
+                                            : FileBasedIndex.getInstance().getValues(FlexStyleIndex.INDEX_ID, propertyName, scope);
       List<CssSimpleSelector> selectors = findSimpleSelectorsAbove(context);
       List<FlexStyleIndexInfo> infos = filter(lists, selectors, scope, module);
       if (infos.size() > 0) {
@@ -316,48 +312,18 @@ public class FlexCssElementDescriptorProvider extends CssElementDescriptorProvid
     return propertyName.indexOf('-') >= 0;
   }
 
-  private static void fillPropertyDescriptorsDynamically(@NotNull final JSClass jsClass, Set<JSClass> visited, final Set<CssPropertyDescriptor> result) {
-    if (!visited.add(jsClass)) return;
-    FlexUtils.processMetaAttributesForClass(jsClass, new ActionScriptResolveUtil.MetaDataProcessor() {
-      @Override
-      public boolean process(@NotNull JSAttribute jsAttribute) {
-        if (FlexAnnotationNames.STYLE.equals(jsAttribute.getName())) {
-          JSAttributeNameValuePair pair = jsAttribute.getValueByName("name");
-          String styleName = pair != null ? pair.getSimpleValue() : null;
-          String qualifiedName = jsClass.getQualifiedName();
-          if (styleName != null && qualifiedName != null) {
-            result.add(new FlexCssPropertyDescriptor(ContainerUtil.newLinkedHashSet(
-              FlexStyleIndexInfo.create(qualifiedName, styleName, jsAttribute, true))));
-          }
-        }
-        return true;
-      }
-
-      @Override
-      public boolean handleOtherElement(PsiElement el, PsiElement context, @Nullable Ref<PsiElement> continuePassElement) {
-        return true;
-      }
-    });
-    for (JSClass jsSuper : jsClass.getSupers()) {
-      if (jsSuper != null) {
-        fillPropertyDescriptorsDynamically(jsSuper, visited, result);
-      }
-    }
-  }
-
   @NotNull
   private static Collection<? extends CssPropertyDescriptor> getPropertyDescriptorsDynamically(@NotNull List<CssSimpleSelector> selectors,
                                                                                                @NotNull Module module) {
-    FileBasedIndex fileBasedIndex = FileBasedIndex.getInstance();
+    FlexStyleTable styleTable = FlexStyleTable.getInstance(module);
     GlobalSearchScope scope = module.getModuleWithDependenciesAndLibrariesScope(false);
-    Set<JSClass> visited = ContainerUtil.newLinkedHashSet();
     Set<CssPropertyDescriptor> result = ContainerUtil.newLinkedHashSet();
     Project project = module.getProject();
 
     for (CssSimpleSelector selector : selectors) {
       final JSClass jsClass = getClassFromMxmlDescriptor(selector, module);
       if (jsClass != null) {
-        fillPropertyDescriptorsDynamically(jsClass, visited, result);
+        result.addAll(styleTable.getClassStyles(jsClass));
         continue;
       }
 
@@ -365,18 +331,12 @@ public class FlexCssElementDescriptorProvider extends CssElementDescriptorProvid
       Collection<JSQualifiedNamedElement> candidates = JSResolveUtil.findElementsByName(shortClassName, project, scope);
       for (JSQualifiedNamedElement candidate : candidates) {
         if (candidate instanceof JSClass) {
-          fillPropertyDescriptorsDynamically((JSClass)candidate, visited, result);
+          result.addAll(styleTable.getClassStyles((JSClass)candidate));
         }
       }
     }
 
-    for (Iterator<CssPropertyDescriptor> iterator = result.iterator(); iterator.hasNext();) {
-      CssPropertyDescriptor propertyDescriptor = iterator.next();
-      List<Set<FlexStyleIndexInfo>> values = fileBasedIndex.getValues(FlexStyleIndex.INDEX_ID, propertyDescriptor.getPropertyName(), scope);
-      if (values.size() == 0) {
-        iterator.remove();
-      }
-    }
+    result.removeIf(propertyDescriptor -> !styleTable.hasStyle(propertyDescriptor.getPropertyName()));
     return result;
   }
 
@@ -403,6 +363,9 @@ public class FlexCssElementDescriptorProvider extends CssElementDescriptorProvid
         return getPropertyDescriptorsDynamically(simpleSelectors, module);
       }
     }
+    if (module != null) {
+      return FlexStyleTable.getInstance(module).getGlobalPropertyDescriptors();
+    }
     FileBasedIndex index = FileBasedIndex.getInstance();
     Collection<String> keys = ContainerUtil.sorted(index.getAllKeys(FlexStyleIndex.INDEX_ID, context.getProject()));
     List<FlexCssPropertyDescriptor> result = new ArrayList<>();
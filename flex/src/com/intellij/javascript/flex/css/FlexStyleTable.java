@@ -0,0 +1,137 @@
+package com.intellij.javascript.flex.css;
+
+import com.intellij.javascript.flex.FlexAnnotationNames;
+import com.intellij.lang.javascript.flex.FlexUtils;
+import com.intellij.lang.javascript.psi.ecmal4.JSAttribute;
+import com.intellij.lang.javascript.psi.ecmal4.JSAttributeNameValuePair;
+import com.intellij.lang.javascript.psi.ecmal4.JSClass;
+import com.intellij.lang.javascript.psi.resolve.ActionScriptResolveUtil;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Ref;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.css.CssPropertyDescriptor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Styles from {@link FlexStyleIndex} visible in a module, cached until Flex code or module roots change. Each style is read from the index
+ * when it's requested for the first time, so that an edit doesn't cause reading all styles again.
+ * Also keeps the styles declared by each class together with the ones inherited from its supers.
+ */
+class FlexStyleTable {
+  @NotNull private final Module myModule;
+  @NotNull private final GlobalSearchScope myScope;
+  @NotNull private final Map<String, List<Set<FlexStyleIndexInfo>>> myStyles = ContainerUtil.newConcurrentMap();
+  @Nullable private volatile List<FlexCssPropertyDescriptor> myGlobalPropertyDescriptors;
+  @NotNull private final Map<JSClass, Set<CssPropertyDescriptor>> myClassStyles = ContainerUtil.newConcurrentMap();
+
+  private FlexStyleTable(@NotNull Module module) {
+    myModule = module;
+    myScope = FlexStylesIndexableSetContributor.enlarge(module.getModuleWithDependenciesAndLibrariesScope(false));
+  }
+
+  @NotNull
+  static FlexStyleTable getInstance(@NotNull Module module) {
+    return CachedValuesManager.getManager(module.getProject()).getCachedValue(module, () -> CachedValueProvider.Result
+      .create(new FlexStyleTable(module),
+              PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT,
+              ProjectRootManager.getInstance(module.getProject())));
+  }
+
+  /**
+   * Same as {@code FileBasedIndex.getValues(FlexStyleIndex.INDEX_ID, styleName, scope)} for the module scope
+   */
+  @NotNull
+  List<Set<FlexStyleIndexInfo>> getStyles(@NotNull String styleName) {
+    List<Set<FlexStyleIndexInfo>> values = myStyles.get(styleName);
+    if (values == null) {
+      values = FileBasedIndex.getInstance().getValues(FlexStyleIndex.INDEX_ID, styleName, myScope);
+      myStyles.put(styleName, values);
+    }
+    return values;
+  }
+
+  boolean hasStyle(@NotNull String styleName) {
+    return !getStyles(styleName).isEmpty();
+  }
+
+  /**
+   * Descriptors of all styles not in classic form (like {@code fontSize}, not {@code font-size}) sorted by name
+   */
+  @NotNull
+  List<FlexCssPropertyDescriptor> getGlobalPropertyDescriptors() {
+    List<FlexCssPropertyDescriptor> descriptors = myGlobalPropertyDescriptors;
+    if (descriptors == null) {
+      descriptors = new ArrayList<>();
+      for (String key : ContainerUtil.sorted(FileBasedIndex.getInstance().getAllKeys(FlexStyleIndex.INDEX_ID, myModule.getProject()))) {
+        if (key.indexOf('-') < 0) {
+          for (Set<FlexStyleIndexInfo> infos : getStyles(key)) {
+            descriptors.add(new FlexCssPropertyDescriptor(infos));
+          }
+        }
+      }
+      myGlobalPropertyDescriptors = descriptors;
+    }
+    return descriptors;
+  }
+
+  /**
+   * Styles declared with {@code [Style]} metadata in the class and its supers
+   */
+  @NotNull
+  Set<CssPropertyDescriptor> getClassStyles(@NotNull JSClass jsClass) {
+    return getClassStyles(jsClass, new HashSet<>());
+  }
+
+  @NotNull
+  private Set<CssPropertyDescriptor> getClassStyles(@NotNull JSClass jsClass, @NotNull Set<JSClass> visiting) {
+    Set<CssPropertyDescriptor> cached = myClassStyles.get(jsClass);
+    if (cached != null) return cached;
+    if (!visiting.add(jsClass)) return Collections.emptySet(); // cyclic inheritance
+
+    Set<CssPropertyDescriptor> result = ContainerUtil.newLinkedHashSet();
+    collectDeclaredStyles(jsClass, result);
+    for (JSClass jsSuper : jsClass.getSupers()) {
+      if (jsSuper != null) {
+        // same descriptor instances for a common super, so that the set of several classes doesn't contain duplicates
+        result.addAll(getClassStyles(jsSuper, visiting));
+      }
+    }
+
+    visiting.remove(jsClass);
+    Set<CssPropertyDescriptor> previous = myClassStyles.putIfAbsent(jsClass, result);
+    return previous != null ? previous : result;
+  }
+
+  private static void collectDeclaredStyles(@NotNull final JSClass jsClass, @NotNull final Set<CssPropertyDescriptor> result) {
+    FlexUtils.processMetaAttributesForClass(jsClass, new ActionScriptResolveUtil.MetaDataProcessor() {
+      @Override
+      public boolean process(@NotNull JSAttribute jsAttribute) {
+        if (FlexAnnotationNames.STYLE.equals(jsAttribute.getName())) {
+          JSAttributeNameValuePair pair = jsAttribute.getValueByName("name");
+          String styleName = pair != null ? pair.getSimpleValue() : null;
+          String qualifiedName = jsClass.getQualifiedName();
+          if (styleName != null && qualifiedName != null) {
+            result.add(new FlexCssPropertyDescriptor(ContainerUtil.newLinkedHashSet(
+              FlexStyleIndexInfo.create(qualifiedName, styleName, jsAttribute, true))));
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public boolean handleOtherElement(PsiElement el, PsiElement context, @Nullable Ref<PsiElement> continuePassElement) {
+        return true;
+      }
+    });
+  }
+}
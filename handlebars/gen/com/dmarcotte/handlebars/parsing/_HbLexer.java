@@ -340,6 +340,46 @@ final class _HbLexer implements FlexLexer {
       yybegin(stack.pop());
     }
 
+    private static final int STATE_BITS = 5;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final int MAX_ENCODED_STACK_DEPTH = 5;
+    private static final int STACK_OVERFLOW_FLAG = 1 << 30;
+
+    /**
+     * Encodes the current lexical state together with the state stack into a single int, so that lexing can be
+     * restarted at any token via {@link #restoreStateWithStack(int)}.
+     * <p/>
+     * The current state occupies the lowest {@code STATE_BITS} bits, stack entries follow top first, each stored as
+     * {@code state + 1} so that an empty slot marks the bottom of the stack.
+     */
+    public int getStateWithStack() {
+      int encoded = yystate();
+      int depth = Math.min(stack.size(), MAX_ENCODED_STACK_DEPTH);
+      for (int i = 0; i < depth; i++) {
+        encoded |= (stack.get(stack.size() - 1 - i) + 1) << (STATE_BITS * (i + 1));
+      }
+      return stack.size() > MAX_ENCODED_STACK_DEPTH ? encoded | STACK_OVERFLOW_FLAG : encoded;
+    }
+
+    public void restoreStateWithStack(int encoded) {
+      stack.clear();
+      // push bottom entries first
+      for (int i = MAX_ENCODED_STACK_DEPTH; i > 0; i--) {
+        int entry = (encoded >>> (STATE_BITS * i)) & STATE_MASK;
+        if (entry != 0) {
+          stack.push(entry - 1);
+        }
+      }
+      yybegin(encoded & STATE_MASK);
+    }
+
+    /**
+     * @return false if the stack was too deep to be encoded completely, so lexing can't be restarted at this state
+     */
+    public static boolean isStackEncoded(int encoded) {
+      return (encoded & STACK_OVERFLOW_FLAG) == 0;
+    }
+
 
   /**
    * Creates a new scanner
@@ -1,12 +1,75 @@
 package com.dmarcotte.handlebars.parsing;
 
 import com.intellij.lexer.FlexAdapter;
+import com.intellij.lexer.FlexLexer;
+import com.intellij.lexer.RestartableLexer;
+import com.intellij.lexer.TokenIterator;
+import com.intellij.psi.tree.IElementType;
 
+import java.io.IOException;
 import java.io.Reader;
 
 
-public class HbRawLexer extends FlexAdapter {
+/**
+ * Reports the lexer state together with the state stack of {@link _HbLexer}, so that the editor highlighter
+ * can restart lexing at any token instead of going back to the nearest {@link _HbLexer#YYINITIAL} position.
+ */
+public class HbRawLexer extends FlexAdapter implements RestartableLexer {
   public HbRawLexer() {
-    super(new _HbLexer((Reader)null));
+    super(new StateStackFlexLexer(new _HbLexer((Reader)null)));
   }
-}
\ No newline at end of file
+
+  @Override
+  public int getStartState() {
+    return _HbLexer.YYINITIAL;
+  }
+
+  @Override
+  public boolean isRestartableState(int state) {
+    return _HbLexer.isStackEncoded(state);
+  }
+
+  @Override
+  public void start(CharSequence buffer, int startOffset, int endOffset, int initialState, TokenIterator tokenIterator) {
+    start(buffer, startOffset, endOffset, initialState);
+  }
+
+  private static class StateStackFlexLexer implements FlexLexer {
+    private final _HbLexer myLexer;
+
+    private StateStackFlexLexer(_HbLexer lexer) {
+      myLexer = lexer;
+    }
+
+    @Override
+    public void yybegin(int state) {
+      myLexer.restoreStateWithStack(state);
+    }
+
+    @Override
+    public int yystate() {
+      return myLexer.getStateWithStack();
+    }
+
+    @Override
+    public int getTokenStart() {
+      return myLexer.getTokenStart();
+    }
+
+    @Override
+    public int getTokenEnd() {
+      return myLexer.getTokenEnd();
+    }
+
+    @Override
+    public IElementType advance() throws IOException {
+      return myLexer.advance();
+    }
+
+    @Override
+    public void reset(CharSequence buf, int start, int end, int initialState) {
+      myLexer.reset(buf, start, end, _HbLexer.YYINITIAL);
+      myLexer.restoreStateWithStack(initialState);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.dmarcotte.handlebars.highlighting;
+
+import com.dmarcotte.handlebars.parsing.HbTokenTypes;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.editor.highlighter.HighlighterIterator;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+
+/**
+ * Typing deep inside a large template must only relex a small window around the edit.
+ */
+public class HbHighlighterPerformanceTest extends LightPlatformCodeInsightFixtureTestCase {
+  private static final int LINES = 10_000;
+
+  public void testTypingInLargeTemplate() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      if (i == LINES / 2) {
+        text.append("{{#each items}}<span>{{<caret>}}</span>{{/each}}\n");
+      }
+      else {
+        text.append("<div class=\"{{cls}}\">{{#if cond}}{{> partial}}{{else}}{{{raw.value}}}{{/if}}{{! comment }}</div>\n");
+      }
+    }
+    myFixture.configureByText("large.hbs", text.toString());
+    EditorEx editor = (EditorEx)myFixture.getEditor();
+
+    PlatformTestUtil.startPerformanceTest(getTestName(false), 2_000, () -> {
+      for (int i = 0; i < 100; i++) {
+        myFixture.type('a');
+      }
+      for (int i = 0; i < 100; i++) {
+        myFixture.type('\b');
+      }
+    }).attempts(1).assertTiming();
+
+    HighlighterIterator iterator = editor.getHighlighter().createIterator(editor.getCaretModel().getOffset());
+    assertEquals(HbTokenTypes.CLOSE, iterator.getTokenType());
+  }
+}
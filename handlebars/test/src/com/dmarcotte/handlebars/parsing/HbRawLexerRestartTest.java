@@ -0,0 +1,78 @@
+package com.dmarcotte.handlebars.parsing;
+
+import com.intellij.psi.tree.IElementType;
+import com.intellij.testFramework.PlatformLiteFixture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that lexing restarted at any token from its reported state gives the same tokens as lexing from the start.
+ */
+public class HbRawLexerRestartTest extends PlatformLiteFixture {
+
+  private static final String TEXT = "<div class=\"{{cls}}\">\n" +
+                                     "  {{#if foo}}\n" +
+                                     "    {{> partial param=\"value\" }}\n" +
+                                     "    {{! a comment }}\n" +
+                                     "    {{!-- a {{block}} comment --}}\n" +
+                                     "  {{else}}\n" +
+                                     "    {{{unescaped.path}}} \\{{escaped}} \\\\{{notEscaped}}\n" +
+                                     "    {{{{raw}}}} {{inside raw}} {{{{/raw}}}}\n" +
+                                     "    {{helper 1 true \"str\" 'str' key=value ../parent this/child}}\n" +
+                                     "  {{/if}}\n" +
+                                     "  {{!-- unclosed";
+
+  public void testRestartAtEveryToken() {
+    List<TokenInfo> expected = lex(new HbRawLexer(), 0, _HbLexer.YYINITIAL);
+    assertFalse(expected.isEmpty());
+
+    for (TokenInfo token : expected) {
+      HbRawLexer lexer = new HbRawLexer();
+      assertTrue(lexer.isRestartableState(token.myState));
+
+      List<TokenInfo> restarted = lex(lexer, token.myStart, token.myState);
+      assertEquals("Restarted at " + token, expected.subList(expected.indexOf(token), expected.size()), restarted);
+    }
+  }
+
+  private static List<TokenInfo> lex(HbRawLexer lexer, int start, int state) {
+    List<TokenInfo> tokens = new ArrayList<>();
+    lexer.start(TEXT, start, TEXT.length(), state);
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      tokens.add(new TokenInfo(type, lexer.getTokenStart(), lexer.getState()));
+      lexer.advance();
+    }
+    return tokens;
+  }
+
+  private static class TokenInfo {
+    private final IElementType myType;
+    private final int myStart;
+    private final int myState;
+
+    private TokenInfo(IElementType type, int start, int state) {
+      myType = type;
+      myStart = start;
+      myState = state;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof TokenInfo)) return false;
+      TokenInfo info = (TokenInfo)o;
+      return myType == info.myType && myStart == info.myStart && myState == info.myState;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * myStart + myState;
+    }
+
+    @Override
+    public String toString() {
+      return myType + " at " + myStart + " in state " + Integer.toHexString(myState);
+    }
+  }
+}
@@ -33,6 +33,11 @@ public class PostCssCustomSelectorResolveTest extends PostCssResolveTest {
     doTest(2);
   }
 
+  public void testResolveMultiInImportedFiles() {
+    myFixture.configureByFile("definition.pcss");
+    doTest(2);
+  }
+
   public void testInline() {
     doTest(1, "html");
   }
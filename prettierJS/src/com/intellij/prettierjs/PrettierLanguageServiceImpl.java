@@ -20,12 +20,15 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 import static com.intellij.lang.javascript.service.JSLanguageServiceQueue.LOGGER;
 
 public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implements PrettierLanguageService {
   private volatile boolean myFlushConfigCache;
+  // path -> text last returned by Prettier for this file, reset when any config changes
+  private final Map<String, FormattedText> myFormattedTexts = ContainerUtil.newConcurrentMap();
 
   public PrettierLanguageServiceImpl(@NotNull Project project) {
     super(project);
@@ -35,6 +38,7 @@ public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implement
         for (VFileEvent event : events) {
           if (!(event instanceof VFileContentChangeEvent) || PrettierUtil.isConfigFileOrPackageJson(event.getFile())) {
             myFlushConfigCache = true;
+            myFormattedTexts.clear();
           }
         }
       }
@@ -54,10 +58,24 @@ public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implement
       new ReformatFileCommand(filePath, prettierPackagePath, text, range, myFlushConfigCache);
     return process.execute(command, (ignored, response) -> {
       myFlushConfigCache = false;
-      return parseReformatResponse(response);
+      FormatResult result = parseReformatResponse(response);
+      if (range == null && result.result != null) {
+        myFormattedTexts.put(filePath, new FormattedText(prettierPackagePath, result.result));
+      }
+      return result;
     });
   }
 
+  /**
+   * @return true if the given text is what Prettier returned for the last reformat of the whole file
+   * and no config file was changed since then, so reformatting it again would not change anything
+   */
+  public boolean isFormatted(@NotNull String filePath, @NotNull CharSequence text, @NotNull NodePackage prettierPackage) {
+    FormattedText formattedText = myFormattedTexts.get(filePath);
+    return formattedText != null &&
+           formattedText.matches(JSLanguageServiceUtil.normalizeNameAndPath(prettierPackage.getSystemDependentPath()), text);
+  }
+
 
   @Override
   @Nullable
@@ -132,6 +150,23 @@ public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implement
     }
   }
 
+  private static class FormattedText {
+    private final String myPrettierPackagePath;
+    private final int myLength;
+    private final int myHash;
+
+    FormattedText(@NotNull String prettierPackagePath, @NotNull CharSequence text) {
+      myPrettierPackagePath = prettierPackagePath;
+      myLength = text.length();
+      myHash = StringUtil.stringHashCode(text);
+    }
+
+    boolean matches(@NotNull String prettierPackagePath, @NotNull CharSequence text) {
+      return myLength == text.length() && myHash == StringUtil.stringHashCode(text) &&
+             myPrettierPackagePath.equals(prettierPackagePath);
+    }
+  }
+
   private static class GetSupportedFilesCommand implements JSLanguageServiceObject, JSLanguageServiceSimpleCommand {
     @NotNull
     public final String prettierPath;
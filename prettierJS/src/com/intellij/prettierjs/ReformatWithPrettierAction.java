@@ -49,7 +49,6 @@ import com.intellij.ui.HyperlinkAdapter;
 import com.intellij.ui.LightweightHint;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.NullableFunction;
-import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.text.SemVer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -57,14 +56,13 @@ import org.jetbrains.annotations.Nullable;
 import javax.swing.*;
 import javax.swing.event.HyperlinkEvent;
 import javax.swing.event.HyperlinkListener;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.Future;
 
 public class ReformatWithPrettierAction extends AnAction implements DumbAware {
   private static final int REQUEST_TIMEOUT = 3000;
+  private static final int MAX_REQUESTS_IN_FLIGHT = 8;
+  private static final int WRITE_BATCH_SIZE = 50;
   private final ErrorHandler myErrorHandler;
 
   public ReformatWithPrettierAction(@NotNull ErrorHandler errorHandler) {
@@ -226,53 +224,111 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
                                    @NotNull final FileTreeIterator fileIterator,
                                    @NotNull NodePackage nodePackage, 
                                    boolean reportUnsupported) {
-    PrettierLanguageService service = PrettierLanguageService.getInstance(project);
-    Map<PsiFile, PrettierLanguageService.FormatResult> results = executeUnderProgress(project, indicator -> {
-      Map<PsiFile, PrettierLanguageService.FormatResult> reformattedResults = new HashMap<>();
-
-      while (fileIterator.hasNext()) {
+    PrettierLanguageServiceImpl service = PrettierLanguageService.getInstance(project);
+    List<String> errors = executeUnderProgress(project, indicator -> {
+      List<String> reformatErrors = new ArrayList<>();
+      // requests are sent without waiting for the previous ones, so the service is never idle between files
+      Deque<PendingRequest> pendingRequests = new ArrayDeque<>();
+      Map<PsiFile, String> formattedTexts = new LinkedHashMap<>();
+      long startTime = System.currentTimeMillis();
+      int processedFiles = 0;
+
+      while (!indicator.isCanceled() && fileIterator.hasNext()) {
         PsiFile currentFile = ReadAction.compute(() -> fileIterator.next());
         if (!isAcceptableFile(currentFile, nodePackage)) {
           if (reportUnsupported) {
-            reformattedResults.put(currentFile,
-                                   PrettierLanguageService.FormatResult.error(PrettierBundle.message("not.supported.file", currentFile.getName())));
+            reformatErrors.add(PrettierBundle.message("not.supported.file", currentFile.getName()));
           }
           continue;
         }
         indicator.setText("Processing " + currentFile.getName());
         String filePath = ReadAction.compute(() -> currentFile.getVirtualFile().getPath());
         String text = ReadAction.compute(() -> currentFile.getText());
-        PrettierLanguageService.FormatResult result = awaitFuture(service.format(filePath, text, nodePackage, null));
-        // timed out. show notification?
-        if (result == null) {
-          continue;
+        if (!service.isFormatted(filePath, text, nodePackage)) {
+          pendingRequests.add(new PendingRequest(currentFile, service.format(filePath, text, nodePackage, null)));
+        }
+        else {
+          processedFiles++;
+        }
+
+        while (pendingRequests.size() >= MAX_REQUESTS_IN_FLIGHT) {
+          collectResult(pendingRequests.poll(), formattedTexts, reformatErrors);
+          processedFiles++;
         }
-        reformattedResults.put(currentFile, result);
+        if (formattedTexts.size() >= WRITE_BATCH_SIZE) {
+          applyFormattedTexts(project, formattedTexts, indicator);
+          formattedTexts.clear();
+        }
+        indicator.setText2(buildProgressDetails(processedFiles, startTime));
+      }
+
+      while (!indicator.isCanceled() && !pendingRequests.isEmpty()) {
+        collectResult(pendingRequests.poll(), formattedTexts, reformatErrors);
+        processedFiles++;
+        indicator.setText2(buildProgressDetails(processedFiles, startTime));
       }
-      return reformattedResults;
+      applyFormattedTexts(project, formattedTexts, indicator);
+      return reformatErrors;
     });
 
-    runWriteCommandAction(project, () -> {
-      for (Map.Entry<PsiFile, PrettierLanguageService.FormatResult> entry : results.entrySet()) {
+    if (errors != null && errors.size() > 0) {
+      myErrorHandler.showErrorWithDetails(project, null,
+                                          "Failed to reformat " + errors.size() + " files<br><a href=''>Details</a>",
+                                          StringUtil.join(errors, "\n"));
+    }
+  }
+
+  private static void collectResult(@NotNull PendingRequest request,
+                                    @NotNull Map<PsiFile, String> formattedTexts,
+                                    @NotNull List<String> errors) {
+    PrettierLanguageService.FormatResult result = awaitFuture(request.myFuture);
+    // timed out. show notification?
+    if (result == null) {
+      return;
+    }
+    if (StringUtil.isEmpty(result.error)) {
+      formattedTexts.put(request.myFile, result.result);
+    }
+    else {
+      errors.add(result.error);
+    }
+  }
+
+  /**
+   * Applies already received results in one write command, so that the documents are updated while the rest of the files
+   * are still being formatted and the results don't pile up in memory.
+   * Nothing more is applied once the action is canceled, the batches applied before stay.
+   */
+  private static void applyFormattedTexts(@NotNull Project project,
+                                          @NotNull Map<PsiFile, String> formattedTexts,
+                                          @NotNull ProgressIndicator indicator) {
+    if (formattedTexts.isEmpty() || indicator.isCanceled()) {
+      return;
+    }
+    ApplicationManager.getApplication().invokeAndWait(() -> runWriteCommandAction(project, () -> {
+      for (Map.Entry<PsiFile, String> entry : formattedTexts.entrySet()) {
+        if (indicator.isCanceled()) {
+          break;
+        }
         VirtualFile virtualFile = entry.getKey().getVirtualFile();
         if (virtualFile == null) {
           continue;
         }
         Document document = FileDocumentManager.getInstance().getDocument(virtualFile);
-        if (document != null && StringUtil.isEmpty(entry.getValue().error)) {
+        if (document != null) {
           CharSequence textBefore = document.getCharsSequence();
-          if (!StringUtil.equals(textBefore, entry.getValue().result)) {
-            document.setText(entry.getValue().result);
+          if (!StringUtil.equals(textBefore, entry.getValue())) {
+            document.setText(entry.getValue());
           }
         }
       }
-    });
-    List<String> errors = ContainerUtil.mapNotNull(results.entrySet(), t -> t.getValue().error);
-    if (errors.size() > 0) {
-      myErrorHandler.showErrorWithDetails(project, null,
-                                          "Failed to reformat " + errors.size() + " files<br><a href=''>Details</a>",
-                                          StringUtil.join(errors, "\n"));
-    }
+    }), ModalityState.defaultModalityState());
+  }
+
+  @NotNull
+  private static String buildProgressDetails(int processedFiles, long startTime) {
+    long elapsed = Math.max(System.currentTimeMillis() - startTime, 1);
+    return PrettierBundle.message("progress.details", processedFiles, processedFiles * 1000 / elapsed);
   }
 
   @Nullable
@@ -364,6 +420,16 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
 
   
 
+  private static class PendingRequest {
+    private final PsiFile myFile;
+    private final Future<PrettierLanguageService.FormatResult> myFuture;
+
+    private PendingRequest(@NotNull PsiFile file, @Nullable Future<PrettierLanguageService.FormatResult> future) {
+      myFile = file;
+      myFuture = future;
+    }
+  }
+
   public interface ErrorHandler {
     ErrorHandler DEFAULT = new DefaultErrorHandler();
 
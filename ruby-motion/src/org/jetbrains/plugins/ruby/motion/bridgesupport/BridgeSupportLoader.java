@@ -33,6 +33,7 @@ import java.util.Set;
  */
 public class BridgeSupportLoader {
   private final Map<String, List<FrameworkInfo>> myFrameworks = new HashMap<>();
+  private volatile boolean myFrameworksLoaded;
 
   public static BridgeSupportLoader getInstance() {
     return ServiceManager.getService(BridgeSupportLoader.class);
@@ -58,10 +59,20 @@ public class BridgeSupportLoader {
     return null;
   }
 
-  private synchronized void ensureFrameworksLoaded() {
-    if (!myFrameworks.isEmpty()) {
+  private void ensureFrameworksLoaded() {
+    // frameworks are listed once, don't synchronize every lookup
+    if (myFrameworksLoaded) {
       return;
     }
+    synchronized (this) {
+      if (!myFrameworksLoaded) {
+        loadFrameworks();
+        myFrameworksLoaded = !myFrameworks.isEmpty();
+      }
+    }
+  }
+
+  private void loadFrameworks() {
     VirtualFile rubyMotion = VirtualFileUtil.findFileBy(RubyMotionUtil.getInstance().getRubyMotionPath() + "/data/ios/");
     rubyMotion = rubyMotion == null ? VirtualFileUtil.findFileBy(RubyMotionUtil.getInstance().getRubyMotionPath() + "/data/") : rubyMotion;
     loadSdks(rubyMotion);
@@ -18,17 +18,23 @@ package org.jetbrains.plugins.ruby.motion.bridgesupport;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.io.StreamUtil;
 import com.intellij.openapi.util.text.StringUtil;
-import org.jdom.Element;
-import org.jdom.input.SAXBuilder;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.org.objectweb.asm.Opcodes;
 import org.jetbrains.org.objectweb.asm.signature.SignatureReader;
 import org.jetbrains.org.objectweb.asm.signature.SignatureVisitor;
 import org.jetbrains.plugins.ruby.ruby.lang.psi.impl.RNameUtilCore;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.util.List;
 
 /**
+ * Reads .bridgesupport files with a streaming parser: frameworks of large SDKs are hundreds of megabytes of XML,
+ * building a document tree for them is not affordable.
+ * Only direct children of the elements are read, nested elements (like arguments of function pointers) are skipped.
+ *
  * @author Dennis.Ushakov
  */
 public class BridgeSupportReader {
@@ -40,75 +46,140 @@ public class BridgeSupportReader {
 
   public static Framework read(final String name, final String version, final InputStream text, final boolean osx) {
     final Framework framework = new Framework(name, version, osx);
+    XMLStreamReader reader = null;
     try {
-      final Element root = new SAXBuilder().build(text).getRootElement();
-      readFramework(root, framework);
+      reader = createReader(text);
+      if (nextRootElement(reader)) {
+        readFramework(reader, framework);
+      }
       framework.mergeClasses();
     } catch (Exception e) {
+      framework.markIncomplete();
       LOG.error("Can't load framework", e, name, version, osx ? "osx" : "");
     }
     finally {
+      closeReader(reader);
       StreamUtil.closeStream(text);
     }
     framework.seal();
     return framework;
   }
 
-  private static void readFramework(Element root, Framework framework) {
+  private static XMLStreamReader createReader(final InputStream text) throws XMLStreamException {
+    final XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory.createXMLStreamReader(text);
+  }
+
+  private static void closeReader(@Nullable final XMLStreamReader reader) {
+    if (reader == null) return;
+    try {
+      reader.close();
+    }
+    catch (XMLStreamException e) {
+      LOG.debug(e);
+    }
+  }
+
+  private static boolean nextRootElement(final XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      if (reader.next() == XMLStreamConstants.START_ELEMENT) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Moves to the start of the next child of the current element.
+   * Returns {@code false} and stops at the end of the current element if there are no more children.
+   */
+  private static boolean nextChildElement(final XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) return true;
+      if (event == XMLStreamConstants.END_ELEMENT) return false;
+    }
+    return false;
+  }
+
+  /**
+   * Moves from the start of the current element to its end, skipping all nested elements.
+   */
+  private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0 && reader.hasNext()) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  private static String getAttribute(final XMLStreamReader reader, final String name) {
+    return reader.getAttributeValue(null, name);
+  }
 
-    final List children = root.getChildren();
-    for (Object child : children) {
-      final Element e = (Element)child;
-      final String name = e.getName();
+  private static void readFramework(XMLStreamReader reader, Framework framework) throws XMLStreamException {
+    final String rootName = getAttribute(reader, NAME);
+    while (nextChildElement(reader)) {
+      final String name = reader.getLocalName();
       if ("class".equals(name) || "interface".equals(name)) {
-        framework.addClass(readClass(e));
+        framework.addClass(readClass(reader));
       } else if ("informal_protocol".equals(name)) {
-        framework.addProtocol(readClass(e));
+        framework.addProtocol(readClass(reader));
       } else if ("constant".equals(name)) {
-        readConstant(framework, e);
+        readConstant(framework, reader, rootName);
       } else if ("string_constant".equals(name)) {
-        readStringConstant(framework, e);
+        readStringConstant(framework, reader);
       } else if ("enum".equals(name)) {
-        readEnum(framework, e);
+        readEnum(framework, reader);
       } else if ("function".equals(name)) {
-        readFunction(framework, e);
+        readFunction(framework, reader);
       } else if ("function_alias".equals(name)) {
-        readFunctionAlias(framework, e);
+        readFunctionAlias(framework, reader);
       } else if ("struct".equals(name)) {
-        readStruct(framework, e);
+        readStruct(framework, reader);
+      } else {
+        skipElement(reader);
       }
     }
   }
 
-  private static void readStruct(Framework framework, Element e) {
-    final Struct struct = new Struct(e.getAttributeValue(NAME));
-    for (Object o : e.getChildren()) {
-      final Element child = (Element)o;
-      if ("field".equals(child.getName())) {
-        struct.addField(child.getAttributeValue(NAME), getDeclaredType(child));
+  private static void readStruct(Framework framework, XMLStreamReader reader) throws XMLStreamException {
+    final String structName = getAttribute(reader, NAME);
+    final Struct struct = new Struct(structName);
+    while (nextChildElement(reader)) {
+      if ("field".equals(reader.getLocalName())) {
+        struct.addField(getAttribute(reader, NAME), getDeclaredType(reader, structName));
       }
+      skipElement(reader);
     }
     struct.seal();
     framework.addStruct(struct);
   }
 
-  private static void readFunctionAlias(Framework framework, Element e) {
-    framework.addFunctionAlias(e.getAttributeValue("name"), e.getAttributeValue("original"));
+  private static void readFunctionAlias(Framework framework, XMLStreamReader reader) throws XMLStreamException {
+    framework.addFunctionAlias(getAttribute(reader, "name"), getAttribute(reader, "original"));
+    skipElement(reader);
   }
 
-  private static void readFunction(FunctionHolder holder, Element e) {
-    String name = e.getAttributeValue("selector");
-    name = name == null ? e.getAttributeValue(NAME) : name;
-    final Function function = new Function(name, "true".equals(e.getAttributeValue("variadic")),
-                                           "true".equals(e.getAttributeValue("class_method")));
-    final String type = e.getAttributeValue("type");
-    for (Object o : e.getChildren()) {
-      final Element child = (Element)o;
-      if ("arg".equals(child.getName())) {
-        function.addArgument(child.getAttributeValue(NAME), getDeclaredType(child));
-      } else if ("retval".equals(child.getName())) {
-        function.setReturnValue(getDeclaredType(child));
+  private static void readFunction(FunctionHolder holder, XMLStreamReader reader) throws XMLStreamException {
+    final String elementName = getAttribute(reader, NAME);
+    String name = getAttribute(reader, "selector");
+    name = name == null ? elementName : name;
+    final Function function = new Function(name, "true".equals(getAttribute(reader, "variadic")),
+                                           "true".equals(getAttribute(reader, "class_method")));
+    final String type = getAttribute(reader, "type");
+    while (nextChildElement(reader)) {
+      final String childName = reader.getLocalName();
+      if ("arg".equals(childName)) {
+        function.addArgument(getAttribute(reader, NAME), getDeclaredType(reader, elementName));
+      } else if ("retval".equals(childName)) {
+        function.setReturnValue(getDeclaredType(reader, elementName));
       }
+      skipElement(reader);
     }
     if (function.getReturnValue() == null && type != null) {
       readAndroidTypeAndArguments(function, type);
@@ -123,26 +194,30 @@ public class BridgeSupportReader {
     function.setReturnValue(visitor.getReturnType());
   }
 
-  private static void readConstant(Framework framework, Element e) {
-    framework.addConstant(new Constant(e.getAttributeValue(NAME), getDeclaredType(e)));
+  private static void readConstant(Framework framework, XMLStreamReader reader, String rootName) throws XMLStreamException {
+    framework.addConstant(new Constant(getAttribute(reader, NAME), getDeclaredType(reader, rootName)));
+    skipElement(reader);
   }
 
-  private static void readStringConstant(Framework framework, Element e) {
-    final String nsstring = e.getAttributeValue("nsstring");
-    framework.addConstant(new StringConstant(e.getAttributeValue(NAME), e.getAttributeValue("value"), "true".equals(nsstring)));
+  private static void readStringConstant(Framework framework, XMLStreamReader reader) throws XMLStreamException {
+    final String nsstring = getAttribute(reader, "nsstring");
+    framework.addConstant(new StringConstant(getAttribute(reader, NAME), getAttribute(reader, "value"), "true".equals(nsstring)));
+    skipElement(reader);
   }
 
-  private static void readEnum(Framework framework, Element e) {
-    framework.addConstant(new Enum(e.getAttributeValue(NAME), e.getAttributeValue("value")));
+  private static void readEnum(Framework framework, XMLStreamReader reader) throws XMLStreamException {
+    framework.addConstant(new Enum(getAttribute(reader, NAME), getAttribute(reader, "value")));
+    skipElement(reader);
   }
 
-  private static Class readClass(Element e) {
-    final String name = buildClassName(e.getAttributeValue(NAME));
+  private static Class readClass(XMLStreamReader reader) throws XMLStreamException {
+    final String name = buildClassName(getAttribute(reader, NAME));
     final Class clazz = new Class(name);
-    for (Object o : e.getChildren()) {
-      final Element child = (Element)o;
-      if ("method".equals(child.getName())) {
-        readFunction(clazz, child);
+    while (nextChildElement(reader)) {
+      if ("method".equals(reader.getLocalName())) {
+        readFunction(clazz, reader);
+      } else {
+        skipElement(reader);
       }
     }
     clazz.seal();
@@ -157,11 +232,11 @@ public class BridgeSupportReader {
     return StringUtil.join(components, RNameUtilCore.SYMBOL_DELIMITER);
   }
 
-  private static String getDeclaredType(Element e) {
-    String declaredType = e.getAttributeValue(DECLARED_TYPE);
-    declaredType = declaredType == null ? e.getAttributeValue(DECLARED_TYPE64) : declaredType;
+  private static String getDeclaredType(XMLStreamReader reader, String parentName) {
+    String declaredType = getAttribute(reader, DECLARED_TYPE);
+    declaredType = declaredType == null ? getAttribute(reader, DECLARED_TYPE64) : declaredType;
     if (declaredType == null) {
-      LOG.warn("No declared type for " + ((Element)e.getParent()).getAttributeValue(NAME));
+      LOG.warn("No declared type for " + parentName);
       return "void";
     }
     declaredType = StringUtil.trimEnd(declaredType, " _Nullable");
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2000-2017 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.plugins.ruby.motion.bridgesupport;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.io.BufferExposingByteArrayOutputStream;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import gnu.trove.THashSet;
+import gnu.trove.TObjectIntHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Binary copy of a parsed .bridgesupport file kept in the system directory, so that the XML is parsed only once per SDK version.
+ * <p/>
+ * All strings of the framework are written once to a table and referenced by index, so the store is compact and
+ * the loaded framework shares the same string instances for repeated type names.
+ * Selector names go first and can be read without reading the framework itself.
+ */
+class BridgeSupportStore {
+  private static final Logger LOG = Logger.getInstance(BridgeSupportStore.class);
+  private static final int VERSION = 1;
+
+  private static final int CONSTANT = 0;
+  private static final int STRING_CONSTANT = 1;
+  private static final int ENUM = 2;
+
+  static class Data {
+    @Nullable final Framework framework;
+    @NotNull final Set<String> idSelectorNames;
+    @NotNull final Set<String> selectorNames;
+
+    Data(@Nullable Framework framework, @NotNull Set<String> idSelectorNames, @NotNull Set<String> selectorNames) {
+      this.framework = framework;
+      this.idSelectorNames = idSelectorNames;
+      this.selectorNames = selectorNames;
+    }
+  }
+
+  @NotNull
+  static File getStoreFile(@NotNull File bridgeSupportFile) {
+    final String name = FileUtil.getNameWithoutExtension(bridgeSupportFile) + "." +
+                        Integer.toHexString(FileUtil.pathHashCode(bridgeSupportFile.getPath())) + ".dat";
+    return new File(PathManager.getSystemPath(), "rubymotion/bridgesupport/" + name);
+  }
+
+  /**
+   * @return {@code null} if there's no store for the file or it's outdated
+   */
+  @Nullable
+  static Data load(@NotNull File storeFile, @NotNull File bridgeSupportFile, boolean selectorNamesOnly) {
+    if (!storeFile.isFile()) return null;
+
+    boolean outdated = false;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(storeFile)))) {
+      if (in.readInt() != VERSION ||
+          !bridgeSupportFile.getPath().equals(IOUtil.readUTF(in)) ||
+          in.readLong() != bridgeSupportFile.length() ||
+          in.readLong() != bridgeSupportFile.lastModified()) {
+        outdated = true;
+        return null;
+      }
+
+      final String name = IOUtil.readUTF(in);
+      final String version = IOUtil.readUTF(in);
+      final boolean osx = in.readBoolean();
+      final Set<String> idSelectorNames = readNames(in);
+      final Set<String> selectorNames = readNames(in);
+      if (selectorNamesOnly) {
+        return new Data(null, idSelectorNames, selectorNames);
+      }
+
+      final String[] strings = new String[DataInputOutputUtil.readINT(in) + 1];
+      for (int i = 1; i < strings.length; i++) {
+        strings[i] = IOUtil.readUTF(in);
+      }
+      return new Data(readFramework(in, strings, name, version, osx), idSelectorNames, selectorNames);
+    }
+    catch (IOException | RuntimeException e) {
+      LOG.info("Failed to read " + storeFile + ", will be rebuilt", e);
+      outdated = true;
+      return null;
+    }
+    finally {
+      // deleted after the stream is closed
+      if (outdated) {
+        FileUtil.delete(storeFile);
+      }
+    }
+  }
+
+  static void save(@NotNull File storeFile, @NotNull File bridgeSupportFile, @NotNull Data data) {
+    final Framework framework = data.framework;
+    assert framework != null;
+
+    try {
+      final StringTable table = new StringTable();
+      final BufferExposingByteArrayOutputStream body = new BufferExposingByteArrayOutputStream();
+      try (DataOutputStream bodyOut = new DataOutputStream(body)) {
+        writeFramework(bodyOut, table, framework);
+      }
+
+      FileUtil.createParentDirs(storeFile);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(storeFile)))) {
+        out.writeInt(VERSION);
+        IOUtil.writeUTF(out, bridgeSupportFile.getPath());
+        out.writeLong(bridgeSupportFile.length());
+        out.writeLong(bridgeSupportFile.lastModified());
+
+        IOUtil.writeUTF(out, framework.getName());
+        IOUtil.writeUTF(out, framework.getVersion());
+        out.writeBoolean(framework.isOSX());
+        writeNames(out, data.idSelectorNames);
+        writeNames(out, data.selectorNames);
+
+        DataInputOutputUtil.writeINT(out, table.myStrings.size());
+        for (String string : table.myStrings) {
+          IOUtil.writeUTF(out, string);
+        }
+        out.write(body.getInternalBuffer(), 0, body.size());
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Failed to write " + storeFile, e);
+      FileUtil.delete(storeFile);
+    }
+  }
+
+  private static void writeNames(@NotNull DataOutput out, @NotNull Set<String> names) throws IOException {
+    final List<String> notNullNames = ContainerUtil.filter(names, Objects::nonNull);
+    DataInputOutputUtil.writeINT(out, notNullNames.size());
+    for (String name : notNullNames) {
+      IOUtil.writeUTF(out, name);
+    }
+  }
+
+  @NotNull
+  private static Set<String> readNames(@NotNull DataInput in) throws IOException {
+    final int size = DataInputOutputUtil.readINT(in);
+    final Set<String> result = new THashSet<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(IOUtil.readUTF(in));
+    }
+    return result;
+  }
+
+  private static void writeFramework(@NotNull DataOutput out, @NotNull StringTable table, @NotNull Framework framework)
+    throws IOException {
+    // classes are already merged, so nested classes are written as subclasses of their containers
+    writeClasses(out, table, framework.getClasses());
+    writeClasses(out, table, framework.getProtocols());
+
+    final Collection<Constant> constants = framework.getConstants();
+    DataInputOutputUtil.writeINT(out, constants.size());
+    for (Constant constant : constants) {
+      if (constant instanceof StringConstant) {
+        out.writeByte(STRING_CONSTANT);
+        table.write(out, constant.getName());
+        table.write(out, ((StringConstant)constant).getValue());
+        out.writeBoolean(((StringConstant)constant).isNsString());
+      }
+      else if (constant instanceof Enum) {
+        out.writeByte(ENUM);
+        table.write(out, constant.getName());
+        table.write(out, ((Enum)constant).getValue());
+      }
+      else {
+        out.writeByte(CONSTANT);
+        table.write(out, constant.getName());
+        table.write(out, constant.getDeclaredType());
+      }
+    }
+
+    final Collection<Struct> structs = framework.getStructs();
+    DataInputOutputUtil.writeINT(out, structs.size());
+    for (Struct struct : structs) {
+      table.write(out, struct.getName());
+      final Collection<String> fields = struct.getFields();
+      DataInputOutputUtil.writeINT(out, fields.size());
+      for (String field : fields) {
+        table.write(out, field);
+        table.write(out, struct.getFieldType(field));
+      }
+    }
+
+    writeFunctions(out, table, framework.getFunctions());
+
+    final Map<String, String> aliases = framework.getFunctionAliases();
+    DataInputOutputUtil.writeINT(out, aliases.size());
+    for (Map.Entry<String, String> entry : aliases.entrySet()) {
+      table.write(out, entry.getKey());
+      table.write(out, entry.getValue());
+    }
+  }
+
+  @NotNull
+  private static Framework readFramework(@NotNull DataInput in,
+                                         @NotNull String[] strings,
+                                         @NotNull String name,
+                                         @NotNull String version,
+                                         boolean osx) throws IOException {
+    final Framework framework = new Framework(name, version, osx);
+    for (Class clazz : readClasses(in, strings)) {
+      framework.addClass(clazz);
+    }
+    for (Class protocol : readClasses(in, strings)) {
+      framework.addProtocol(protocol);
+    }
+
+    final int constantCount = DataInputOutputUtil.readINT(in);
+    for (int i = 0; i < constantCount; i++) {
+      final int kind = in.readByte();
+      final String constantName = readString(in, strings);
+      if (kind == STRING_CONSTANT) {
+        framework.addConstant(new StringConstant(constantName, readString(in, strings), in.readBoolean()));
+      }
+      else if (kind == ENUM) {
+        framework.addConstant(new Enum(constantName, readString(in, strings)));
+      }
+      else {
+        framework.addConstant(new Constant(constantName, readString(in, strings)));
+      }
+    }
+
+    final int structCount = DataInputOutputUtil.readINT(in);
+    for (int i = 0; i < structCount; i++) {
+      final Struct struct = new Struct(readString(in, strings));
+      final int fieldCount = DataInputOutputUtil.readINT(in);
+      for (int j = 0; j < fieldCount; j++) {
+        struct.addField(readString(in, strings), readString(in, strings));
+      }
+      struct.seal();
+      framework.addStruct(struct);
+    }
+
+    for (Function function : readFunctions(in, strings)) {
+      framework.addFunction(function);
+    }
+
+    final int aliasCount = DataInputOutputUtil.readINT(in);
+    for (int i = 0; i < aliasCount; i++) {
+      framework.addFunctionAlias(readString(in, strings), readString(in, strings));
+    }
+
+    framework.seal();
+    return framework;
+  }
+
+  private static void writeClasses(@NotNull DataOutput out, @NotNull StringTable table, @NotNull Collection<Class> classes)
+    throws IOException {
+    DataInputOutputUtil.writeINT(out, classes.size());
+    for (Class clazz : classes) {
+      table.write(out, clazz.getName());
+      writeFunctions(out, table, clazz.getFunctions());
+      writeClasses(out, table, clazz.getSubClasses());
+    }
+  }
+
+  @NotNull
+  private static List<Class> readClasses(@NotNull DataInput in, @NotNull String[] strings) throws IOException {
+    final int size = DataInputOutputUtil.readINT(in);
+    final List<Class> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final Class clazz = new Class(readString(in, strings));
+      for (Function function : readFunctions(in, strings)) {
+        clazz.addFunction(function);
+      }
+      for (Class subClass : readClasses(in, strings)) {
+        clazz.addSubClass(subClass);
+      }
+      clazz.seal();
+      result.add(clazz);
+    }
+    return result;
+  }
+
+  private static void writeFunctions(@NotNull DataOutput out, @NotNull StringTable table, @NotNull Collection<Function> functions)
+    throws IOException {
+    DataInputOutputUtil.writeINT(out, functions.size());
+    for (Function function : functions) {
+      table.write(out, function.getName());
+      out.writeBoolean(function.isVariadic());
+      out.writeBoolean(function.isClassMethod());
+      table.write(out, function.getReturnValue());
+      final List<Pair<String, String>> arguments = function.getArguments();
+      DataInputOutputUtil.writeINT(out, arguments.size());
+      for (Pair<String, String> argument : arguments) {
+        table.write(out, argument.first);
+        table.write(out, argument.second);
+      }
+    }
+  }
+
+  @NotNull
+  private static List<Function> readFunctions(@NotNull DataInput in, @NotNull String[] strings) throws IOException {
+    final int size = DataInputOutputUtil.readINT(in);
+    final List<Function> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final Function function = new Function(readString(in, strings), in.readBoolean(), in.readBoolean());
+      function.setReturnValue(readString(in, strings));
+      final int argumentCount = DataInputOutputUtil.readINT(in);
+      for (int j = 0; j < argumentCount; j++) {
+        function.addArgument(readString(in, strings), readString(in, strings));
+      }
+      result.add(function);
+    }
+    return result;
+  }
+
+  @Nullable
+  private static String readString(@NotNull DataInput in, @NotNull String[] strings) throws IOException {
+    return strings[DataInputOutputUtil.readINT(in)];
+  }
+
+  /**
+   * Index 0 stands for {@code null}, strings are numbered from 1 in the order they are first written
+   */
+  private static class StringTable {
+    private final TObjectIntHashMap<String> myIds = new TObjectIntHashMap<>();
+    private final List<String> myStrings = new ArrayList<>();
+
+    void write(@NotNull DataOutput out, @Nullable String string) throws IOException {
+      if (string == null) {
+        DataInputOutputUtil.writeINT(out, 0);
+        return;
+      }
+
+      int id = myIds.get(string);
+      if (id == 0) {
+        myStrings.add(string);
+        id = myStrings.size();
+        myIds.put(string, id);
+      }
+      DataInputOutputUtil.writeINT(out, id);
+    }
+  }
+}
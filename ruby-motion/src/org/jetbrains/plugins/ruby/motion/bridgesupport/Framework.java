@@ -35,6 +35,7 @@ public class Framework extends FunctionHolder {
   private final String myName;
   private final String myVersion;
   private final boolean myOSX;
+  private boolean myComplete = true;
 
   public Framework(String name, String version, boolean osx) {
     myName = name;
@@ -136,6 +137,17 @@ public class Framework extends FunctionHolder {
     return myFunctionAliases.get(name);
   }
 
+  /**
+   * @return {@code false} if reading the .bridgesupport file failed and the framework contains only a part of it
+   */
+  boolean isComplete() {
+    return myComplete;
+  }
+
+  void markIncomplete() {
+    myComplete = false;
+  }
+
   void mergeClasses() {
     if (!"android".equals(myName)) return;
 
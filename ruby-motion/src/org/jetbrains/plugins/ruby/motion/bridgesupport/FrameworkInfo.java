@@ -25,6 +25,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.ruby.motion.symbols.MotionSymbolUtil;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Set;
 
@@ -60,16 +61,35 @@ public class FrameworkInfo {
   @Nullable
   public synchronized Set<String> getIdSelectorNames() {
     Set<String> result = SoftReference.dereference(myIdSelectorNames);
-    return result != null ? result : reloadFramework().second;
+    return result != null ? result : reloadSelectorNames().second;
   }
 
   @Nullable
   public synchronized Set<String> getSelectorNames() {
     Set<String> result = SoftReference.dereference(mySelectorNames);
-    return result != null ? result : reloadFramework().third;
+    return result != null ? result : reloadSelectorNames().third;
+  }
+
+  private Trinity<Framework, Set<String>, Set<String>> reloadSelectorNames() {
+    // selector names are much smaller than the framework, don't load it if the selectors are in the store
+    final File bridgeSupportFile = new File(myBridgeSupportPath);
+    final File storeFile = BridgeSupportStore.getStoreFile(bridgeSupportFile);
+    final BridgeSupportStore.Data data = BridgeSupportStore.load(storeFile, bridgeSupportFile, true);
+    if (data == null) return reloadFramework();
+
+    myIdSelectorNames = new SoftReference<>(data.idSelectorNames);
+    mySelectorNames = new SoftReference<>(data.selectorNames);
+    return Trinity.create(null, data.idSelectorNames, data.selectorNames);
   }
 
   private Trinity<Framework, Set<String>, Set<String>> reloadFramework() {
+    final File bridgeSupportFile = new File(myBridgeSupportPath);
+    final File storeFile = BridgeSupportStore.getStoreFile(bridgeSupportFile);
+    final BridgeSupportStore.Data data = BridgeSupportStore.load(storeFile, bridgeSupportFile, false);
+    if (data != null) {
+      return remember(data.framework, data.idSelectorNames, data.selectorNames);
+    }
+
     VirtualFile file = LocalFileSystem.getInstance().findFileByPath(myBridgeSupportPath);
     if (file == null) return Trinity.create(null, null, null);
 
@@ -92,6 +112,16 @@ public class FrameworkInfo {
     catch (IOException e) {
       LOG.error("Failed to load bridgesupport file", e);
     }
+    // a partially read framework is still used, but it's read again next time
+    if (framework != null && framework.isComplete()) {
+      BridgeSupportStore.save(storeFile, bridgeSupportFile, new BridgeSupportStore.Data(framework, idSelectorNames, selectorNames));
+    }
+    return remember(framework, idSelectorNames, selectorNames);
+  }
+
+  private Trinity<Framework, Set<String>, Set<String>> remember(@Nullable Framework framework,
+                                                                @Nullable Set<String> idSelectorNames,
+                                                                @Nullable Set<String> selectorNames) {
     myFramework = framework != null ? new SoftReference<>(framework) : null;
     myIdSelectorNames = idSelectorNames != null ? new SoftReference<>(idSelectorNames) : null;
     mySelectorNames = selectorNames != null ? new SoftReference<>(selectorNames) : null;
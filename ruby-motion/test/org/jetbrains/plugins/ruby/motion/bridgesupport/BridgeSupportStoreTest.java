@@ -0,0 +1,113 @@
+/*
+ * Copyright 2000-2017 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.plugins.ruby.motion.bridgesupport;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import com.intellij.util.containers.ContainerUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Set;
+
+public class BridgeSupportStoreTest extends UsefulTestCase {
+  public void testClassesAndConstants() throws Exception {
+    final Framework framework = saveAndLoad("QuartzCore").framework;
+    assertNotNull(framework);
+    assertSize(21, framework.getClasses());
+    assertSize(4, framework.getProtocols());
+    assertSize(101, framework.getConstants());
+    assertEquals("NSString*", framework.getConstant("kCAEmitterLayerCircle").getDeclaredType());
+    final Function function = framework.getProtocol("CAAnimationDelegate").getFunction("animationDidStop:finished:");
+    assertNotNull(function);
+    assertSize(2, function.getArguments());
+  }
+
+  public void testStructsFunctionsAndAliases() throws Exception {
+    Framework framework = saveAndLoad("MapKit").framework;
+    assertNotNull(framework);
+    assertEquals("CLLocationDegrees", framework.getStruct("MKCoordinateSpan").getFieldType("latitudeDelta"));
+
+    framework = saveAndLoad("CoreGraphics").framework;
+    assertNotNull(framework);
+    assertEquals("__CGSizeApplyAffineTransform", framework.getOriginalFunctionName("CGSizeApplyAffineTransform"));
+
+    framework = saveAndLoad("SystemConfiguration").framework;
+    assertNotNull(framework);
+    final StringConstant constant = assertInstanceOf(framework.getConstant("kSCNetworkConnectionPacketsIn"), StringConstant.class);
+    assertEquals("PacketsIn", constant.getValue());
+    assertTrue(constant.isNsString());
+  }
+
+  public void testAndroidSubClasses() throws Exception {
+    final Framework framework = saveAndLoad("android").framework;
+    assertNotNull(framework);
+    final Class activity = framework.getClass("Android::App::Activity");
+    assertNotNull(activity);
+    assertEquals("Android::Database::Cursor", activity.getFunction("managedQuery").getReturnValue());
+  }
+
+  public void testSelectorNamesOnly() throws Exception {
+    final File bridgeSupportFile = getTestFile("QuartzCore");
+    final File storeFile = FileUtil.createTempFile("bridgesupport", ".dat", true);
+    final Framework framework = read(bridgeSupportFile, "QuartzCore");
+    BridgeSupportStore.save(storeFile, bridgeSupportFile, new BridgeSupportStore.Data(framework, ContainerUtil.newHashSet("init"),
+                                                                                      ContainerUtil.newHashSet("init", "layer")));
+
+    final BridgeSupportStore.Data data = BridgeSupportStore.load(storeFile, bridgeSupportFile, true);
+    assertNotNull(data);
+    assertNull(data.framework);
+    assertSameElements(data.idSelectorNames, "init");
+    assertSameElements(data.selectorNames, "init", "layer");
+  }
+
+  public void testOutdatedStore() throws Exception {
+    final File bridgeSupportFile = getTestFile("QuartzCore");
+    final File storeFile = FileUtil.createTempFile("bridgesupport", ".dat", true);
+    final Framework framework = read(bridgeSupportFile, "QuartzCore");
+    BridgeSupportStore.save(storeFile, bridgeSupportFile, new BridgeSupportStore.Data(framework, ContainerUtil.newHashSet(),
+                                                                                      ContainerUtil.newHashSet()));
+
+    assertNull(BridgeSupportStore.load(storeFile, getTestFile("MapKit"), false));
+    assertFalse(storeFile.exists());
+  }
+
+  private static BridgeSupportStore.Data saveAndLoad(final String motion) throws Exception {
+    final File bridgeSupportFile = getTestFile(motion);
+    final File storeFile = FileUtil.createTempFile("bridgesupport", ".dat", true);
+    final Set<String> names = ContainerUtil.newHashSet();
+    BridgeSupportStore.save(storeFile, bridgeSupportFile, new BridgeSupportStore.Data(read(bridgeSupportFile, motion), names, names));
+
+    final BridgeSupportStore.Data data = BridgeSupportStore.load(storeFile, bridgeSupportFile, false);
+    assertNotNull(data);
+    return data;
+  }
+
+  private static Framework read(final File file, final String motion) throws Exception {
+    try (InputStream stream = new FileInputStream(file)) {
+      return BridgeSupportReader.read(motion, "666", stream, false);
+    }
+  }
+
+  private static File getTestFile(final String filename) {
+    final String path = PathManager.getHomePath() + "/contrib/ruby-motion/test/org/jetbrains/plugins/ruby/motion/bridgesupport/data/" + filename + ".bridgesupport";
+    final File file = new File(path);
+    assertTrue(path, file.exists());
+    return file;
+  }
+}
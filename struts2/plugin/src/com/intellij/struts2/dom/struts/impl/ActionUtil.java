@@ -23,6 +23,7 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PropertyUtilBase;
+import com.intellij.struts2.dom.struts.action.Action;
 import com.intellij.util.SmartList;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NonNls;
@@ -39,11 +40,22 @@ import java.util.regex.PatternSyntaxException;
  *
  * @author Yann C&eacute;bron
  */
-final class ActionUtil {
+public final class ActionUtil {
 
   private ActionUtil() {
   }
 
+  /**
+   * Returns the path of the given Action as used for matching.
+   *
+   * @param action Action.
+   * @return {@code null} if not set.
+   */
+  @Nullable
+  public static String getNameValue(@NotNull final Action action) {
+    return action.getName().getRawText();
+  }
+
   /**
    * Does the given path match the Action's path (including support for wildcards and bang notation).
    *
@@ -53,20 +65,42 @@ final class ActionUtil {
    */
   static boolean matchesPath(@NotNull @NonNls final String actionPath,
                              @NotNull @NonNls final String checkPath) {
-    // strip everything behind "!"
-    final int bangIdx = checkPath.indexOf('!');
-    final String strippedCheckPath = bangIdx == -1 ? checkPath : checkPath.substring(0, bangIdx);
+    final String strippedCheckPath = stripBangNotation(checkPath);
 
     // do we have any wildcard-markers in our path? no --> exact compare
     if (actionPath.indexOf('*') == -1) {
       return Comparing.equal(strippedCheckPath, actionPath);
     }
 
+    final Pattern pattern = compileWildcardPath(actionPath);
+    return pattern != null && pattern.matcher(strippedCheckPath).matches();
+  }
+
+  /**
+   * Strips everything behind "!" (bang notation).
+   *
+   * @param checkPath Path to check.
+   * @return Path without method invocation suffix.
+   */
+  @NotNull
+  public static String stripBangNotation(@NotNull @NonNls final String checkPath) {
+    final int bangIdx = checkPath.indexOf('!');
+    return bangIdx == -1 ? checkPath : checkPath.substring(0, bangIdx);
+  }
+
+  /**
+   * Compiles the given wildcard Action path for repeated matching.
+   *
+   * @param actionPath Path of Action containing wildcards.
+   * @return {@code null} if path cannot be compiled.
+   */
+  @Nullable
+  public static Pattern compileWildcardPath(@NotNull @NonNls final String actionPath) {
     try {
-      return Pattern.matches(StringUtil.replace(actionPath, "*", "[^/]*"), strippedCheckPath);
+      return Pattern.compile(StringUtil.replace(actionPath, "*", "[^/]*"));
     }
     catch (PatternSyntaxException e) {
-      return false;
+      return null;
     }
   }
 
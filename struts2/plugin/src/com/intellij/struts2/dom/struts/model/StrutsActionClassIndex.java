@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.struts.model;
+
+import com.intellij.openapi.util.Comparing;
+import com.intellij.psi.PsiClass;
+import com.intellij.struts2.dom.struts.action.Action;
+import com.intellij.struts2.dom.struts.strutspackage.StrutsPackage;
+import com.intellij.util.SmartList;
+import com.intellij.util.containers.MultiMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lookup table for Actions of a {@link StrutsModel} by the FQN of their resolved Action class.
+ * <p/>
+ * Resolving the Action classes depends on Java structure, so this table is built only when Actions are looked up by class.
+ * Results are returned in declaration order, same as scanning all packages.
+ */
+class StrutsActionClassIndex {
+
+  private final MultiMap<String, Action> myActionsByClass = MultiMap.createLinked();
+
+  StrutsActionClassIndex(@NotNull final List<StrutsPackage> strutsPackages) {
+    for (final StrutsPackage strutsPackage : strutsPackages) {
+      for (final Action action : strutsPackage.getActions()) {
+        final PsiClass actionClass = action.searchActionClass();
+        if (actionClass != null) {
+          final String qualifiedName = actionClass.getQualifiedName();
+          if (qualifiedName != null) {
+            myActionsByClass.putValue(qualifiedName, action);
+          }
+        }
+      }
+    }
+  }
+
+  @NotNull
+  List<Action> findActionsByClass(@NotNull final PsiClass clazz,
+                                  final boolean skipOnFirst) {
+    final String qualifiedName = clazz.getQualifiedName();
+    if (qualifiedName == null) {
+      return Collections.emptyList();
+    }
+
+    final Collection<Action> actions = myActionsByClass.get(qualifiedName);
+    if (actions.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<Action> actionResultList = new SmartList<>();
+    for (final Action action : actions) {
+      // FQNs may clash across modules/libraries --> verify candidate
+      if (Comparing.equal(clazz, action.searchActionClass())) {
+        actionResultList.add(action);
+        if (skipOnFirst) {
+          return actionResultList;
+        }
+      }
+    }
+    return actionResultList;
+  }
+}
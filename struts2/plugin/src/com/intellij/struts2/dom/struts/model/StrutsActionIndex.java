@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.struts.model;
+
+import com.intellij.openapi.util.Comparing;
+import com.intellij.struts2.dom.struts.action.Action;
+import com.intellij.struts2.dom.struts.impl.ActionUtil;
+import com.intellij.struts2.dom.struts.strutspackage.StrutsPackage;
+import com.intellij.util.SmartList;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup table for Actions of a {@link StrutsModel} by name.
+ * <p/>
+ * Exact names are mapped, wildcard names are compiled once. Built from the DOM only.
+ * Results are returned in declaration order, same as scanning all packages.
+ */
+class StrutsActionIndex {
+
+  private final MultiMap<String, ActionEntry> myActionsByName = MultiMap.createLinked();
+  private final List<ActionEntry> myWildcardActions = new ArrayList<>();
+
+  StrutsActionIndex(@NotNull final List<StrutsPackage> strutsPackages) {
+    int ordinal = 0;
+    for (final StrutsPackage strutsPackage : strutsPackages) {
+      final String namespace = strutsPackage.searchNamespace();
+      for (final Action action : strutsPackage.getActions()) {
+        final ActionEntry entry = new ActionEntry(ordinal++, action, namespace);
+
+        final String name = ActionUtil.getNameValue(action);
+        if (name == null) {
+          continue;
+        }
+
+        if (name.indexOf('*') == -1) {
+          myActionsByName.putValue(name, entry);
+        }
+        else {
+          entry.myPattern = ActionUtil.compileWildcardPath(name);
+          if (entry.myPattern != null) {
+            myWildcardActions.add(entry);
+          }
+        }
+      }
+    }
+  }
+
+  @NotNull
+  List<Action> findActionsByName(@NotNull @NonNls final String name,
+                                 @Nullable @NonNls final String namespace) {
+    final String strippedPath = ActionUtil.stripBangNotation(name);
+
+    final List<ActionEntry> entries = new SmartList<>();
+    for (final ActionEntry entry : myActionsByName.get(strippedPath)) {
+      if (entry.isInNamespace(namespace)) {
+        entries.add(entry);
+      }
+    }
+
+    final boolean hasExactMatches = !entries.isEmpty();
+    for (final ActionEntry entry : myWildcardActions) {
+      if (entry.isInNamespace(namespace) &&
+          entry.myPattern.matcher(strippedPath).matches()) {
+        entries.add(entry);
+      }
+    }
+
+    // restore declaration order when mixing exact and wildcard matches
+    if (hasExactMatches && entries.size() > 1) {
+      Collections.sort(entries, (o1, o2) -> Integer.compare(o1.myOrdinal, o2.myOrdinal));
+    }
+    return ContainerUtil.map(entries, entry -> entry.myAction);
+  }
+
+  private static class ActionEntry {
+
+    private final int myOrdinal;
+    private final Action myAction;
+    private final String myNamespace;
+    private Pattern myPattern;
+
+    private ActionEntry(final int ordinal, final Action action, final String namespace) {
+      myOrdinal = ordinal;
+      myAction = action;
+      myNamespace = namespace;
+    }
+
+    private boolean isInNamespace(@Nullable final String namespace) {
+      return namespace == null || Comparing.equal(namespace, myNamespace);
+    }
+  }
+}
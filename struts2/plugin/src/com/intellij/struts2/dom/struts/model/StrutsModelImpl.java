@@ -15,8 +15,13 @@
 
 package com.intellij.struts2.dom.struts.model;
 
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Comparing;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.struts2.dom.struts.StrutsRoot;
 import com.intellij.struts2.dom.struts.action.Action;
@@ -30,6 +35,7 @@ import com.intellij.util.Processor;
 import com.intellij.util.SmartList;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
 import com.intellij.util.xml.model.impl.DomModelImpl;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -51,6 +57,9 @@ class StrutsModelImpl extends DomModelImpl<StrutsRoot> implements StrutsModel {
   private static final Function<StrutsRoot, Collection<? extends StrutsPackage>> STRUTS_PACKAGE_COLLECTOR =
     strutsRoot -> strutsRoot.getPackages();
 
+  private volatile CachedValue<StrutsActionIndex> myActionIndex;
+  private volatile CachedValue<StrutsActionClassIndex> myActionClassIndex;
+
   StrutsModelImpl(@NotNull final DomFileElement<StrutsRoot> strutsRootDomFileElement,
                   @NotNull final Set<XmlFile> xmlFiles) {
     super(strutsRootDomFileElement, xmlFiles);
@@ -85,37 +94,45 @@ class StrutsModelImpl extends DomModelImpl<StrutsRoot> implements StrutsModel {
   @NotNull
   public List<Action> findActionsByName(@NotNull @NonNls final String name,
                                         @Nullable @NonNls final String namespace) {
-    return ContainerUtil.findAll(getActionsForNamespace(namespace), action -> action.matchesPath(name));
+    return getActionIndex().findActionsByName(name, namespace);
   }
 
   @Override
   @NotNull
   public List<Action> findActionsByClass(@NotNull final PsiClass clazz) {
-    return findActionsByClassInner(clazz, false);
+    return getActionClassIndex().findActionsByClass(clazz, false);
   }
 
-  private List<Action> findActionsByClassInner(final PsiClass clazz,
-                                               final boolean skipOnFirst) {
-    final List<Action> actionResultList = new SmartList<>();
+  @Override
+  public boolean isActionClass(@NotNull final PsiClass clazz) {
+    return !getActionClassIndex().findActionsByClass(clazz, true).isEmpty();
+  }
 
-    for (final StrutsPackage strutsPackage : getStrutsPackages()) {
-      for (final Action action : strutsPackage.getActions()) {
-        final PsiClass actionClassValue = action.searchActionClass();
-        if (Comparing.equal(clazz, actionClassValue)) {
-          actionResultList.add(action);
-          if (skipOnFirst) {
-            return actionResultList;
-          }
-        }
-      }
+  /**
+   * Action lookup by name, rebuilt on DOM changes.
+   */
+  private StrutsActionIndex getActionIndex() {
+    if (myActionIndex == null) {
+      final Project project = getMergedModel().getManager().getProject();
+      myActionIndex = CachedValuesManager.getManager(project).createCachedValue(
+        () -> CachedValueProvider.Result.create(new StrutsActionIndex(getStrutsPackages()),
+                                                DomManager.getDomManager(project)), false);
     }
-
-    return actionResultList;
+    return myActionIndex.getValue();
   }
 
-  @Override
-  public boolean isActionClass(@NotNull final PsiClass clazz) {
-    return !findActionsByClassInner(clazz, true).isEmpty();
+  /**
+   * Action lookup by class, built on first use and rebuilt on DOM changes or Java structure changes (Action class resolving).
+   */
+  private StrutsActionClassIndex getActionClassIndex() {
+    if (myActionClassIndex == null) {
+      final Project project = getMergedModel().getManager().getProject();
+      myActionClassIndex = CachedValuesManager.getManager(project).createCachedValue(
+        () -> CachedValueProvider.Result.create(new StrutsActionClassIndex(getStrutsPackages()),
+                                                DomManager.getDomManager(project),
+                                                PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT), false);
+    }
+    return myActionClassIndex.getValue();
   }
 
   @Override
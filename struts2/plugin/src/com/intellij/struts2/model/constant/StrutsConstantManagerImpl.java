@@ -15,34 +15,15 @@
 
 package com.intellij.struts2.model.constant;
 
-import com.intellij.javaee.model.xml.ParamValue;
-import com.intellij.javaee.model.xml.web.Filter;
-import com.intellij.javaee.model.xml.web.WebApp;
 import com.intellij.javaee.web.WebUtil;
-import com.intellij.javaee.web.facet.WebFacet;
-import com.intellij.lang.properties.IProperty;
-import com.intellij.lang.properties.PropertiesImplUtil;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
-import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Comparing;
-import com.intellij.openapi.util.Condition;
-import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.openapi.vfs.JarFileSystem;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.util.InheritanceUtil;
 import com.intellij.psi.xml.XmlFile;
-import com.intellij.struts2.StrutsConstants;
 import com.intellij.struts2.dom.struts.StrutsRoot;
-import com.intellij.struts2.dom.struts.constant.Constant;
 import com.intellij.struts2.dom.struts.model.StrutsManager;
 import com.intellij.struts2.dom.struts.model.StrutsModel;
-import com.intellij.util.CommonProcessors;
-import com.intellij.util.FilteringProcessor;
-import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.xml.ConvertContext;
 import com.intellij.util.xml.Converter;
 import com.intellij.util.xml.DomFileElement;
@@ -51,8 +32,6 @@ import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -60,31 +39,10 @@ import java.util.List;
  */
 public class StrutsConstantManagerImpl extends StrutsConstantManager {
 
-  @NonNls
-  private static final String STRUTS_DEFAULT_PROPERTIES = "/org/apache/struts2/default.properties";
-
-  @NonNls
-  private static final String STRUTS_PROPERTIES_FILENAME = "struts.properties";
-
-  private static final Condition<Filter> WEB_XML_STRUTS_FILTER_CONDITION = filter -> {
-    final PsiClass filterClass = filter.getFilterClass().getValue();
-    return InheritanceUtil.isInheritor(filterClass, StrutsConstants.STRUTS_2_0_FILTER_CLASS) ||
-           InheritanceUtil.isInheritor(filterClass, StrutsConstants.STRUTS_2_1_FILTER_CLASS);
-  };
-
-
   @NotNull
   @Override
   public List<StrutsConstant> getConstants(@NotNull final Module module) {
-    return ContainerUtil.concat(
-      EP_NAME.getExtensionList(),
-        contributor -> {
-          if (!contributor.isAvailable(module)) {
-            return Collections.emptyList();
-          }
-
-          return contributor.getStrutsConstantDefinitions(module);
-        });
+    return StrutsConstantSnapshot.getInstance(module).getConstants();
   }
 
   @Override
@@ -96,7 +54,7 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
       return null;
     }
 
-    final StrutsConstant strutsConstant = ContainerUtil.find(getConstants(module), strutsConstant1 -> Comparing.equal(strutsConstant1.getName(), strutsConstantKey.getKey()));
+    final StrutsConstant strutsConstant = StrutsConstantSnapshot.getInstance(module).findConstant(strutsConstantKey.getKey());
 
     //noinspection unchecked
     return strutsConstant != null ? strutsConstant.getConverter() : null;
@@ -144,74 +102,10 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
   private static String getStringValue(@NotNull final PsiFile context,
                                        @NotNull final StrutsModel strutsModel,
                                        @NotNull @NonNls final String name) {
-    final Project project = context.getProject();
     final Module module = ModuleUtilCore.findModuleForPsiElement(context);
     assert module != null : context;
 
-    // collect all properties with matching key
-    final List<IProperty> properties = PropertiesImplUtil.findPropertiesByKey(project, name);
-
-    String value = null;
-
-    // 1. default.properties from struts2-core.jar
-    final IProperty strutsDefaultProperty = ContainerUtil.find(properties, property -> {
-      final VirtualFile virtualFile = property.getPropertiesFile().getVirtualFile();
-      return virtualFile != null &&
-             virtualFile.getFileSystem() instanceof JarFileSystem &&
-             StringUtil.endsWith(virtualFile.getPath(), STRUTS_DEFAULT_PROPERTIES) &&
-             ModuleUtilCore.moduleContainsFile(module, virtualFile, true);
-    });
-    if (strutsDefaultProperty != null) {
-      value = strutsDefaultProperty.getValue();
-    }
-
-    // 2. <constant> from StrutsModel
-    final Condition<Constant> constantNameCondition = constant -> Comparing.equal(constant.getName().getStringValue(), name);
-
-    final List<DomFileElement<StrutsRoot>> domFileElements = new ArrayList<>();
-    collectStrutsXmls(domFileElements, strutsModel, "struts-default.xml", true);
-    collectStrutsXmls(domFileElements, strutsModel, "struts-plugin.xml", true);
-    collectStrutsXmls(domFileElements, strutsModel, "struts.xml", false);
-    for (final DomFileElement<StrutsRoot> domFileElement : domFileElements) {
-      final Constant constant = ContainerUtil.find(domFileElement.getRootElement().getConstants(),
-                                                   constantNameCondition);
-      final String strutsXmlValue = constant != null ? constant.getValue().getStringValue() : null;
-      if (strutsXmlValue != null) {
-        value = strutsXmlValue;
-      }
-    }
-
-    // 3. struts.properties in current module
-    final IProperty strutsProperty = ContainerUtil.find(properties, property -> {
-      final VirtualFile virtualFile = property.getPropertiesFile().getVirtualFile();
-      return virtualFile != null &&
-             Comparing.equal(virtualFile.getName(), STRUTS_PROPERTIES_FILENAME) &&
-             ModuleUtilCore.moduleContainsFile(module, virtualFile, false);
-    });
-    if (strutsProperty != null) {
-      value = strutsProperty.getValue();
-    }
-
-    // 4. web.xml
-    final WebFacet webFacet = WebUtil.getWebFacet(context);
-    if (webFacet == null) {
-      return value; // should not happen in real projects..
-    }
-    final WebApp webApp = webFacet.getRoot();
-    if (webApp == null) {
-      return value; // no web.xml
-    }
-
-    final Filter filter = ContainerUtil.find(webApp.getFilters(), WEB_XML_STRUTS_FILTER_CONDITION);
-    if (filter != null) {
-      final ParamValue initParam = ContainerUtil.find(filter.getInitParams(),
-                                                      (Condition<ParamValue>)paramValue -> Comparing.equal(paramValue.getParamName().getStringValue(), name));
-      if (initParam != null) {
-        value = initParam.getParamValue().getStringValue();
-      }
-    }
-
-    return value;
+    return StrutsConstantSnapshot.getInstance(module).getStringValue(strutsModel, WebUtil.getWebFacet(context), name);
   }
 
   /**
@@ -232,45 +126,4 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
     }
     return model;
   }
-
-  /**
-   * Adds all struts.xml files matching the given filename.
-   *
-   * @param domFileElements Elements to add to.
-   * @param model           StrutsModel to search for matching struts.xml.
-   * @param strutsXmlName   Name to match.
-   * @param onlyInJARs      Only include struts.xml files located in JAR files.
-   */
-  private static void collectStrutsXmls(@NotNull final List<DomFileElement<StrutsRoot>> domFileElements,
-                                        @NotNull final StrutsModel model,
-                                        @NotNull @NonNls final String strutsXmlName,
-                                        final boolean onlyInJARs) {
-    ContainerUtil.process(model.getRoots(),
-                          new FilteringProcessor<>(
-                            getStrutsXmlCondition(strutsXmlName, onlyInJARs),
-                            new CommonProcessors.CollectProcessor<>(domFileElements)));
-  }
-
-  /**
-   * Returns matcher condition.
-   *
-   * @param strutsXmlName Filename to match.
-   * @param onlyInJARs    Only include struts.xml files located in JAR files.
-   * @return Condition.
-   */
-  private static Condition<DomFileElement<StrutsRoot>> getStrutsXmlCondition(final String strutsXmlName,
-                                                                             final boolean onlyInJARs) {
-    return strutsRootDomFileElement -> {
-      final XmlFile xmlFile = strutsRootDomFileElement.getFile();
-      final boolean nameMatch = Comparing.equal(xmlFile.getName(), strutsXmlName);
-      if (!onlyInJARs) {
-        return nameMatch;
-      }
-
-      final VirtualFile virtualFile = xmlFile.getVirtualFile();
-      return nameMatch &&
-             virtualFile != null &&
-             virtualFile.getFileSystem() instanceof JarFileSystem;
-    };
-  }
 }
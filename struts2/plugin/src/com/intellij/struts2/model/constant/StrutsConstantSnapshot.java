@@ -0,0 +1,294 @@
+/*
+ * Copyright 2018 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.model.constant;
+
+import com.intellij.javaee.model.xml.ParamValue;
+import com.intellij.javaee.model.xml.web.Filter;
+import com.intellij.javaee.model.xml.web.WebApp;
+import com.intellij.javaee.web.facet.WebFacet;
+import com.intellij.lang.properties.IProperty;
+import com.intellij.lang.properties.psi.PropertiesFile;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Comparing;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.JarFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.struts2.StrutsConstants;
+import com.intellij.struts2.dom.struts.StrutsRoot;
+import com.intellij.struts2.dom.struts.constant.Constant;
+import com.intellij.struts2.dom.struts.model.StrutsModel;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.FilteringProcessor;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Constant definitions and effective constant values of a module, rebuilt on DOM changes, changes of the properties files read,
+ * Java structure changes (contributors and web.xml filter class resolving) and module root changes.
+ * <p/>
+ * Values are merged once per StrutsModel and web facet from (in ascending priority):
+ * <ol>
+ * <li>{@code default.properties} from struts2-core.jar</li>
+ * <li>{@code <constant>} from struts-default.xml, struts-plugin.xml and struts.xml</li>
+ * <li>{@code struts.properties} in the module</li>
+ * <li>Struts filter init-params in web.xml</li>
+ * </ol>
+ */
+final class StrutsConstantSnapshot {
+
+  @NonNls
+  private static final String STRUTS_DEFAULT_PROPERTIES_FILENAME = "default.properties";
+
+  @NonNls
+  private static final String STRUTS_DEFAULT_PROPERTIES = "/org/apache/struts2/" + STRUTS_DEFAULT_PROPERTIES_FILENAME;
+
+  @NonNls
+  private static final String STRUTS_PROPERTIES_FILENAME = "struts.properties";
+
+  private static final Condition<Filter> WEB_XML_STRUTS_FILTER_CONDITION = filter -> {
+    final PsiClass filterClass = filter.getFilterClass().getValue();
+    return InheritanceUtil.isInheritor(filterClass, StrutsConstants.STRUTS_2_0_FILTER_CLASS) ||
+           InheritanceUtil.isInheritor(filterClass, StrutsConstants.STRUTS_2_1_FILTER_CLASS);
+  };
+
+  private final List<StrutsConstant> myConstants;
+  private final Map<String, StrutsConstant> myConstantsByName = new THashMap<>();
+
+  private final Map<String, String> myDefaultValues = new THashMap<>();
+  private final Map<String, String> myStrutsPropertiesValues = new THashMap<>();
+  private final List<PsiFile> myPropertiesFiles = new ArrayList<>();
+
+  private final Map<Pair<StrutsModel, WebFacet>, Map<String, String>> myValues = ContainerUtil.newConcurrentMap();
+
+  private StrutsConstantSnapshot(@NotNull final Module module) {
+    myConstants = ContainerUtil.concat(
+      StrutsConstantManager.EP_NAME.getExtensionList(),
+      contributor -> {
+        if (!contributor.isAvailable(module)) {
+          return Collections.emptyList();
+        }
+
+        return contributor.getStrutsConstantDefinitions(module);
+      });
+    for (final StrutsConstant constant : myConstants) {
+      if (!myConstantsByName.containsKey(constant.getName())) {
+        myConstantsByName.put(constant.getName(), constant);
+      }
+    }
+
+    final Project project = module.getProject();
+    final GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+
+    // 1. default.properties from struts2-core.jar
+    for (final PsiFile psiFile : FilenameIndex.getFilesByName(project, STRUTS_DEFAULT_PROPERTIES_FILENAME, scope)) {
+      final VirtualFile virtualFile = psiFile.getVirtualFile();
+      if (virtualFile != null &&
+          virtualFile.getFileSystem() instanceof JarFileSystem &&
+          StringUtil.endsWith(virtualFile.getPath(), STRUTS_DEFAULT_PROPERTIES) &&
+          ModuleUtilCore.moduleContainsFile(module, virtualFile, true)) {
+        collectProperties(psiFile, myDefaultValues);
+      }
+    }
+
+    // 3. struts.properties in current module
+    for (final PsiFile psiFile : FilenameIndex.getFilesByName(project, STRUTS_PROPERTIES_FILENAME, scope)) {
+      final VirtualFile virtualFile = psiFile.getVirtualFile();
+      if (virtualFile != null &&
+          ModuleUtilCore.moduleContainsFile(module, virtualFile, false)) {
+        collectProperties(psiFile, myStrutsPropertiesValues);
+      }
+    }
+  }
+
+  @NotNull
+  static StrutsConstantSnapshot getInstance(@NotNull final Module module) {
+    return CachedValuesManager.getManager(module.getProject()).getCachedValue(module, () -> {
+      final StrutsConstantSnapshot snapshot = new StrutsConstantSnapshot(module);
+
+      final List<Object> dependencies = new ArrayList<>(snapshot.myPropertiesFiles);
+      dependencies.add(DomManager.getDomManager(module.getProject()));
+      dependencies.add(PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+      dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+      dependencies.add(ProjectRootManager.getInstance(module.getProject()));
+      return CachedValueProvider.Result.create(snapshot, dependencies.toArray());
+    });
+  }
+
+  private void collectProperties(@NotNull final PsiFile psiFile, @NotNull final Map<String, String> values) {
+    if (!(psiFile instanceof PropertiesFile)) {
+      return;
+    }
+
+    myPropertiesFiles.add(psiFile);
+    for (final IProperty property : ((PropertiesFile)psiFile).getProperties()) {
+      final String key = property.getKey();
+      if (key != null && !values.containsKey(key)) {
+        values.put(key, property.getValue());
+      }
+    }
+  }
+
+  /**
+   * @return all constant definitions contributed for the module.
+   */
+  @NotNull
+  List<StrutsConstant> getConstants() {
+    return myConstants;
+  }
+
+  @Nullable
+  StrutsConstant findConstant(@NotNull @NonNls final String name) {
+    return myConstantsByName.get(name);
+  }
+
+  /**
+   * Returns the plain String value for the given constant.
+   *
+   * @param strutsModel StrutsModel.
+   * @param webFacet    Web facet of the current context.
+   * @param name        Name of constant.
+   * @return {@code null} if no value could be resolved.
+   */
+  @Nullable
+  String getStringValue(@NotNull final StrutsModel strutsModel,
+                        @Nullable final WebFacet webFacet,
+                        @NotNull @NonNls final String name) {
+    final Pair<StrutsModel, WebFacet> key = Pair.create(strutsModel, webFacet);
+    Map<String, String> values = myValues.get(key);
+    if (values == null) {
+      values = computeValues(strutsModel, webFacet);
+      final Map<String, String> previous = myValues.putIfAbsent(key, values);
+      if (previous != null) {
+        values = previous;
+      }
+    }
+    return values.get(name);
+  }
+
+  @NotNull
+  private Map<String, String> computeValues(@NotNull final StrutsModel strutsModel, @Nullable final WebFacet webFacet) {
+    // 1. default.properties from struts2-core.jar
+    final Map<String, String> values = new THashMap<>(myDefaultValues);
+
+    // 2. <constant> from StrutsModel, only the first declaration of a constant in a file counts
+    final List<DomFileElement<StrutsRoot>> domFileElements = new ArrayList<>();
+    collectStrutsXmls(domFileElements, strutsModel, "struts-default.xml", true);
+    collectStrutsXmls(domFileElements, strutsModel, "struts-plugin.xml", true);
+    collectStrutsXmls(domFileElements, strutsModel, "struts.xml", false);
+    for (final DomFileElement<StrutsRoot> domFileElement : domFileElements) {
+      final Set<String> names = new HashSet<>();
+      for (final Constant constant : domFileElement.getRootElement().getConstants()) {
+        final String name = constant.getName().getStringValue();
+        if (!names.add(name)) {
+          continue;
+        }
+
+        final String strutsXmlValue = constant.getValue().getStringValue();
+        if (name != null && strutsXmlValue != null) {
+          values.put(name, strutsXmlValue);
+        }
+      }
+    }
+
+    // 3. struts.properties in current module
+    values.putAll(myStrutsPropertiesValues);
+
+    // 4. web.xml
+    if (webFacet == null) {
+      return values; // should not happen in real projects..
+    }
+    final WebApp webApp = webFacet.getRoot();
+    if (webApp == null) {
+      return values; // no web.xml
+    }
+
+    final Filter filter = ContainerUtil.find(webApp.getFilters(), WEB_XML_STRUTS_FILTER_CONDITION);
+    if (filter != null) {
+      final Set<String> names = new HashSet<>();
+      for (final ParamValue initParam : filter.getInitParams()) {
+        final String name = initParam.getParamName().getStringValue();
+        if (name != null && names.add(name)) {
+          values.put(name, initParam.getParamValue().getStringValue());
+        }
+      }
+    }
+
+    return values;
+  }
+
+  /**
+   * Adds all struts.xml files matching the given filename.
+   *
+   * @param domFileElements Elements to add to.
+   * @param model           StrutsModel to search for matching struts.xml.
+   * @param strutsXmlName   Name to match.
+   * @param onlyInJARs      Only include struts.xml files located in JAR files.
+   */
+  private static void collectStrutsXmls(@NotNull final List<DomFileElement<StrutsRoot>> domFileElements,
+                                        @NotNull final StrutsModel model,
+                                        @NotNull @NonNls final String strutsXmlName,
+                                        final boolean onlyInJARs) {
+    ContainerUtil.process(model.getRoots(),
+                          new FilteringProcessor<>(
+                            getStrutsXmlCondition(strutsXmlName, onlyInJARs),
+                            new CommonProcessors.CollectProcessor<>(domFileElements)));
+  }
+
+  /**
+   * Returns matcher condition.
+   *
+   * @param strutsXmlName Filename to match.
+   * @param onlyInJARs    Only include struts.xml files located in JAR files.
+   * @return Condition.
+   */
+  private static Condition<DomFileElement<StrutsRoot>> getStrutsXmlCondition(final String strutsXmlName,
+                                                                             final boolean onlyInJARs) {
+    return strutsRootDomFileElement -> {
+      final XmlFile xmlFile = strutsRootDomFileElement.getFile();
+      final boolean nameMatch = Comparing.equal(xmlFile.getName(), strutsXmlName);
+      if (!onlyInJARs) {
+        return nameMatch;
+      }
+
+      final VirtualFile virtualFile = xmlFile.getVirtualFile();
+      return nameMatch &&
+             virtualFile != null &&
+             virtualFile.getFileSystem() instanceof JarFileSystem;
+    };
+  }
+}
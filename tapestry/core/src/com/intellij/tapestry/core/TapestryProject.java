@@ -1,6 +1,10 @@
 package com.intellij.tapestry.core;
 
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.java.stubs.index.JavaAnnotationIndex;
 import com.intellij.psi.impl.java.stubs.index.JavaMethodNameIndex;
@@ -23,8 +27,12 @@ import com.intellij.tapestry.core.resource.IResource;
 import com.intellij.tapestry.core.resource.IResourceFinder;
 import com.intellij.tapestry.core.util.LocalizationUtils;
 import com.intellij.tapestry.intellij.facet.TapestryFacet;
+import com.intellij.tapestry.intellij.TapestryModuleSupportLoader;
+import com.intellij.tapestry.intellij.core.java.IntellijJavaClassType;
 import com.intellij.tapestry.intellij.facet.TapestryFacetConfiguration;
+import com.intellij.tapestry.intellij.util.CachedUserDataCache;
 import com.intellij.util.ArrayUtil;
+import com.intellij.util.containers.ConcurrentFactoryMap;
 import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -54,6 +62,8 @@ public class TapestryProject {
   private final Module myModule;
   private final IResourceFinder myResourceFinder;
   private Collection<Library> myCachedLibraries;
+  // incremented when the libraries are found to be changed
+  private volatile long myLibrariesModificationCount;
   private Map<String, List<String>> myCachedLibraryMapping;
   private volatile String myLastApplicationPackage;
   private String myLastApplicationFilterName;
@@ -166,6 +176,7 @@ public class TapestryProject {
 
     myCachedLibraries = cachedLibraries;
     myCachedLibraryMapping = libraryMapping;
+    myLibrariesModificationCount++;
     myLastApplicationFilterName = applicationFilterName;
     myLastApplicationPackage = applicationRootPackage; // volatile write
 
@@ -191,7 +202,7 @@ public class TapestryProject {
    */
   @Nullable
   public Page findPage(String pageName) {
-    return (Page)ourNameToPageMap.get(myModule).get(pageName.toLowerCase());
+    return (Page)findElementByName(TapestryConstants.PAGES_PACKAGE, pageName);
   }
 
   @NotNull
@@ -234,7 +245,7 @@ public class TapestryProject {
    */
   @Nullable
   public Component findComponent(@NotNull String componentName) {
-    return (Component)ourNameToComponentMap.get(myModule).get(componentName.toLowerCase());
+    return (Component)findElementByName(TapestryConstants.COMPONENTS_PACKAGE, componentName);
   }
 
   /**
@@ -245,7 +256,87 @@ public class TapestryProject {
    */
   @Nullable
   public Mixin findMixin(String mixinName) {
-    return (Mixin)ourNameToMixinMap.get(myModule).get(mixinName.toLowerCase());
+    return (Mixin)findElementByName(TapestryConstants.MIXINS_PACKAGE, mixinName);
+  }
+
+  @Nullable
+  private PresentationLibraryElement findElementByName(@NotNull String elementsPackage, @NotNull String elementName) {
+    final Map<String, PresentationLibraryElement> elements = ourElementsByNameCache.get(myModule);
+    final String key = elementsPackage + ":" + elementName.toLowerCase();
+    PresentationLibraryElement element = elements.get(key);
+    if (element != null && !isInElementsPackage(element, elementsPackage)) {
+      // the package statement of the class was edited
+      elements.remove(key);
+      element = elements.get(key);
+    }
+    return element;
+  }
+
+  private static boolean isInElementsPackage(@NotNull PresentationLibraryElement element, @NotNull String elementsPackage) {
+    final Library library = element.getLibrary();
+    if (library == null || !(element.getElementClass() instanceof IntellijJavaClassType)) return true;
+
+    final PsiClass psiClass = ((IntellijJavaClassType)element.getElementClass()).getPsiClass();
+    final String qualifiedName = psiClass != null ? psiClass.getQualifiedName() : null;
+    return qualifiedName != null && qualifiedName.startsWith(library.getBasePackage() + "." + elementsPackage + ".");
+  }
+
+  /**
+   * Resolved elements by {@code "<elements package>:<lower-cased name>"}, each name is looked up through
+   * {@link com.intellij.tapestry.intellij.core.java.TapestryElementIndex} on first access only.
+   * The index keys of a class change only when its file is created, deleted, moved or renamed, when roots change,
+   * or when its package statement is edited, which {@link #findElementByName} checks for found elements.
+   */
+  private static final CachedUserDataCache<Map<String, PresentationLibraryElement>, Module> ourElementsByNameCache =
+    new CachedUserDataCache<Map<String, PresentationLibraryElement>, Module>("ourElementsByNameCache") {
+      @Override
+      protected Map<String, PresentationLibraryElement> computeValue(Module module) {
+        final TapestryProject project = TapestryModuleSupportLoader.getTapestryProject(module);
+        assert project != null;
+        return ConcurrentFactoryMap.createMap(key -> {
+          final int separatorIndex = key.indexOf(':');
+          return project.computeElementByName(key.substring(0, separatorIndex), key.substring(separatorIndex + 1));
+        });
+      }
+
+      @Override
+      protected Object[] getDependencies(Module module) {
+        final TapestryProject project = TapestryModuleSupportLoader.getTapestryProject(module);
+        assert project != null;
+        return new Object[]{VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS, ProjectRootManager.getInstance(module.getProject()),
+          (ModificationTracker)() -> project.myLibrariesModificationCount};
+      }
+
+      @Override
+      protected Project getProject(Module module) {
+        return module.getProject();
+      }
+    };
+
+  @Nullable
+  private PresentationLibraryElement computeElementByName(@NotNull String elementsPackage, @NotNull String name) {
+    if (TapestryConstants.COMPONENTS_PACKAGE.equals(elementsPackage)) {
+      for (PresentationLibraryElement builtinComponent : getBuiltinComponents()) {
+        if (name.equals(builtinComponent.getName().toLowerCase())) return builtinComponent;
+      }
+    }
+
+    // libraries declared later take precedence
+    final List<Library> libraries = new ArrayList<>(getLibraries());
+    for (int i = libraries.size() - 1; i >= 0; i--) {
+      final Library library = libraries.get(i);
+      final String libraryShortName = library.getShortName();
+
+      String elementName = name;
+      if (isNotEmpty(libraryShortName)) {
+        if (!name.startsWith(libraryShortName + "/")) continue;
+        elementName = name.substring(libraryShortName.length() + 1);
+      }
+
+      final PresentationLibraryElement element = library.findElement(elementsPackage, elementName);
+      if (element != null) return element;
+    }
+    return null;
   }
 
   @NotNull
@@ -296,13 +387,6 @@ public class TapestryProject {
     }
   };
 
-  private static final ElementsCachedMap ourNameToMixinMap = new ElementsCachedMap("ourNameToMixinMap", false, false, true) {
-    @Override
-    protected String computeKey(PresentationLibraryElement element) {
-      return element.getName().toLowerCase();
-    }
-  };
-
   public Collection<PresentationLibraryElement> getBuiltinComponents() {
     return Arrays.asList(BodyComponent.getInstance(this), BlockComponent.getInstance(this),
                          ParameterComponent.getInstance(this),
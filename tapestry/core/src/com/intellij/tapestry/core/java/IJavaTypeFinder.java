@@ -36,6 +36,16 @@ public interface IJavaTypeFinder {
      */
     Collection<IJavaClassType> findTypesInPackageRecursively(String basePackageName, boolean includeDependencies);
 
+    /**
+     * Looks up JAVA types that may implement the given Tapestry element, in any library.
+     *
+     * @param elementsPackage     the elements package, one of {@link com.intellij.tapestry.core.TapestryConstants#ELEMENT_PACKAGES}.
+     * @param elementName         the element name relative to the elements package, case insensitive.
+     * @param includeDependencies if project dependencies should be included in the search.
+     * @return all the JAVA types whose package and name match the given element.
+     */
+    Collection<IJavaClassType> findElementTypes(String elementsPackage, String elementName, boolean includeDependencies);
+
     /**
      * @return an instance of a service binding discoverer.
      */
@@ -83,6 +83,35 @@ public class Library implements Comparable {
     return findElements(TapestryConstants.MIXINS_PACKAGE, _basePackage);
   }
 
+  /**
+   * Finds an element of this library by name, without collecting all elements of this library.
+   *
+   * @param componentsOrPages the elements package to look in.
+   * @param elementName       the element name, case insensitive.
+   * @return the element with the given name, or {@code null} if the element isn't found.
+   */
+  @Nullable
+  public PresentationLibraryElement findElement(String componentsOrPages, String elementName) {
+    String packagePrefix = _basePackage + "." + componentsOrPages + ".";
+
+    for (IJavaClassType type : _project.getJavaTypeFinder().findElementTypes(componentsOrPages, elementName, true)) {
+      String fullyQualifiedName = type.getFullyQualifiedName();
+      if (fullyQualifiedName == null || !fullyQualifiedName.startsWith(packagePrefix)) continue;
+
+      try {
+        PresentationLibraryElement element = PresentationLibraryElement.createElementInstance(this, type, _project);
+        if (elementName.equalsIgnoreCase(element.getName())) {
+          return element;
+        }
+      }
+      catch (NotTapestryElementException e) {
+        //ignore
+      }
+    }
+
+    return null;
+  }
+
   /**
    * Finds the Tapestry IoC module builder of this library.
    *
@@ -3,6 +3,7 @@ package com.intellij.tapestry.core.model.presentation.valueresolvers.property;
 import com.intellij.tapestry.core.java.IJavaMethod;
 import com.intellij.tapestry.core.model.presentation.valueresolvers.AbstractValueResolver;
 import com.intellij.tapestry.core.model.presentation.valueresolvers.ValueResolverContext;
+import com.intellij.tapestry.core.util.ClassUtils;
 import org.apache.commons.chain.Context;
 
 import java.util.Collection;
@@ -20,7 +21,8 @@ public class SingleMethodResolver extends AbstractValueResolver {
         String cleanValue = getCleanValue(((ValueResolverContext) context).getValue());
 
         if (PATTERN.matcher(cleanValue).matches()) {
-            Collection<IJavaMethod> candidateMethods = ((ValueResolverContext) context).getContextClass().findPublicMethods(cleanValue.substring(0, cleanValue.indexOf("()")));
+            String methodName = cleanValue.substring(0, cleanValue.indexOf("()"));
+            Collection<IJavaMethod> candidateMethods = ClassUtils.getPropertyTable(((ValueResolverContext) context).getContextClass()).findPublicMethods(methodName);
 
             for (IJavaMethod method : candidateMethods) {
                 if (method.getParameters().size() == 0) {
@@ -7,7 +7,6 @@ import com.intellij.tapestry.core.model.presentation.valueresolvers.ValueResolve
 import com.intellij.tapestry.core.util.ClassUtils;
 import org.apache.commons.chain.Context;
 
-import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
@@ -22,22 +21,14 @@ public class SinglePropertyResolver extends AbstractValueResolver {
         String cleanValue = getCleanValue(((ValueResolverContext) context).getValue());
 
         if (cleanValue != null && PATTERN.matcher(cleanValue).matches()) {
-            Map<String, Object> properties = ClassUtils.getClassProperties(((ValueResolverContext) context).getContextClass());
-
-            for (Map.Entry<String, Object> property : properties.entrySet()) {
-                if (property.getKey().toLowerCase().equals(cleanValue.toLowerCase())) {
-
-                    if (property.getValue() instanceof IJavaMethod)
-                        ((ValueResolverContext) context).setResultType(((IJavaMethod) property.getValue()).getReturnType());
-                    else if (property.getValue() instanceof IJavaField)
-                        ((ValueResolverContext) context).setResultType(((IJavaField) property.getValue()).getType());
-                    else
-                        continue;
-
-                    ((ValueResolverContext) context).setResultCodeBind(property.getValue());
-
-                    return true;
-                }
+            Object property = ClassUtils.getPropertyTable(((ValueResolverContext) context).getContextClass()).findProperty(cleanValue);
+
+            if (property instanceof IJavaMethod) {
+                ((ValueResolverContext) context).setResultType(((IJavaMethod) property).getReturnType());
+                ((ValueResolverContext) context).setResultCodeBind(property);
+            } else if (property instanceof IJavaField) {
+                ((ValueResolverContext) context).setResultType(((IJavaField) property).getType());
+                ((ValueResolverContext) context).setResultCodeBind(property);
             }
 
             return true;
@@ -0,0 +1,104 @@
+package com.intellij.tapestry.core.util;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.tapestry.core.TapestryConstants;
+import com.intellij.tapestry.core.java.IJavaAnnotation;
+import com.intellij.tapestry.core.java.IJavaClassType;
+import com.intellij.tapestry.core.java.IJavaField;
+import com.intellij.tapestry.core.java.IJavaMethod;
+import com.intellij.util.SmartList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Properties and public methods of a class with its super classes, built once so that property expressions are resolved
+ * with hash lookups. Names are matched ignoring case, like Tapestry does at runtime.
+ *
+ * @see ClassUtils#getPropertyTable(IJavaClassType)
+ */
+public class ClassPropertyTable {
+  public static final ClassPropertyTable EMPTY = new ClassPropertyTable(null);
+
+  private final Map<String, Object> myProperties = new HashMap<>();
+  private final Map<String, Object> myPropertiesIgnoreCase = new HashMap<>();
+  private final Map<String, List<IJavaMethod>> myPublicMethodsIgnoreCase = new HashMap<>();
+
+  public ClassPropertyTable(@Nullable IJavaClassType javaClassType) {
+    if (javaClassType == null) return;
+
+    for (IJavaMethod method : javaClassType.getPublicMethods(true)) {
+      String methodName = method.getName();
+      myPublicMethodsIgnoreCase.computeIfAbsent(toLowerCase(methodName), name -> new SmartList<>()).add(method);
+
+      String propertyName = getGetterPropertyName(method);
+      if (propertyName != null) {
+        myProperties.put(propertyName, method);
+      }
+    }
+
+    for (Map.Entry<String, IJavaField> field : javaClassType.getFields(true).entrySet()) {
+      IJavaAnnotation annotation = field.getValue().getAnnotations().get(TapestryConstants.PROPERTY_ANNOTATION);
+      if (annotation == null) continue;
+
+      String[] read = annotation.getParameters().get("read");
+      if (read != null && read[0].equals("false")) continue;
+
+      myProperties.put(ClassUtils.getName(field.getKey()), field.getValue());
+    }
+
+    for (Map.Entry<String, Object> property : myProperties.entrySet()) {
+      myPropertiesIgnoreCase.putIfAbsent(toLowerCase(property.getKey()), property.getValue());
+    }
+  }
+
+  @Nullable
+  private static String getGetterPropertyName(@NotNull IJavaMethod method) {
+    String name = method.getName();
+    if (method.getReturnType() == null) return null;
+
+    String propertyName;
+    if (name.startsWith("get")) {
+      propertyName = name.substring("get".length());
+    }
+    else if (name.startsWith("is") && method.getReturnType().getName().equals("boolean")) {
+      propertyName = name.substring("is".length());
+    }
+    else {
+      return null;
+    }
+
+    return StringUtil.isNotEmpty(propertyName) ? StringUtil.decapitalize(propertyName) : null;
+  }
+
+  @NotNull
+  private static String toLowerCase(@NotNull String name) {
+    return name.toLowerCase(Locale.US);
+  }
+
+  /**
+   * @return every property of the class by name. The value is the getter method or the field the property is bound to.
+   */
+  @NotNull
+  public Map<String, Object> getProperties() {
+    return Collections.unmodifiableMap(myProperties);
+  }
+
+  /**
+   * @return the getter method or the field the property is bound to, {@code null} if there's no such property.
+   */
+  @Nullable
+  public Object findProperty(@NotNull String name) {
+    return myPropertiesIgnoreCase.get(toLowerCase(name));
+  }
+
+  /**
+   * @return public methods of the class with the given name, empty if there are none.
+   */
+  @NotNull
+  public List<IJavaMethod> findPublicMethods(@NotNull String name) {
+    List<IJavaMethod> methods = myPublicMethodsIgnoreCase.get(toLowerCase(name));
+    return methods != null ? methods : Collections.emptyList();
+  }
+}
@@ -1,15 +1,10 @@
 package com.intellij.tapestry.core.util;
 
-import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.tapestry.core.TapestryConstants;
-import com.intellij.tapestry.core.java.IJavaAnnotation;
 import com.intellij.tapestry.core.java.IJavaClassType;
-import com.intellij.tapestry.core.java.IJavaField;
-import com.intellij.tapestry.core.java.IJavaMethod;
+import com.intellij.tapestry.intellij.core.java.IntellijJavaClassType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -33,50 +28,26 @@ public class ClassUtils {
      * @return every property declared in a class and its super classes. The key of the map is the property name and the value the place in the code where that property is bound to.
      */
     public static Map<String, Object> getClassProperties(IJavaClassType javaClassType) {
-        if (javaClassType == null) {
-            return new HashMap<>();
-        }
-
-        Collection<IJavaMethod> allPublicMethods = javaClassType.getPublicMethods(true);
-        Map<String, Object> getterMethods = new HashMap<>();
-
-        for (IJavaMethod method : allPublicMethods) {
-
-            String nameProperty = method.getName();
-
-            if (method.getReturnType() != null && (nameProperty.startsWith("get") || (nameProperty.startsWith("is") && method.getReturnType().getName().equals("boolean")))) {
-
-                if (nameProperty.startsWith("get")) {
-                    nameProperty = (nameProperty.replaceFirst("get", ""));
-                } else {
-                    nameProperty = (nameProperty.replaceFirst("is", ""));
-                }
-
-                if (StringUtil.isNotEmpty(nameProperty)) {
-                    nameProperty = StringUtil.decapitalize(nameProperty);
+        return getPropertyTable(javaClassType).getProperties();
+    }
 
-                    getterMethods.put(nameProperty, method);
-                }
-            }
+    /**
+     * Finds the property table of a class. The table of a class from the IDE is cached until the code outside of method bodies changes.
+     *
+     * @param javaClassType the class to look for properties in.
+     * @return the properties and public methods of the class and its super classes.
+     */
+    @NotNull
+    public static ClassPropertyTable getPropertyTable(@Nullable IJavaClassType javaClassType) {
+        if (javaClassType == null) {
+            return ClassPropertyTable.EMPTY;
         }
 
-        Map<String, IJavaField> allFields = javaClassType.getFields(true);
-        Map<String, Object> propertyFields = new HashMap<>();
-
-        for (Map.Entry<String, IJavaField> field : allFields.entrySet()) {
-            if (field.getValue().getAnnotations().containsKey(TapestryConstants.PROPERTY_ANNOTATION)) {
-                IJavaAnnotation annotation = field.getValue().getAnnotations().get(TapestryConstants.PROPERTY_ANNOTATION);
-
-                if (annotation.getParameters().containsKey("read") && annotation.getParameters().get("read")[0].equals("false"))
-                    continue;
-
-                propertyFields.put(getName(field.getKey()), field.getValue());
-            }
+        if (javaClassType instanceof IntellijJavaClassType) {
+            return ((IntellijJavaClassType) javaClassType).getPropertyTable();
         }
 
-        getterMethods.putAll(propertyFields);
-
-        return getterMethods;
+        return new ClassPropertyTable(javaClassType);
     }
 
     /**
@@ -6,15 +6,20 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.*;
 import com.intellij.psi.javadoc.PsiDocComment;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiUtil;
 import com.intellij.refactoring.rename.RegExpValidator;
+import com.intellij.tapestry.core.TapestryProject;
 import com.intellij.tapestry.core.java.IJavaAnnotation;
 import com.intellij.tapestry.core.java.IJavaClassType;
 import com.intellij.tapestry.core.java.IJavaField;
 import com.intellij.tapestry.core.java.IJavaMethod;
 import com.intellij.tapestry.core.resource.IResource;
+import com.intellij.tapestry.core.util.ClassPropertyTable;
 import com.intellij.tapestry.intellij.core.resource.IntellijResource;
 import com.intellij.tapestry.intellij.util.IdeaUtils;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -258,6 +263,24 @@ public class IntellijJavaClassType extends IntellijJavaType implements IJavaClas
     return _supportInformalParameters;
   }
 
+  /**
+   * Returns the property table of this class. Tables are shared by all instances wrapping the same class in the module
+   * until the code outside of method bodies changes.
+   *
+   * @return the property table of this class.
+   */
+  @NotNull
+  public ClassPropertyTable getPropertyTable() {
+    PsiClass psiClass = getPsiClass();
+    if (psiClass == null) {
+      return ClassPropertyTable.EMPTY;
+    }
+
+    Map<Module, ClassPropertyTable> tables = CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result
+      .create(ContainerUtil.<Module, ClassPropertyTable>newConcurrentMap(), TapestryProject.OUT_OF_CODE_BLOCK_DEPENDENCY));
+    return tables.computeIfAbsent(_module, module -> new ClassPropertyTable(this));
+  }
+
   /**
    * Returns the psi class associated with this class.
    *
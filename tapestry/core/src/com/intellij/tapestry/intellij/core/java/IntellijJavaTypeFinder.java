@@ -1,9 +1,8 @@
 package com.intellij.tapestry.intellij.core.java;
 
 import com.intellij.openapi.module.Module;
-import com.intellij.psi.JavaPsiFacade;
-import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiPackage;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.tapestry.core.ioc.IServiceBindingDiscoverer;
 import com.intellij.tapestry.core.java.IJavaClassType;
@@ -75,6 +74,23 @@ public class IntellijJavaTypeFinder implements IJavaTypeFinder {
     return types;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Collection<IJavaClassType> findElementTypes(String elementsPackage, String elementName, boolean includeDependencies) {
+    Collection<IJavaClassType> types = new ArrayList<>();
+
+    PsiManager psiManager = PsiManager.getInstance(_module.getProject());
+    for (VirtualFile file : TapestryElementIndex.getFiles(elementsPackage, elementName, getScope(includeDependencies))) {
+      PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile instanceof PsiClassOwner && ((PsiClassOwner)psiFile).getClasses().length > 0) {
+        types.add(new IntellijJavaClassType(_module, psiFile));
+      }
+    }
+    return types;
+  }
+
   private PsiPackage findPackage(String basePackageName) {
     return JavaPsiFacade.getInstance(_module.getProject()).findPackage(basePackageName);
   }
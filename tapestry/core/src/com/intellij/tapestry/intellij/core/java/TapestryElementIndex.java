@@ -0,0 +1,187 @@
+package com.intellij.tapestry.intellij.core.java;
+
+import com.intellij.ide.highlighter.JavaClassFileType;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.lang.java.lexer.JavaLexer;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.pom.java.LanguageLevel;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.impl.source.tree.ElementType;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.tapestry.core.TapestryConstants;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes classes that may be Tapestry elements by their element name.
+ * <p/>
+ * As the library root packages are only known per module, every package segment matching one of
+ * {@link TapestryConstants#ELEMENT_PACKAGES} yields a key {@code "<segment>:<lower-cased element name>"},
+ * e.g. {@code com.app.pages.admin.Index} is indexed as {@code "pages:admin/index"}.
+ */
+public class TapestryElementIndex extends ScalarIndexExtension<String> {
+
+  public static final ID<String, Void> NAME = ID.create("TapestryElementIndex");
+
+  private static final char KEY_SEPARATOR = ':';
+  private static final String JAR_SEPARATOR = "!/";
+
+  private final DataIndexer<String, Void, FileContent> myDataIndexer = new MyDataIndexer();
+
+  @NotNull
+  @Override
+  public ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @Override
+  public int getVersion() {
+    return 2;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, Void, FileContent> getIndexer() {
+    return myDataIndexer;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE, JavaClassFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  /**
+   * Finds all files possibly declaring the given element.
+   *
+   * @param elementsPackage one of {@link TapestryConstants#ELEMENT_PACKAGES}.
+   * @param elementName     the element name, case insensitive.
+   * @param scope           the search scope.
+   * @return the files declaring a class matching the given element name.
+   */
+  @NotNull
+  public static Collection<VirtualFile> getFiles(@NotNull String elementsPackage, @NotNull String elementName, @NotNull GlobalSearchScope scope) {
+    return FileBasedIndex.getInstance().getContainingFiles(NAME, createKey(elementsPackage, elementName), scope);
+  }
+
+  @NotNull
+  private static String createKey(@NotNull String elementsPackage, @NotNull String elementName) {
+    return elementsPackage + KEY_SEPARATOR + StringUtil.toLowerCase(elementName);
+  }
+
+  @Nullable
+  private static String getPackageName(@NotNull FileContent inputData) {
+    if (inputData.getFileType() == JavaClassFileType.INSTANCE) {
+      // library classes: package is given by the path inside the archive
+      final String path = inputData.getFile().getPath();
+      final int jarSeparatorIndex = path.indexOf(JAR_SEPARATOR);
+      if (jarSeparatorIndex == -1) return null;
+
+      final String relativePath = path.substring(jarSeparatorIndex + JAR_SEPARATOR.length());
+      final int lastSlash = relativePath.lastIndexOf('/');
+      return lastSlash == -1 ? "" : relativePath.substring(0, lastSlash).replace('/', '.');
+    }
+
+    // most sources can't declare an element, they are skipped without lexing
+    final CharSequence text = inputData.getContentAsText();
+    if (!containsElementPackage(text)) return null;
+    return getJavaPackageName(text);
+  }
+
+  private static boolean containsElementPackage(@NotNull CharSequence text) {
+    for (String elementPackage : TapestryConstants.ELEMENT_PACKAGES) {
+      if (StringUtil.contains(text, elementPackage)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return the name from the package statement, {@code null} if there's none.
+   */
+  @Nullable
+  private static String getJavaPackageName(@NotNull CharSequence text) {
+    final Lexer lexer = new JavaLexer(LanguageLevel.HIGHEST);
+    lexer.start(text);
+    skipWhitespaceAndComments(lexer);
+    if (lexer.getTokenType() != JavaTokenType.PACKAGE_KEYWORD) return null;
+    lexer.advance();
+
+    final StringBuilder packageName = new StringBuilder();
+    while (true) {
+      skipWhitespaceAndComments(lexer);
+      final IElementType tokenType = lexer.getTokenType();
+      if (tokenType == JavaTokenType.IDENTIFIER) {
+        packageName.append(lexer.getTokenSequence());
+      }
+      else if (tokenType == JavaTokenType.DOT) {
+        packageName.append('.');
+      }
+      else {
+        break;
+      }
+      lexer.advance();
+    }
+    return lexer.getTokenType() == JavaTokenType.SEMICOLON ? packageName.toString() : null;
+  }
+
+  private static void skipWhitespaceAndComments(@NotNull Lexer lexer) {
+    while (ElementType.JAVA_COMMENT_OR_WHITESPACE_BIT_SET.contains(lexer.getTokenType())) {
+      lexer.advance();
+    }
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, Void, FileContent> {
+
+    @NotNull
+    @Override
+    public Map<String, Void> map(@NotNull FileContent inputData) {
+      // Tapestry elements are public top-level classes, so the class is named after the file
+      @NonNls final String className = FileUtilRt.getNameWithoutExtension(inputData.getFileName());
+      if (className.indexOf('$') != -1) return Collections.emptyMap();
+
+      final String packageName = getPackageName(inputData);
+      if (StringUtil.isEmpty(packageName)) return Collections.emptyMap();
+
+      final List<String> segments = StringUtil.split(packageName, ".");
+      final Map<String, Void> result = new THashMap<>();
+      for (int i = 0; i < segments.size(); i++) {
+        final String segment = segments.get(i);
+        if (!ArrayUtil.contains(segment, TapestryConstants.ELEMENT_PACKAGES)) continue;
+
+        final StringBuilder elementName = new StringBuilder();
+        for (String subPackage : segments.subList(i + 1, segments.size())) {
+          elementName.append(subPackage).append('/');
+        }
+        elementName.append(className);
+        result.put(createKey(segment, elementName.toString()), null);
+      }
+      return result;
+    }
+  }
+}
@@ -3,8 +3,12 @@ package com.intellij.tapestry.intellij.core.resource;
 import com.intellij.javaee.web.WebRoot;
 import com.intellij.javaee.web.facet.WebFacet;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.*;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.tapestry.core.resource.IResource;
 import com.intellij.tapestry.core.resource.IResourceFinder;
@@ -31,43 +35,49 @@ public class IntellijResourceFinder implements IResourceFinder {
      */
     @Override
     public Collection<IResource> findClasspathResource(String path, boolean includeDependencies) {
-        Collection<IResource> resources = new ArrayList<>();
-
-      String filename = PathUtils.getLastPathElement(path);
-        for (PsiDirectory directory : findPackageDirectories(path, includeDependencies)) {
-            PsiFile resource = directory.findFile(filename);
-            if (resource != null) {
-                resources.add(new IntellijResource(resource));
-            }
-        }
+        String filename = PathUtils.getLastPathElement(path);
+        Collection<VirtualFile> files = FilenameIndex.getVirtualFilesByName(_module.getProject(), filename, getSearchScope(includeDependencies));
 
-        return resources;
+        return findPackageResources(path, files);
     }
 
-  private PsiDirectory[] findPackageDirectories(String path, boolean includeDependencies) {
-    PsiPackage psiPackage = JavaPsiFacade.getInstance(_module.getProject()).findPackage(PathUtils.pathIntoPackage(path, true));
-    return psiPackage == null ? PsiDirectory.EMPTY_ARRAY : psiPackage.getDirectories(getSearchScope(includeDependencies));
-  }
-
-  /**
+    /**
      * {@inheritDoc}
      */
     @Override
     public Collection<IResource> findLocalizedClasspathResource(String path, boolean includeDependencies) {
-        Collection<IResource> resources = new ArrayList<>();
-
         String filename = PathUtils.getLastPathElement(path);
-        for (PsiDirectory directory : findPackageDirectories(path, includeDependencies)) {
-            for (PsiFile file : directory.getFiles()) {
-                if (LocalizationUtils.unlocalizeFileName(file.getName()).equals(filename)) {
-                    resources.add(new IntellijResource(file));
-                }
-            }
+        GlobalSearchScope scope = getSearchScope(includeDependencies);
+
+        Collection<VirtualFile> files = new ArrayList<>();
+        if (LocalizationUtils.unlocalizeFileName(filename).equals(filename)) {
+            files.addAll(FilenameIndex.getVirtualFilesByName(_module.getProject(), filename, scope));
         }
+        files.addAll(TapestryLocalizedResourceIndex.getLocalizedFiles(filename, scope));
 
-        return resources;
+        return findPackageResources(path, files);
+    }
+
+  private Collection<IResource> findPackageResources(String path, Collection<VirtualFile> files) {
+    Collection<IResource> resources = new ArrayList<>();
+    if (files.isEmpty()) return resources;
+
+    String packageName = PathUtils.pathIntoPackage(path, true);
+    ProjectFileIndex fileIndex = ProjectRootManager.getInstance(_module.getProject()).getFileIndex();
+    PsiManager psiManager = PsiManager.getInstance(_module.getProject());
+    for (VirtualFile file : files) {
+      VirtualFile directory = file.getParent();
+      if (directory == null || !packageName.equals(fileIndex.getPackageNameByDirectory(directory))) continue;
+
+      PsiFile resource = psiManager.findFile(file);
+      if (resource != null) {
+        resources.add(new IntellijResource(resource));
+      }
     }
 
+    return resources;
+  }
+
   private GlobalSearchScope getSearchScope(boolean includeDependencies) {
     if (includeDependencies) {
         return GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(_module, false);
@@ -0,0 +1,93 @@
+package com.intellij.tapestry.intellij.core.resource;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.tapestry.core.TapestryConstants;
+import com.intellij.tapestry.core.util.LocalizationUtils;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Indexes localized resources by their not localized file name, e.g. {@code Index_en_GB.tml} is indexed as {@code "Index.tml"}.
+ * <p/>
+ * Files without a locale suffix are not indexed, they're found by name with {@link com.intellij.psi.search.FilenameIndex}.
+ * Only templates and message catalogs are indexed.
+ */
+public class TapestryLocalizedResourceIndex extends ScalarIndexExtension<String> {
+
+  public static final ID<String, Void> NAME = ID.create("TapestryLocalizedResourceIndex");
+
+  private final DataIndexer<String, Void, FileContent> myDataIndexer = new MyDataIndexer();
+
+  @NotNull
+  @Override
+  public ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @Override
+  public int getVersion() {
+    return 2;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, Void, FileContent> getIndexer() {
+    return myDataIndexer;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return file -> !file.isDirectory() && isLocalizableResource(file.getName());
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return false;
+  }
+
+  /**
+   * Finds the localized variants of a resource.
+   *
+   * @param filename the not localized file name.
+   * @param scope    the search scope.
+   * @return the files named like the given one with a locale suffix, in any directory.
+   */
+  @NotNull
+  public static Collection<VirtualFile> getLocalizedFiles(@NotNull String filename, @NotNull GlobalSearchScope scope) {
+    return FileBasedIndex.getInstance().getContainingFiles(NAME, filename, scope);
+  }
+
+  /**
+   * Only templates and message catalogs are looked up with their localized variants,
+   * see {@link IntellijResourceFinder#findLocalizedClasspathResource}.
+   */
+  private static boolean isLocalizableResource(@NotNull String filename) {
+    return filename.endsWith("." + TapestryConstants.TEMPLATE_FILE_EXTENSION) ||
+           filename.endsWith(TapestryConstants.PROPERTIES_FILE_EXTENSION);
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, Void, FileContent> {
+
+    @NotNull
+    @Override
+    public Map<String, Void> map(@NotNull FileContent inputData) {
+      final String filename = inputData.getFileName();
+      final String unlocalizedName = LocalizationUtils.unlocalizeFileName(filename);
+      return unlocalizedName.equals(filename) ? Collections.emptyMap() : Collections.singletonMap(unlocalizedName, null);
+    }
+  }
+}
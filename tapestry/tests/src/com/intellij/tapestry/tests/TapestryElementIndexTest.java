@@ -0,0 +1,97 @@
+package com.intellij.tapestry.tests;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.tapestry.core.TapestryConstants;
+import com.intellij.tapestry.core.TapestryProject;
+import com.intellij.tapestry.core.model.presentation.Component;
+import com.intellij.tapestry.intellij.TapestryModuleSupportLoader;
+import com.intellij.tapestry.intellij.core.java.TapestryElementIndex;
+
+import java.util.Collection;
+
+public class TapestryElementIndexTest extends TapestryBaseTestCase {
+  @Override
+  protected String getBasePath() {
+    return "";
+  }
+
+  private PsiFile addJavaFile(String relativePath, String text) {
+    final PsiFile file = myFixture.addFileToProject(relativePath, text);
+    assertNotNull(file);
+    return file;
+  }
+
+  private Collection<VirtualFile> getFiles(String elementsPackage, String elementName) {
+    return TapestryElementIndex.getFiles(elementsPackage, elementName, GlobalSearchScope.allScope(myFixture.getProject()));
+  }
+
+  private TapestryProject getTapestryProject() {
+    final TapestryProject tapestryProject = TapestryModuleSupportLoader.getTapestryProject(myModule);
+    assertNotNull(tapestryProject);
+    return tapestryProject;
+  }
+
+  public void testPackageAfterComments() {
+    final PsiFile file = addJavaFile(COMPONENTS_PACKAGE_PATH + "sub/Foo.java",
+                                     "/* header */\n// package wrong;\npackage /* inline */ " + TEST_APPLICATION_PACKAGE + "." + COMPONENTS +
+                                     " . sub;\npublic class Foo {}");
+    final Collection<VirtualFile> files = getFiles(TapestryConstants.COMPONENTS_PACKAGE, "SUB/foo");
+    assertSameElements(files, file.getVirtualFile());
+    assertEmpty(getFiles(TapestryConstants.PAGES_PACKAGE, "sub/foo"));
+  }
+
+  public void testNoElementPackage() {
+    addJavaFile("com/testapp/util/Bar.java", "package com.testapp.util; // not in components\npublic class Bar {}");
+    addJavaFile("com/testapp/util/Baz.java", "public class Baz {}");
+    assertEmpty(getFiles(TapestryConstants.COMPONENTS_PACKAGE, "bar"));
+    assertEmpty(getFiles(TapestryConstants.COMPONENTS_PACKAGE, "baz"));
+  }
+
+  public void testElementPackageInMiddle() {
+    final PsiFile file = addJavaFile("com/lib/mixins/deep/Qux.java", "package com.lib.mixins.deep;\npublic class Qux {}");
+    assertSameElements(getFiles(TapestryConstants.MIXINS_PACKAGE, "deep/qux"), file.getVirtualFile());
+  }
+
+  public void testLibraryClass() {
+    assertNotEmpty(getFiles(TapestryConstants.COMPONENTS_PACKAGE, "If"));
+  }
+
+  public void testFindElementByName() {
+    addComponentToProject("Count");
+    addPageToProject("StartPage");
+    final TapestryProject tapestryProject = getTapestryProject();
+
+    final Component count = tapestryProject.findComponent("count");
+    assertNotNull(count);
+    assertEquals(TEST_APPLICATION_PACKAGE + "." + COMPONENTS + ".Count", count.getElementClass().getFullyQualifiedName());
+    assertSame(count, tapestryProject.findComponent("Count"));
+    assertNotNull(tapestryProject.findPage("startpage"));
+    assertNotNull("Library component", tapestryProject.findComponent("if"));
+    assertNull(tapestryProject.findComponent("Unknown"));
+    assertNull(tapestryProject.findMixin("count"));
+  }
+
+  public void testFindElementByNameAfterChanges() {
+    final TapestryProject tapestryProject = getTapestryProject();
+    assertNull(tapestryProject.findComponent("Added"));
+
+    final PsiFile file = addJavaFile(COMPONENTS_PACKAGE_PATH + "Added.java",
+                                     "package " + TEST_APPLICATION_PACKAGE + "." + COMPONENTS + "; public class Added {}");
+    assertNotNull("Added file should be found", tapestryProject.findComponent("Added"));
+
+    WriteCommandAction.runWriteCommandAction(myFixture.getProject(), () -> {
+      final PsiDocumentManager documentManager = PsiDocumentManager.getInstance(myFixture.getProject());
+      final Document document = documentManager.getDocument(file);
+      assertNotNull(document);
+      document.setText("package " + TEST_APPLICATION_PACKAGE + ".util; public class Added {}");
+      documentManager.commitDocument(document);
+    });
+    assertNull("Class moved out of the components package by editing its package statement",
+               tapestryProject.findComponent("Added"));
+  }
+}
@@ -0,0 +1,46 @@
+// Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.tapestry.tests;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.tapestry.intellij.core.resource.TapestryLocalizedResourceIndex;
+
+import java.util.Collection;
+
+public class TapestryLocalizedResourceIndexTest extends TapestryBaseTestCase {
+  @Override
+  protected String getBasePath() {
+    return "";
+  }
+
+  private VirtualFile addFile(String relativePath) {
+    final PsiFile file = myFixture.addFileToProject(relativePath, "");
+    assertNotNull(file);
+    return file.getVirtualFile();
+  }
+
+  private Collection<VirtualFile> getLocalizedFiles(String filename) {
+    return TapestryLocalizedResourceIndex.getLocalizedFiles(filename, GlobalSearchScope.allScope(myFixture.getProject()));
+  }
+
+  public void testTemplatesAndCatalogs() {
+    final VirtualFile template = addFile(COMPONENTS_PACKAGE_PATH + "Count_de.tml");
+    final VirtualFile countryTemplate = addFile(COMPONENTS_PACKAGE_PATH + "Count_en_GB.tml");
+    final VirtualFile catalog = addFile(COMPONENTS_PACKAGE_PATH + "Count_fr.properties");
+    addFile(COMPONENTS_PACKAGE_PATH + "Count.tml");
+
+    assertSameElements(getLocalizedFiles("Count.tml"), template, countryTemplate);
+    assertSameElements(getLocalizedFiles("Count.properties"), catalog);
+  }
+
+  public void testOtherFilesAreNotIndexed() {
+    addFile(COMPONENTS_PACKAGE_PATH + "Count_de.txt");
+    addFile(COMPONENTS_PACKAGE_PATH + "Count_de.js");
+    addFile(COMPONENTS_PACKAGE_PATH + "Count_de");
+
+    assertEmpty(getLocalizedFiles("Count.txt"));
+    assertEmpty(getLocalizedFiles("Count.js"));
+    assertEmpty(getLocalizedFiles("Count"));
+  }
+}
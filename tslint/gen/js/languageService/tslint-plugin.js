@@ -5,6 +5,7 @@ var TsLintCommands;
 (function (TsLintCommands) {
     TsLintCommands.GetErrors = "GetErrors";
     TsLintCommands.FixErrors = "FixErrors";
+    TsLintCommands.GetErrorsBatch = "GetErrorsBatch";
 })(TsLintCommands || (TsLintCommands = {}));
 var Response = /** @class */ (function () {
     function Response() {
@@ -25,6 +26,9 @@ var TSLintPlugin = /** @class */ (function () {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
         }
         return null;
     };
@@ -54,6 +58,22 @@ var TSLintPlugin = /** @class */ (function () {
         var options = this.getOptions(false);
         return this.processLinting(toProcess.fileName, toProcess.content, toProcess.configPath, options);
     };
+    TSLintPlugin.prototype.getErrorsBatch = function (toProcess) {
+        var options = this.getOptions(false);
+        var results = [];
+        for (var _i = 0, _a = toProcess.files; _i < _a.length; _i++) {
+            var file = _a[_i];
+            var fileResult = { fileName: file.fileName };
+            try {
+                fileResult.output = this.processLinting(file.fileName, file.content, file.configPath, options).output;
+            }
+            catch (e) {
+                fileResult.error = e.toString() + "\n\n" + e.stack;
+            }
+            results.push(fileResult);
+        }
+        return { output: JSON.stringify(results) };
+    };
     TSLintPlugin.prototype.fixErrors = function (toProcess) {
         var options = this.getOptions(true);
         var contents = fs.readFileSync(toProcess.fileName, "utf8");
@@ -8,6 +8,8 @@ import com.intellij.lang.javascript.linter.tslint.config.TsLintConfiguration;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
@@ -16,6 +18,8 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class TsLintConfigFileChangeTracker extends JSLinterConfigChangeTracker {
 
+  private final SimpleModificationTracker myConfigModificationTracker = new SimpleModificationTracker();
+
   public TsLintConfigFileChangeTracker(@NotNull Project project) {
     super(project, JsonFileType.INSTANCE);
   }
@@ -24,8 +28,24 @@ public final class TsLintConfigFileChangeTracker extends JSLinterConfigChangeTra
     return ServiceManager.getService(project, TsLintConfigFileChangeTracker.class);
   }
 
+  /**
+   * Incremented whenever a change of a TSLint config file is detected.
+   */
+  @NotNull
+  public ModificationTracker getConfigModificationTracker() {
+    return myConfigModificationTracker;
+  }
+
   @Override
   protected boolean isAnalyzerRestartNeeded(@NotNull Project project, @NotNull VirtualFile changedFile) {
+    final boolean restartNeeded = isConfigFile(project, changedFile);
+    if (restartNeeded) {
+      myConfigModificationTracker.incModificationCount();
+    }
+    return restartNeeded;
+  }
+
+  private static boolean isConfigFile(@NotNull Project project, @NotNull VirtualFile changedFile) {
     final TsLintConfiguration configuration = TsLintConfiguration.getInstance(project);
     final TsLintState state = configuration.getExtendedState().getState();
     if (state.isCustomConfigFileUsed() && state.getCustomConfigFilePath() != null) {
@@ -34,12 +34,14 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -51,6 +53,7 @@ import java.util.stream.Collectors;
 public final class TsLintExternalAnnotator extends JSLinterWithInspectionExternalAnnotator<TsLintState, TsLinterInput> {
 
   private static final TsLintExternalAnnotator INSTANCE_FOR_BATCH_INSPECTION = new TsLintExternalAnnotator(false);
+  private static final int BATCH_SIZE = 20;
 
   @NotNull
   public static TsLintExternalAnnotator getInstanceForBatchInspection() {
@@ -118,6 +121,9 @@ public final class TsLintExternalAnnotator extends JSLinterWithInspectionExterna
     if (interpreterAndPackageError != null) return JSLinterAnnotationResult.create(collectedInfo, interpreterAndPackageError, config);
 
     TsLintLanguageService service = TsLintLanguageService.getService(collectedInfo.getProject());
+    if (!isOnTheFly()) {
+      prefetchSiblingFiles(collectedInfo, service);
+    }
 
     final Future<List<TsLinterError>> future = service.highlight(collectedInfo.getVirtualFile(), config, collectedInfo.getFileContent());
     final List<TsLinterError> result;
@@ -138,6 +144,45 @@ public final class TsLintExternalAnnotator extends JSLinterWithInspectionExterna
     return JSLinterAnnotationResult.createLinterResult(collectedInfo, filtered, config);
   }
 
+  /**
+   * Whole-project inspection runs visit files one by one, lint the not yet visited files of the same directory
+   * in one service request, so that the following files are answered from the result cache.
+   */
+  private void prefetchSiblingFiles(@NotNull TsLinterInput collectedInfo, @NotNull TsLintLanguageService service) {
+    final VirtualFile virtualFile = collectedInfo.getVirtualFile();
+    final VirtualFile directory = virtualFile.getParent();
+    if (directory == null || service.hasCachedResult(virtualFile, collectedInfo.getFileContent(), collectedInfo.getState())) return;
+
+    final Map<VirtualFile, String> contents = ContainerUtil.newLinkedHashMap();
+    contents.put(virtualFile, collectedInfo.getFileContent());
+    ReadAction.run(() -> {
+      final PsiManager psiManager = PsiManager.getInstance(collectedInfo.getProject());
+      final FileDocumentManager documentManager = FileDocumentManager.getInstance();
+      for (VirtualFile sibling : directory.getChildren()) {
+        if (contents.size() >= BATCH_SIZE) break;
+        if (sibling.isDirectory() || sibling.equals(virtualFile) || !sibling.isInLocalFileSystem()) continue;
+
+        final PsiFile psiFile = psiManager.findFile(sibling);
+        if (psiFile == null || !acceptPsiFile(psiFile)) continue;
+        final Document document = documentManager.getDocument(sibling);
+        if (document != null) {
+          final String text = document.getText();
+          if (!service.hasCachedResult(sibling, text, collectedInfo.getState())) {
+            contents.put(sibling, text);
+          }
+        }
+      }
+    });
+    if (contents.size() < 2) return;
+
+    try {
+      JSLanguageServiceUtil.awaitLanguageService(service.highlightBatch(contents, collectedInfo.getState()), service);
+    }
+    catch (ExecutionException ignored) {
+      // the file is linted on its own then
+    }
+  }
+
   public List<JSLinterError> filterResultByFile(@NotNull TsLinterInput collectedInfo, @NotNull List<TsLinterError> annotationErrors) {
     final String filePath = collectedInfo.getVirtualFile().getPath();
     final String fileName = collectedInfo.getPsiFile().getName();
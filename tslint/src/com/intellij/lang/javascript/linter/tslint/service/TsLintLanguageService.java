@@ -6,7 +6,9 @@ import com.intellij.lang.javascript.linter.tslint.TslintUtil;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
 import com.intellij.lang.javascript.linter.tslint.execution.TsLintOutputJsonParser;
 import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
+import com.intellij.lang.javascript.linter.tslint.highlight.TsLintConfigFileChangeTracker;
 import com.intellij.lang.javascript.linter.tslint.service.commands.TsLintFixErrorsCommand;
+import com.intellij.lang.javascript.linter.tslint.service.commands.TsLintGetErrorsBatchCommand;
 import com.intellij.lang.javascript.linter.tslint.service.commands.TsLintGetErrorsCommand;
 import com.intellij.lang.javascript.linter.tslint.service.protocol.TsLintLanguageServiceProtocol;
 import com.intellij.lang.javascript.service.*;
@@ -19,17 +21,23 @@ import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.concurrency.FixedFuture;
 import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.SLRUMap;
 import com.intellij.util.text.SemVer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 
 
 public final class TsLintLanguageService extends JSLanguageServiceBase {
   @NotNull private final static Logger LOG = RareLogger.wrap(Logger.getInstance("#com.intellij.lang.javascript.linter.tslint.service.TsLintLanguageService"), false);
+  private static final int RESULT_CACHE_SIZE = 100;
+
+  // guarded by itself
+  @NotNull private final SLRUMap<ResultKey, List<TsLinterError>> myResultCache = new SLRUMap<>(RESULT_CACHE_SIZE, RESULT_CACHE_SIZE);
 
   @NotNull
   public static TsLintLanguageService getService(@NotNull Project project) {
@@ -56,10 +64,103 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     if (process == null) {
       return new FixedFuture<>(Collections.singletonList(new TsLinterError(JSLanguageServiceUtil.getLanguageServiceCreationError(this))));
     }
-    TsLintGetErrorsCommand command = new TsLintGetErrorsCommand(LocalFilePath.create(parameters.getPath()),
-                                                                LocalFilePath.create(parameters.getConfigPath()),
-                                                                StringUtil.notNullize(content));
-    return process.execute(command, createHighlightProcessor(parameters.getPath()));
+    final String text = StringUtil.notNullize(content);
+    final ResultKey key = new ResultKey(parameters, config, text, getConfigModificationCount());
+    final List<TsLinterError> cachedResult = getCachedResult(key);
+    if (cachedResult != null) return new FixedFuture<>(cachedResult);
+
+    TsLintGetErrorsCommand command = createGetErrorsCommand(parameters, text);
+    final Gson gson = JSLanguageServiceUtil.getGson(this);
+    return process.execute(command, (object, answer) -> cacheResult(key, parseResults(answer, parameters.getPath(), gson)));
+  }
+
+  /**
+   * Lints the given files in one service request, e.g. to prepare the results for a batch inspection run.
+   * The results are put into the cache used by {@link #highlight}.
+   *
+   * @param contents file to its text, files which cannot be linted are skipped
+   * @return normalized file path to the linter errors for this file
+   */
+  public final Future<Map<String, List<TsLinterError>>> highlightBatch(@NotNull Map<VirtualFile, String> contents,
+                                                                       @NotNull TsLintState state) {
+    final long configModificationCount = getConfigModificationCount();
+    // the service answers with one result per command in the request order,
+    // its file names are not compared with the normalized paths as they may be converted to the system-dependent form
+    final List<String> paths = ContainerUtil.newArrayList();
+    final List<ResultKey> keys = ContainerUtil.newArrayList();
+    final List<TsLintGetErrorsCommand> commands = ContainerUtil.newArrayList();
+    for (Map.Entry<VirtualFile, String> entry : contents.entrySet()) {
+      final VirtualFile config = TslintUtil.getConfig(state, entry.getKey());
+      final MyParameters parameters = MyParameters.checkParameters(entry.getKey(), config);
+      if (parameters.getErrors() != null) continue;
+
+      final ResultKey key = new ResultKey(parameters, config, entry.getValue(), configModificationCount);
+      if (getCachedResult(key) != null) continue;
+
+      paths.add(parameters.getPath());
+      keys.add(key);
+      commands.add(createGetErrorsCommand(parameters, entry.getValue()));
+    }
+    if (commands.isEmpty()) return new FixedFuture<>(Collections.emptyMap());
+
+    final JSLanguageServiceQueue process = getProcess();
+    if (process == null) return new FixedFuture<>(Collections.emptyMap());
+
+    final Gson gson = JSLanguageServiceUtil.getGson(this);
+    return process.execute(new TsLintGetErrorsBatchCommand(commands), (object, answer) -> {
+      final List<List<TsLinterError>> results = parseBatchResults(answer, gson);
+      if (results.size() != commands.size()) {
+        if (!results.isEmpty()) {
+          LOG.info(String.format("Batch linting returned %d results for %d files", results.size(), commands.size()));
+        }
+        return Collections.emptyMap();
+      }
+      final Map<String, List<TsLinterError>> resultsByPath = ContainerUtil.newLinkedHashMap();
+      for (int i = 0; i < results.size(); i++) {
+        final List<TsLinterError> result = cacheResult(keys.get(i), results.get(i));
+        if (result != null) {
+          resultsByPath.put(paths.get(i), result);
+        }
+      }
+      return resultsByPath;
+    });
+  }
+
+  public final boolean hasCachedResult(@NotNull VirtualFile virtualFile, @NotNull String content, @NotNull TsLintState state) {
+    final VirtualFile config = TslintUtil.getConfig(state, virtualFile);
+    final MyParameters parameters = MyParameters.checkParameters(virtualFile, config);
+    return parameters.getErrors() == null &&
+           getCachedResult(new ResultKey(parameters, config, content, getConfigModificationCount())) != null;
+  }
+
+  @NotNull
+  private static TsLintGetErrorsCommand createGetErrorsCommand(@NotNull MyParameters parameters, @NotNull String content) {
+    return new TsLintGetErrorsCommand(LocalFilePath.create(parameters.getPath()),
+                                      LocalFilePath.create(parameters.getConfigPath()),
+                                      content);
+  }
+
+  private long getConfigModificationCount() {
+    return TsLintConfigFileChangeTracker.getInstance(myProject).getConfigModificationTracker().getModificationCount();
+  }
+
+  @Nullable
+  private List<TsLinterError> getCachedResult(@NotNull ResultKey key) {
+    synchronized (myResultCache) {
+      return myResultCache.get(key);
+    }
+  }
+
+  @Nullable
+  private List<TsLinterError> cacheResult(@NotNull ResultKey key, @Nullable List<TsLinterError> result) {
+    // service failures and global errors (e.g. broken config) are reported again on the next pass
+    if (result == null || ContainerUtil.exists(result, TsLinterError::isGlobal)) return result;
+
+    final List<TsLinterError> unmodifiableResult = Collections.unmodifiableList(result);
+    synchronized (myResultCache) {
+      myResultCache.put(key, unmodifiableResult);
+    }
+    return unmodifiableResult;
   }
 
   public final Future<List<TsLinterError>> highlightAndFix(@Nullable VirtualFile virtualFile, @NotNull TsLintState state) {
@@ -123,6 +224,49 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     }
   }
 
+  /**
+   * Identifies a lint result: file text, config and the linter itself (results are dropped on service restart).
+   */
+  private static class ResultKey {
+    @NotNull private final String myPath;
+    @NotNull private final String myConfigPath;
+    private final long myConfigStamp;
+    private final long myConfigModificationCount;
+    private final int myContentLength;
+    private final int myContentHash;
+
+    private ResultKey(@NotNull MyParameters parameters, @NotNull VirtualFile config, @NotNull String content,
+                      long configModificationCount) {
+      myPath = parameters.getPath();
+      myConfigPath = parameters.getConfigPath();
+      myConfigStamp = config.getModificationStamp();
+      myConfigModificationCount = configModificationCount;
+      myContentLength = content.length();
+      myContentHash = content.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      ResultKey key = (ResultKey)o;
+      return myConfigStamp == key.myConfigStamp &&
+             myConfigModificationCount == key.myConfigModificationCount &&
+             myContentLength == key.myContentLength &&
+             myContentHash == key.myContentHash &&
+             myPath.equals(key.myPath) &&
+             myConfigPath.equals(key.myConfigPath);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = myPath.hashCode();
+      result = 31 * result + myConfigPath.hashCode();
+      result = 31 * result + myContentHash;
+      return result;
+    }
+  }
+
   @NotNull
   private JSLanguageServiceCommandProcessor<List<TsLinterError>> createHighlightProcessor(@NotNull String path) {
     return (object, answer) -> parseResults(answer, path, JSLanguageServiceUtil.getGson(this));
@@ -145,6 +289,53 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     return ContainerUtil.newArrayList(parser.getErrors());
   }
 
+  /**
+   * @return the results in the order of the files in the request, {@code null} for the files with unparsable output
+   */
+  @NotNull
+  private static List<List<TsLinterError>> parseBatchResults(@NotNull JSLanguageServiceAnswer answer, @NotNull Gson gson) {
+    final JsonObject element = answer.getElement();
+    final JsonElement error = element.get("error");
+    if (error != null) {
+      LOG.info("Batch linting failed: " + error.getAsString());
+      return Collections.emptyList();
+    }
+    final JsonElement body = parseBody(element);
+    if (body == null || !body.isJsonArray()) return Collections.emptyList();
+
+    final SemVer tsLintVersion = SemVer.parseFromText(element.get("version").getAsString());
+    final boolean isZeroBased = TsLintOutputJsonParser.isVersionZeroBased(tsLintVersion);
+    final List<List<TsLinterError>> results = ContainerUtil.newArrayList();
+    for (JsonElement fileResult : body.getAsJsonArray()) {
+      results.add(fileResult.isJsonObject() ? parseBatchFileResult(fileResult.getAsJsonObject(), isZeroBased, gson) : null);
+    }
+    return results;
+  }
+
+  @Nullable
+  private static List<TsLinterError> parseBatchFileResult(@NotNull JsonObject fileObject, boolean isZeroBased, @NotNull Gson gson) {
+    final JsonElement fileName = fileObject.get("fileName");
+    if (fileName == null) return null;
+
+    final String path = fileName.getAsString();
+    final JsonElement fileError = fileObject.get("error");
+    final JsonElement output = fileObject.get("output");
+    if (fileError != null && !fileError.isJsonNull()) {
+      return Collections.singletonList(new TsLinterError(fileError.getAsString()));
+    }
+    if (output != null && output.isJsonPrimitive()) {
+      try {
+        final TsLintOutputJsonParser parser = new TsLintOutputJsonParser(path, new JsonParser().parse(output.getAsString()),
+                                                                         isZeroBased, gson);
+        return ContainerUtil.newArrayList(parser.getErrors());
+      }
+      catch (JsonParseException e) {
+        LOG.info(String.format("Problem parsing output for '%s'\n%s", path, e.getMessage()), e);
+      }
+    }
+    return null;
+  }
+
   private static JsonElement parseBody(@NotNull JsonObject element) {
     final JsonElement body = element.get("body");
     if (body == null) {
@@ -169,6 +360,10 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
 
   @Override
   protected final JSLanguageServiceQueue createLanguageServiceQueue() {
+    // new process may use another TSLint package
+    synchronized (myResultCache) {
+      myResultCache.clear();
+    }
     TsLintLanguageServiceProtocol protocol = new TsLintLanguageServiceProtocol(myProject, (el) -> {
     });
 
@@ -0,0 +1,19 @@
+package com.intellij.lang.javascript.linter.tslint.service.commands
+
+import com.intellij.lang.javascript.service.protocol.JSLanguageServiceCommand
+import com.intellij.lang.javascript.service.protocol.JSLanguageServiceObject
+import com.intellij.lang.javascript.service.protocol.JSLanguageServiceSimpleCommand
+
+
+/**
+ * Lints several files in one service round trip, the response body is an array of `{fileName, output, error}`.
+ */
+class TsLintGetErrorsBatchCommand(val files: List<TsLintGetErrorsCommand>) : JSLanguageServiceCommand, JSLanguageServiceSimpleCommand, JSLanguageServiceObject {
+
+  override fun toSerializableObject(): JSLanguageServiceObject {
+    return this
+  }
+
+  override fun getCommand(): String = "GetErrorsBatch"
+
+}
\ No newline at end of file
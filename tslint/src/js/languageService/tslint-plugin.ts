@@ -3,6 +3,7 @@ import {getVersion, Version} from "../utils";
 namespace TsLintCommands {
     export let GetErrors: string = "GetErrors";
     export let FixErrors: string = "FixErrors";
+    export let GetErrorsBatch: string = "GetErrorsBatch";
 }
 
 type LinterOptions = {
@@ -17,6 +18,11 @@ class Response {
     body: string | null;
     error: string | null;
 }
+type BatchFileResult = {
+    fileName: string;
+    output?: string;
+    error?: string;
+}
 let fs = require("fs");
 
 export class TSLintPlugin implements LanguagePlugin {
@@ -37,6 +43,9 @@ export class TSLintPlugin implements LanguagePlugin {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
         }
 
         return null;
@@ -70,6 +79,22 @@ export class TSLintPlugin implements LanguagePlugin {
         return this.processLinting(toProcess.fileName, toProcess.content, toProcess.configPath, options);
     }
 
+    private getErrorsBatch(toProcess: GetErrorsBatchArguments): {} {
+        let options = this.getOptions(false);
+        let results: BatchFileResult[] = [];
+        for (let file of toProcess.files) {
+            let fileResult: BatchFileResult = {fileName: file.fileName};
+            try {
+                fileResult.output = (<any>this.processLinting(file.fileName, file.content, file.configPath, options)).output;
+            } catch (e) {
+                fileResult.error = e.toString() + "\n\n" + e.stack;
+            }
+            results.push(fileResult);
+        }
+
+        return {output: JSON.stringify(results)};
+    }
+
     private fixErrors(toProcess: FixErrorsArguments): {} {
         let options = this.getOptions(true);
 
@@ -54,6 +54,13 @@ interface GetErrorsArguments {
     readonly content: string;
 }
 
+interface GetErrorsBatchArguments {
+    /**
+     * Files to check in one request
+     */
+    readonly files: GetErrorsArguments[];
+}
+
 interface FixErrorsArguments {
     /**
      * Absolute path for the file to check
@@ -7,13 +7,16 @@ import com.intellij.lang.javascript.linter.JSLinterAnnotationResult;
 import com.intellij.lang.javascript.linter.LinterHighlightingTest;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintConfiguration;
 import com.intellij.lang.javascript.linter.tslint.config.TsLintState;
+import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
 import com.intellij.lang.javascript.linter.tslint.highlight.TsLintExternalAnnotator;
 import com.intellij.lang.javascript.linter.tslint.highlight.TsLintInspection;
 import com.intellij.lang.javascript.linter.tslint.highlight.TsLinterInput;
+import com.intellij.lang.javascript.linter.tslint.service.TsLintLanguageService;
 import com.intellij.lang.javascript.service.JSLanguageServiceQueueImpl;
 import com.intellij.lang.javascript.service.JSLanguageServiceUtil;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.util.LineSeparator;
@@ -22,8 +25,11 @@ import org.junit.Assert;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -107,6 +113,36 @@ public class TsLintHighlightingTest extends LinterHighlightingTest {
     doTest("clean", "clean/clean.ts", null);
   }
 
+  public void testBatchHighlighting() throws Exception {
+    myFixture.copyDirectoryToProject("one", "one");
+    myFixture.copyDirectoryToProject("withWarningSeverity", "one/other");
+    final VirtualFile one = myFixture.findFileInTempDir("one/one.ts");
+    final VirtualFile main = myFixture.findFileInTempDir("one/other/main.ts");
+    final VirtualFile config = myFixture.findFileInTempDir("one/tslint.json");
+    final TsLintConfiguration configuration = TsLintConfiguration.getInstance(getProject());
+    final TsLintState state = new TsLintState.Builder(configuration.getExtendedState().getState())
+      .setCustomConfigFileUsed(true)
+      .setCustomConfigFilePath(config.getPath())
+      .build();
+    configuration.setExtendedState(true, state);
+
+    final Map<VirtualFile, String> contents = new LinkedHashMap<>();
+    contents.put(one, VfsUtilCore.loadText(one));
+    contents.put(main, VfsUtilCore.loadText(main));
+    final TsLintLanguageService service = TsLintLanguageService.getService(getProject());
+    final Map<String, List<TsLinterError>> results =
+      JSLanguageServiceUtil.awaitLanguageService(service.highlightBatch(contents, state), service);
+
+    Assert.assertNotNull(results);
+    Assert.assertEquals(Arrays.asList(JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(one),
+                                      JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(main)),
+                        new ArrayList<>(results.keySet()));
+    Assert.assertFalse(results.get(JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(one)).isEmpty());
+    for (Map.Entry<VirtualFile, String> entry : contents.entrySet()) {
+      Assert.assertTrue(entry.getKey().getPath(), service.hasCachedResult(entry.getKey(), entry.getValue(), state));
+    }
+  }
+
   public void testFixFile() {
     doFixTest("fix", "TSLint: Fix current file");
   }
@@ -3,7 +3,9 @@ package org.jetbrains.vuejs.codeInsight
 import com.intellij.lang.javascript.buildTools.npm.PackageJsonUtil
 import com.intellij.lang.javascript.library.JSLibraryUtil
 import com.intellij.lang.javascript.psi.stubs.JSImplicitElement
+import com.intellij.openapi.project.DumbService
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.openapi.vfs.VirtualFileManager
 import com.intellij.psi.PsiDirectory
@@ -27,14 +29,7 @@ class VueComponentsCache {
       Map<String, Map<String, Pair<PsiElement, Boolean>>> {
       val result: MutableMap<String, Map<String, Pair<PsiElement, Boolean>>> = mutableMapOf()
       result.put("", getOnlyProjectComponents(project).map)
-
-      getLibraryPackageJsons(project).forEach {
-        val moduleComponents = getModuleComponents(it, project)
-        if (moduleComponents != null) {
-          val name = PackageJsonUtil.getOrCreateData(it).name ?: it.parent.name
-          result.put(name, moduleComponents.map)
-        }
-      }
+      result.putAll(getLibraryComponents(project).byModule)
 
       if (onlyGlobal || filter != null) {
         return result.map {
@@ -53,15 +48,10 @@ class VueComponentsCache {
 
     fun findGlobalLibraryComponent(project: Project, name: String): Pair<String, PsiElement>? {
       val projectComponents = getOnlyProjectComponents(project)
-      var element = findComponentByAlias(projectComponents, name)
+      val element = findComponentByAlias(projectComponents, name)
       if (element != null) return element
 
-      val libraryPackageJsons = getLibraryPackageJsons(project)
-      for (packageJson in libraryPackageJsons) {
-        element = findComponentByAlias(getModuleComponents(packageJson, project), name)
-        if (element != null) return element
-      }
-      return null
+      return getLibraryComponents(project).aliases[fromAsset(name)]
     }
 
     private fun findComponentByAlias(components: ComponentsData?, alias: String): Pair<String, PsiElement>? {
@@ -71,6 +61,29 @@ class VueComponentsCache {
       return Pair(localName, localComp)
     }
 
+    // components of all libraries depending on vue, with aliases of all libraries merged so that the first library wins
+    private fun getLibraryComponents(project: Project): LibraryComponents {
+      return CachedValuesManager.getManager(project).getCachedValue(project, {
+        val byModule = mutableMapOf<String, Map<String, Pair<PsiElement, Boolean>>>()
+        val aliases = mutableMapOf<String, Pair<String, PsiElement>>()
+        getLibraryPackageJsons(project).forEach {
+          val moduleComponents = getModuleComponents(it, project)
+          if (moduleComponents != null) {
+            val name = PackageJsonUtil.getOrCreateData(it).name ?: it.parent.name
+            byModule.put(name, moduleComponents.map)
+            for (alias in moduleComponents.libCompResolveMap.keys) {
+              if (!aliases.containsKey(alias)) {
+                val element = findComponentByAlias(moduleComponents, alias)
+                if (element != null) aliases.put(alias, element)
+              }
+            }
+          }
+        }
+        CachedValueProvider.Result(LibraryComponents(byModule, aliases), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                                   ProjectRootModificationTracker.getInstance(project), DumbService.getInstance(project).modificationTracker)
+      })
+    }
+
     private fun getModuleComponents(packageJson: VirtualFile, project: Project): ComponentsData? {
       if (packageJson.parent != null) {
         val psiDirectory = PsiManager.getInstance(project).findDirectory(packageJson.parent)
@@ -86,15 +99,18 @@ class VueComponentsCache {
         val directoryFile = psiDirectory.virtualFile
         
         val scope = GlobalSearchScopesCore.directoryScope(psiDirectory.project, directoryFile, true)
-        CachedValueProvider.Result(VueComponentsCalculation.calculateScopeComponents(scope), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS)
+        CachedValueProvider.Result(VueComponentsRegistry.getInstance(psiDirectory.project).getScopeComponents(scope),
+                                   VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                                   DumbService.getInstance(psiDirectory.project).modificationTracker)
       }
       return CachedValuesManager.getCachedValue(psiDirectory, provider)
     }
 
     private fun getOnlyProjectComponents(project: Project): ComponentsData {
       return CachedValuesManager.getManager(project).getCachedValue(project, {
-        val componentsData = VueComponentsCalculation.calculateScopeComponents(GlobalSearchScope.projectScope(project))
-        CachedValueProvider.Result(componentsData, PsiManager.getInstance(project).modificationTracker)
+        val componentsData = VueComponentsRegistry.getInstance(project).getScopeComponents(GlobalSearchScope.projectScope(project))
+        CachedValueProvider.Result(componentsData, PsiManager.getInstance(project).modificationTracker,
+                                   DumbService.getInstance(project).modificationTracker)
       })
     }
 
@@ -129,4 +145,7 @@ class VueComponentsCache {
 
   class ComponentsData(val map: Map<String, Pair<PsiElement, Boolean>>,
                        val libCompResolveMap: Map<String, String>)
+
+  private class LibraryComponents(val byModule: Map<String, Map<String, Pair<PsiElement, Boolean>>>,
+                                  val aliases: Map<String, Pair<String, PsiElement>>)
 }
\ No newline at end of file
@@ -17,12 +17,10 @@ import com.intellij.lang.javascript.psi.*
 import com.intellij.lang.javascript.psi.stubs.JSImplicitElement
 import com.intellij.lang.javascript.psi.util.JSStubBasedPsiTreeUtil
 import com.intellij.psi.PsiElement
-import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.PsiFile
 import com.intellij.util.containers.putValue
 import org.jetbrains.vuejs.VueFileType
 import org.jetbrains.vuejs.index.GLOBAL_BINDING_MARK
-import org.jetbrains.vuejs.index.VueComponentsIndex
-import org.jetbrains.vuejs.index.getForAllKeys
 import org.jetbrains.vuejs.index.getVueIndexData
 import java.util.*
 
@@ -31,12 +29,13 @@ import java.util.*
  */
 class VueComponentsCalculation {
   companion object {
-    fun calculateScopeComponents(scope: GlobalSearchScope): VueComponentsCache.ComponentsData {
-      val allValues = getForAllKeys(scope, VueComponentsIndex.KEY)
+    fun calculateFileComponents(elements: List<JSImplicitElement>): FileComponents {
       val libCompResolveMap = mutableMapOf<String, String>()
+      val dependencies = mutableSetOf<PsiFile?>()
 
       val componentData = mutableMapOf<String, MutableList<Pair<PsiElement, Boolean>>>()
-      for (value in allValues) {
+      for (value in elements) {
+        dependencies.add(value.containingFile)
         val indexData = getVueIndexData(value)
         val name = indexData.originalName
         val isGlobal = indexData.isGlobal
@@ -49,9 +48,10 @@ class VueComponentsCalculation {
           // this is especially hard to distinguish them for cases like VueResolveTest.testResolveWithExplicitForInComponentsBinding
           // ! we are using information whether we met indexed property access to understand of it was collection of objects
           val pair = findObjectLiteralOfGlobalRegistration(value)
+          if (pair != null) dependencies.add(pair.first.containingFile)
           if (true == pair?.second) {
             // indexed access -> treat as collection of components
-            processComponentGroupRegistration(pair.first, libCompResolveMap, componentData)
+            processComponentGroupRegistration(pair.first, libCompResolveMap, componentData, dependencies)
           }
           else {
             // treat as single registration
@@ -70,6 +70,18 @@ class VueComponentsCalculation {
         }
       }
 
+      componentData.values.forEach { it.forEach { dependencies.add(it.first.containingFile) } }
+      return FileComponents(componentData, libCompResolveMap, dependencies)
+    }
+
+    fun mergeComponents(files: List<FileComponents>): VueComponentsCache.ComponentsData {
+      val libCompResolveMap = mutableMapOf<String, String>()
+      val componentData = mutableMapOf<String, MutableList<Pair<PsiElement, Boolean>>>()
+      for (file in files) {
+        libCompResolveMap.putAll(file.libCompResolveMap)
+        file.componentData.forEach { componentData.getOrPut(it.key, { mutableListOf() }).addAll(it.value) }
+      }
+
       val componentsMap = mutableMapOf<String, Pair<PsiElement, Boolean>>()
       for (entry in componentData) {
         componentsMap.put(entry.key, selectComponentDefinition(entry.value))
@@ -155,7 +167,8 @@ class VueComponentsCalculation {
 
     private fun processComponentGroupRegistration(objLiteral: JSObjectLiteralExpression,
                                                   libCompResolveMap: MutableMap<String, String>,
-                                                  componentData: MutableMap<String, MutableList<Pair<PsiElement, Boolean>>>) {
+                                                  componentData: MutableMap<String, MutableList<Pair<PsiElement, Boolean>>>,
+                                                  dependencies: MutableSet<PsiFile?>) {
       // object properties iteration
       val queue = ArrayDeque<PsiElement>()
       queue.addAll(objLiteral.children)
@@ -171,7 +184,10 @@ class VueComponentsCalculation {
           val spreadExpression = asSpread.expression
           if (spreadExpression is JSReferenceExpression) {
             val literal = getObjectLiteralFromResolve(resolveToValid(spreadExpression))
-            if (literal != null) queue.addAll(literal.children)
+            if (literal != null) {
+              dependencies.add(literal.containingFile)
+              queue.addAll(literal.children)
+            }
           }
           else if (spreadExpression is JSObjectLiteralExpression) {
             queue.addAll(spreadExpression.children)
@@ -214,4 +230,15 @@ class VueComponentsCalculation {
       return selected ?: list[0]
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Components and aliases registered in one file, valid until any of the files used to calculate them is changed
+   */
+  class FileComponents(val componentData: Map<String, List<Pair<PsiElement, Boolean>>>,
+                       val libCompResolveMap: Map<String, String>,
+                       dependencies: Set<PsiFile?>) {
+    private val stamps = dependencies.filterNotNull().map { Pair(it, it.modificationStamp) }
+
+    fun isUpToDate(): Boolean = stamps.all { it.first.isValid && it.first.modificationStamp == it.second }
+  }
+}
@@ -0,0 +1,165 @@
+// Copyright 2000-2018 JetBrains s.r.o.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package org.jetbrains.vuejs.codeInsight
+
+import com.intellij.lang.javascript.psi.stubs.JSImplicitElement
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootModificationTracker
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.newvfs.BulkFileListener
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
+import com.intellij.psi.PsiTreeChangeAdapter
+import com.intellij.psi.PsiTreeChangeEvent
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.stubs.StubIndex
+import com.intellij.psi.stubs.StubUpdatingIndex
+import com.intellij.util.Processor
+import com.intellij.util.containers.ContainerUtil
+import org.jetbrains.vuejs.index.VueComponentsIndex
+import org.jetbrains.vuejs.index.getForAllKeys
+import org.jetbrains.vuejs.index.resolve
+
+/**
+ * Components registered in each file, calculated from the [VueComponentsIndex] entries of the file.
+ * The files are collected from the index once, later only the entries of the files changed since the previous request are read again
+ * from the index: a file which no longer registers components or was deleted is dropped. A file is also calculated again
+ * when one of the files its registrations were resolved to has changed. When too many files have changed, for instance
+ * after a VCS update, the files are collected from the index again instead.
+ * Components of a scope are merged from the data of its files.
+ */
+class VueComponentsRegistry(private val project: Project) : Disposable {
+  private val files: MutableMap<VirtualFile, VueComponentsCalculation.FileComponents> = ContainerUtil.newConcurrentMap()
+  private val changedFiles: MutableSet<VirtualFile> = ContainerUtil.newConcurrentSet()
+  // roots modification count the files were collected from the index for, -1 if they have to be collected again
+  @Volatile private var collectedRootsCount = -1L
+
+  init {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(object : PsiTreeChangeAdapter() {
+      override fun childAdded(event: PsiTreeChangeEvent) = psiChanged(event)
+      override fun childRemoved(event: PsiTreeChangeEvent) = psiChanged(event)
+      override fun childReplaced(event: PsiTreeChangeEvent) = psiChanged(event)
+      override fun childrenChanged(event: PsiTreeChangeEvent) = psiChanged(event)
+      override fun childMoved(event: PsiTreeChangeEvent) = psiChanged(event)
+      override fun propertyChanged(event: PsiTreeChangeEvent) = psiChanged(event)
+    }, this)
+
+    val connection = project.messageBus.connect(this)
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, object : BulkFileListener {
+      override fun after(events: List<VFileEvent>) {
+        for (event in events) {
+          val file = event.file
+          // children of created, copied or moved directories are not reported one by one
+          if (file == null || file.isDirectory) collectedRootsCount = -1L
+          else fileChanged(file)
+        }
+      }
+    })
+    connection.subscribe(DumbService.DUMB_MODE, object : DumbService.DumbModeListener {
+      override fun enteredDumbMode() {}
+
+      override fun exitDumbMode() {
+        collectedRootsCount = -1L
+      }
+    })
+  }
+
+  override fun dispose() {}
+
+  private fun psiChanged(event: PsiTreeChangeEvent) {
+    val psiFile = event.file ?: event.child as? PsiFile ?: return
+    fileChanged(psiFile.viewProvider.virtualFile)
+  }
+
+  private fun fileChanged(file: VirtualFile) {
+    changedFiles.add(file)
+    if (changedFiles.size > MAX_CHANGED_FILES) {
+      // the data of all files is calculated again, so the changed ones don't need to be known
+      collectedRootsCount = -1L
+      files.clear()
+      changedFiles.clear()
+    }
+  }
+
+  /**
+   * In dumb mode the index is not available and no components are returned, so the callers caching the result
+   * have to depend on [DumbService.getModificationTracker].
+   */
+  fun getScopeComponents(scope: GlobalSearchScope): VueComponentsCache.ComponentsData {
+    if (DumbService.isDumb(project)) return VueComponentsCalculation.mergeComponents(emptyList())
+
+    val rootsCount = ProjectRootModificationTracker.getInstance(project).modificationCount
+    if (collectedRootsCount != rootsCount) {
+      collectFiles()
+      collectedRootsCount = rootsCount
+    }
+    else {
+      // write actions don't run while a read action computes components, so no change is missed here
+      for (file in changedFiles.toList()) {
+        updateFile(file)
+        changedFiles.remove(file)
+      }
+      files.filter { !it.value.isUpToDate() }.keys.forEach { updateFile(it) }
+    }
+
+    return VueComponentsCalculation.mergeComponents(files.filter { scope.contains(it.key) }.values.toList())
+  }
+
+  private fun collectFiles() {
+    val elementsByFile = mutableMapOf<VirtualFile, MutableList<JSImplicitElement>>()
+    for (element in getForAllKeys(GlobalSearchScope.allScope(project), VueComponentsIndex.KEY)) {
+      val file = element.containingFile?.viewProvider?.virtualFile ?: continue
+      elementsByFile.getOrPut(file, { mutableListOf() }).add(element)
+    }
+
+    files.keys.retainAll(elementsByFile.keys)
+    for ((file, elements) in elementsByFile) {
+      val cached = files[file]
+      if (cached == null || file in changedFiles || !cached.isUpToDate()) {
+        files.put(file, VueComponentsCalculation.calculateFileComponents(elements))
+      }
+    }
+    changedFiles.clear()
+  }
+
+  private fun updateFile(file: VirtualFile) {
+    val elements = if (file.isValid && StubUpdatingIndex.canHaveStub(file) && GlobalSearchScope.allScope(project).contains(file))
+      getFileComponentElements(file)
+    else emptyList()
+    if (elements.isEmpty()) {
+      files.remove(file)
+    }
+    else {
+      files.put(file, VueComponentsCalculation.calculateFileComponents(elements))
+    }
+  }
+
+  private fun getFileComponentElements(file: VirtualFile): List<JSImplicitElement> {
+    val fileScope = GlobalSearchScope.fileScope(project, file)
+    val keys = mutableListOf<String>()
+    StubIndex.getInstance().processAllKeys(VueComponentsIndex.KEY, Processor { keys.add(it) }, fileScope, null)
+    return keys.mapNotNull { resolve(it, fileScope, VueComponentsIndex.KEY) }.flatten()
+  }
+
+  companion object {
+    private const val MAX_CHANGED_FILES = 1000
+
+    fun getInstance(project: Project): VueComponentsRegistry = ServiceManager.getService(project, VueComponentsRegistry::class.java)
+  }
+}
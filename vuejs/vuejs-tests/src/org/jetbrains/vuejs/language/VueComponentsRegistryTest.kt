@@ -0,0 +1,77 @@
+// Copyright 2000-2018 JetBrains s.r.o.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package org.jetbrains.vuejs.language
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.testFramework.UsefulTestCase
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase
+import org.jetbrains.vuejs.codeInsight.VueComponentsCache
+
+class VueComponentsRegistryTest : LightPlatformCodeInsightFixtureTestCase() {
+  private fun globalProjectComponents(): Set<String> =
+    VueComponentsCache.getAllComponentsGroupedByModules(project, null, true)[""]?.keys ?: emptySet()
+
+  private fun setText(file: PsiFile, text: String) {
+    WriteCommandAction.runWriteCommandAction(project) {
+      val documentManager = PsiDocumentManager.getInstance(project)
+      val document = documentManager.getDocument(file)!!
+      document.setText(text)
+      documentManager.commitDocument(document)
+    }
+  }
+
+  fun testAddComponentFile() {
+    UsefulTestCase.assertDoesntContain(globalProjectComponents(), "added-comp")
+    myFixture.addFileToProject("added.js", "Vue.component('added-comp', {template: '<div></div>'})")
+    UsefulTestCase.assertContainsElements(globalProjectComponents(), "added-comp")
+  }
+
+  fun testEditComponentFile() {
+    val file = myFixture.addFileToProject("edited.js", "Vue.component('edited-comp', {template: '<div></div>'})")
+    UsefulTestCase.assertContainsElements(globalProjectComponents(), "edited-comp")
+
+    setText(file, "Vue.component('renamed-comp', {template: '<div></div>'})")
+    val components = globalProjectComponents()
+    UsefulTestCase.assertContainsElements(components, "renamed-comp")
+    UsefulTestCase.assertDoesntContain(components, "edited-comp")
+
+    setText(file, "var notComponent = {template: '<div></div>'}")
+    UsefulTestCase.assertDoesntContain(globalProjectComponents(), "renamed-comp")
+
+    setText(file, "Vue.component('edited-comp', {template: '<div></div>'})")
+    UsefulTestCase.assertContainsElements(globalProjectComponents(), "edited-comp")
+  }
+
+  fun testRemoveComponentFile() {
+    myFixture.addFileToProject("kept.js", "Vue.component('kept-comp', {template: '<div></div>'})")
+    val file = myFixture.addFileToProject("removed.js", "Vue.component('removed-comp', {template: '<div></div>'})")
+    UsefulTestCase.assertContainsElements(globalProjectComponents(), "kept-comp", "removed-comp")
+
+    WriteCommandAction.runWriteCommandAction(project) { file.delete() }
+    val components = globalProjectComponents()
+    UsefulTestCase.assertContainsElements(components, "kept-comp")
+    UsefulTestCase.assertDoesntContain(components, "removed-comp")
+  }
+
+  fun testChangeOfFileWithoutComponents() {
+    myFixture.addFileToProject("comp.js", "Vue.component('kept-comp', {template: '<div></div>'})")
+    val styles = myFixture.addFileToProject("styles.css", ".a {}")
+    UsefulTestCase.assertContainsElements(globalProjectComponents(), "kept-comp")
+
+    setText(styles, ".b {}")
+    UsefulTestCase.assertContainsElements(globalProjectComponents(), "kept-comp")
+  }
+}
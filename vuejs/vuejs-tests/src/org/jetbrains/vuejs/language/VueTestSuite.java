@@ -41,6 +41,7 @@ public class VueTestSuite {
     testSuite.addTestSuite(VueHighlightingLexerTest.class);
     testSuite.addTestSuite(VueLexerTest.class);
     testSuite.addTestSuite(VueEmmetTest.class);
+    testSuite.addTestSuite(VueComponentsRegistryTest.class);
 
     return testSuite;
   }